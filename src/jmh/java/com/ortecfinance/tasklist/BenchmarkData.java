@@ -0,0 +1,52 @@
+package com.ortecfinance.tasklist;
+
+import java.time.LocalDate;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+//Builds the storage the benchmarks run against: tasks spread round robin over the projects,
+//three out of four with a deadline within half a year of today and some of those due today.
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static TaskStorage storage(int taskCount, int projectCount) {
+        TaskStorage taskStorage = new TaskStorage();
+        fill(taskCount, projectCount, taskStorage::addProject, taskStorage::addTask,
+                taskStorage::setTaskDeadline, taskStorage::markTask);
+        return taskStorage;
+    }
+
+    //the same tasks in the column layout
+    static ColumnarTaskStorage columnarStorage(int taskCount, int projectCount) {
+        ColumnarTaskStorage taskStorage = new ColumnarTaskStorage();
+        fill(taskCount, projectCount, taskStorage::addProject, taskStorage::addTask,
+                taskStorage::setTaskDeadline, taskStorage::markTask);
+        return taskStorage;
+    }
+
+    static String projectName(int ordinal) {
+        return "project" + ordinal;
+    }
+
+    //the storages share no interface, so they hand in their operations
+    private static void fill(int taskCount, int projectCount, Consumer<String> addProject,
+                             BiConsumer<String, String> addTask, BiConsumer<Long, LocalDate> setTaskDeadline,
+                             BiConsumer<Long, Boolean> markTask) {
+        for (int p = 0; p < projectCount; p++) {
+            addProject.accept(projectName(p));
+        }
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < taskCount; i++) {
+            addTask.accept(projectName(i % projectCount), "Task number " + i);
+            long id = i + 1;
+            if (i % 4 != 0) {
+                setTaskDeadline.accept(id, today.plusDays(i % 181 - 90));
+            }
+            if (i % 3 == 0) {
+                markTask.accept(id, true);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.ortecfinance.tasklist;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//CommandParser.parse for every command type, including the error paths, against the String.split
+//based parser it replaced
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandParserBenchmark {
+
+    @Param({
+            "show",
+            "today",
+            "view-by-deadline",
+            "help",
+            "add project secrets",
+            "add task secrets Eat more donuts.",
+            "check 12345",
+            "uncheck 12345",
+            "deadline 12345 15-01-2026",
+            "due 01-01-2026 31-01-2026",
+            "check abc",
+            "nonsense"
+    })
+    public String commandLine;
+
+    @Param({"tokenizer", "split"})
+    public String parser;
+
+    @Benchmark
+    public CommandParser.Command parse() {
+        return parser.equals("tokenizer") ? CommandParser.parse(commandLine) : SplitCommandParser.parse(commandLine);
+    }
+}
@@ -0,0 +1,89 @@
+package com.ortecfinance.tasklist;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+//Compares startup from the write-ahead log alone with loading a snapshot and replaying
+//only the records written after it. The recovered storage is closed right away.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupRecoveryBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int taskCount;
+
+    //changes made after the last checkpoint, replayed from the log in both cases
+    @Param({"1000"})
+    public int tailCount;
+
+    private Path logOnly;
+    private Path withSnapshot;
+
+    @Setup(Level.Trial)
+    public void writeData() throws IOException {
+        logOnly = Files.createTempDirectory("tasklist-log-only");
+        withSnapshot = Files.createTempDirectory("tasklist-snapshot");
+        fill(logOnly, false);
+        fill(withSnapshot, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteData() throws IOException {
+        delete(logOnly);
+        delete(withSnapshot);
+    }
+
+    @Benchmark
+    public int replayLog() throws IOException {
+        try (TaskStorage taskStorage = new TaskStorage(open(logOnly))) {
+            return taskStorage.getAllProjects().size();
+        }
+    }
+
+    @Benchmark
+    public int loadSnapshotAndReplayTail() throws IOException {
+        try (TaskStorage taskStorage = new TaskStorage(open(withSnapshot), withSnapshot.resolve("tasklist.snapshot"))) {
+            return taskStorage.getAllProjects().size();
+        }
+    }
+
+    private void fill(Path directory, boolean checkpoint) throws IOException {
+        try (TaskStorage taskStorage = new TaskStorage(open(directory), directory.resolve("tasklist.snapshot"))) {
+            int projectCount = Math.max(1, taskCount / 1000);
+            for (int p = 0; p < projectCount; p++) {
+                taskStorage.addProject("project" + p);
+            }
+            for (int i = 0; i < taskCount; i++) {
+                taskStorage.addTask("project" + (i % projectCount), "Task " + i);
+            }
+            if (checkpoint) {
+                taskStorage.checkpoint();
+            }
+            for (int i = 0; i < tailCount; i++) {
+                taskStorage.markTask(1 + i % taskCount, true);
+            }
+        }
+    }
+
+    private static WriteAheadLog open(Path directory) throws IOException {
+        return WriteAheadLog.open(directory.resolve("tasklist.wal"), WriteAheadLog.Durability.ASYNC, 1000);
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
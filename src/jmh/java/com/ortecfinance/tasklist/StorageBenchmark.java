@@ -0,0 +1,89 @@
+package com.ortecfinance.tasklist;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+//Read paths of TaskStorage for growing data sets. The lookups should stay flat as the task count
+//grows, the views should grow with the number of tasks they return and not with anything else.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StorageBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int taskCount;
+
+    @Param({"1", "100", "10000"})
+    public int projectCount;
+
+    private TaskStorage taskStorage;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void fillStorage() {
+        taskStorage = BenchmarkData.storage(taskCount, projectCount);
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public Task returnTaskByID() {
+        return taskStorage.returnTaskByID(1 + random.nextInt(taskCount));
+    }
+
+    @Benchmark
+    public Task returnTaskByIDMissing() {
+        return taskStorage.returnTaskByID(taskCount + 1L + random.nextInt(taskCount));
+    }
+
+    //getAllProjects itself only hands out the snapshot, so walk it like the formatter and REST API do
+    @Benchmark
+    public void getAllProjects(Blackhole blackhole) {
+        for (Map.Entry<String, List<Task>> project : taskStorage.getAllProjects().entrySet()) {
+            blackhole.consume(project.getKey());
+            for (Task task : project.getValue()) {
+                blackhole.consume(task);
+            }
+        }
+    }
+
+    //a word only one task contains
+    @Benchmark
+    public Object searchRareWord() {
+        return taskStorage.search(String.valueOf(random.nextInt(taskCount)), TaskSearch.Filter.NONE, 100);
+    }
+
+    //every task contains "number", so ranking the single task with both words walks all of them
+    @Benchmark
+    public Object searchRareAndCommonWord() {
+        return taskStorage.search("number " + random.nextInt(taskCount), TaskSearch.Filter.NONE, 100);
+    }
+
+    //every task matches both words, the first 100 already rank highest
+    @Benchmark
+    public Object searchCommonWords() {
+        return taskStorage.search("task number", TaskSearch.Filter.NONE, 100);
+    }
+
+    @Benchmark
+    public Object searchCommonWordFiltered() {
+        return taskStorage.search("task", new TaskSearch.Filter(BenchmarkData.projectName(projectCount - 1), false, null), 100);
+    }
+
+    @Benchmark
+    public Object getTasksTodaysDeadline() {
+        return taskStorage.getTasksTodaysDeadline();
+    }
+
+    @Benchmark
+    public Object getTasksSortedByDeadline() {
+        return taskStorage.getTasksSortedByDeadline();
+    }
+}
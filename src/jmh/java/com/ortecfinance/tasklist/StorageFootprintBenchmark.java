@@ -0,0 +1,74 @@
+package com.ortecfinance.tasklist;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.concurrent.TimeUnit;
+
+//Heap retained per task by TaskStorage (a Task object per task plus its index entries) and by
+//ColumnarTaskStorage (columns of primitives), reported as the bytesPerTask counter. Both keep the
+//descriptions ("Task number 123456") in a DescriptionArena, whose direct memory is reported as
+//offHeapBytesPerTask. The time includes the collections around the fill, only the counters matter.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 1)
+//counters are summed over the measurement iterations, with one the counter is the footprint itself
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StorageFootprintBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int taskCount;
+
+    @Param({"100"})
+    public int projectCount;
+
+    @Param({"rows", "columnar"})
+    public String layout;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long bytesPerTask;
+        public long offHeapBytesPerTask;
+    }
+
+    @Benchmark
+    public Object fill(Footprint footprint) {
+        long before = usedHeap();
+        long directBefore = usedDirectMemory();
+        Object storage = layout.equals("rows")
+                ? BenchmarkData.storage(taskCount, projectCount)
+                : BenchmarkData.columnarStorage(taskCount, projectCount);
+        long after = usedHeap();
+        long directAfter = usedDirectMemory();
+        Reference.reachabilityFence(storage);
+        footprint.bytesPerTask = (after - before) / taskCount;
+        footprint.offHeapBytesPerTask = (directAfter - directBefore) / taskCount;
+        return storage;
+    }
+
+    //also called right before usedDirectMemory, which relies on its collections
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            //gives the cleaner time to release the direct buffers of the previous iteration's storage
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long usedDirectMemory() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+}
@@ -0,0 +1,65 @@
+package com.ortecfinance.tasklist;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//Formatting of the show and view-by-deadline output. The input maps are taken from the storage
+//once, so only the formatting itself is measured. The format benchmarks build the whole output as
+//a String, the write benchmarks write the way the console does, through a BufferedAppendable into
+//a PrintWriter that discards the output;
+//run with -prof gc to compare the allocations (gc.alloc.rate.norm).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskFormatterBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int taskCount;
+
+    @Param({"1", "100", "10000"})
+    public int projectCount;
+
+    private Map<String, List<Task>> projects;
+    private Map<LocalDate, Map<String, List<Task>>> tasksByDeadline;
+    private BufferedAppendable sink;
+
+    @Setup(Level.Trial)
+    public void fillStorage() {
+        TaskStorage taskStorage = BenchmarkData.storage(taskCount, projectCount);
+        projects = taskStorage.getAllProjects();
+        tasksByDeadline = taskStorage.getTasksSortedByDeadline();
+        sink = new BufferedAppendable(new PrintWriter(Writer.nullWriter()));
+    }
+
+    @Benchmark
+    public String formatAllProjects() {
+        return TaskFormatter.formatAllProjects(projects);
+    }
+
+    @Benchmark
+    public String formatTasksByDeadline() {
+        return TaskFormatter.formatTasksByDeadline(tasksByDeadline);
+    }
+
+    @Benchmark
+    public void writeAllProjects() throws IOException {
+        TaskFormatter.writeAllProjects(sink, projects);
+        sink.writeBuffered();
+    }
+
+    @Benchmark
+    public void writeTasksByDeadline() throws IOException {
+        TaskFormatter.writeTasksByDeadline(sink, tasksByDeadline);
+        sink.writeBuffered();
+    }
+}
@@ -0,0 +1,73 @@
+package com.ortecfinance.tasklist;
+
+import java.io.IOException;
+import java.io.Writer;
+
+//Unsynchronized char buffer in front of a Writer, for TaskFormatter's write methods. They append a
+//few chars at a time, which through a PrintWriter means two monitors per call; here it is an array
+//store, and the Writer only sees one write per full buffer. Not thread safe, one per console.
+final class BufferedAppendable implements Appendable {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Writer out;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int length;
+
+    BufferedAppendable(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+        String value = String.valueOf(csq);
+        int offset = 0;
+        while (offset < value.length()) {
+            if (length == buffer.length) {
+                writeBuffered();
+            }
+            int count = Math.min(value.length() - offset, buffer.length - length);
+            value.getChars(offset, offset + count, buffer, length);
+            length += count;
+            offset += count;
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+        return append(String.valueOf(csq).substring(start, end));
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+        if (length == buffer.length) {
+            writeBuffered();
+        }
+        buffer[length++] = c;
+        return this;
+    }
+
+    //digits of a non-negative number, written backwards straight into the buffer
+    void appendNumber(long value) throws IOException {
+        if (buffer.length - length < 20) {
+            writeBuffered();
+        }
+        int digits = 1;
+        for (long limit = 10; digits < 19 && value >= limit; limit *= 10) {
+            digits++;
+        }
+        for (int i = length + digits - 1; i >= length; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+    }
+
+    //hands everything appended so far to the Writer, without flushing the Writer itself
+    void writeBuffered() throws IOException {
+        if (length > 0) {
+            out.write(buffer, 0, length);
+            length = 0;
+        }
+    }
+}
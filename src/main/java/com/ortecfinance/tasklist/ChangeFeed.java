@@ -0,0 +1,209 @@
+package com.ortecfinance.tasklist;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+//Pushes every change of the task list to its subscribers, numbered by a sequence that only grows.
+//Publishing never waits for a subscriber: every subscriber has a bounded queue that is emptied by its
+//own virtual thread, and a subscriber whose queue is full is dropped and told so (an overflow event)
+//instead of slowing down the writers. The last events are kept, so a subscriber that reconnects with
+//the last sequence it saw gets what it missed, or a reset event when that is no longer kept.
+//The sequence starts at 0 with every process, so event ids are qualified with the time the feed was
+//created ("epoch-sequence"): an id of an earlier process never matches and gets a reset.
+//Guarded by a ReentrantLock rather than a monitor, writers on virtual threads that block on it do not
+//pin their carrier thread.
+public final class ChangeFeed implements AutoCloseable {
+    private static final int DEFAULT_HISTORY = 1024;
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static final Duration DEFAULT_HEARTBEAT = Duration.ofSeconds(15);
+
+    private final TaskEvent[] history;
+    private final int queueCapacity;
+    private final long heartbeatNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private long sequence = 0;
+
+    //Where a subscription's events go, only called from the subscription's own thread
+    public interface EventSink {
+        void send(TaskEvent event) throws IOException;
+
+        //sent when there was no event for a while, keeps proxies from closing the connection
+        void heartbeat() throws IOException;
+
+        //no more events will be sent
+        void complete();
+    }
+
+    public ChangeFeed() {
+        this(DEFAULT_HISTORY, DEFAULT_QUEUE_CAPACITY, DEFAULT_HEARTBEAT);
+    }
+
+    ChangeFeed(int history, int queueCapacity, Duration heartbeat) {
+        //a reconnecting subscriber gets up to the whole history queued at once
+        if (queueCapacity < history) {
+            throw new IllegalArgumentException("Queue capacity " + queueCapacity + " is smaller than history " + history);
+        }
+        this.history = new TaskEvent[history];
+        this.queueCapacity = queueCapacity;
+        this.heartbeatNanos = heartbeat.toNanos();
+    }
+
+    //Called by TaskStorage for every change, while it holds its write lock, so the sequence follows the
+    //order the changes were applied in
+    void publish(LogRecord change, String project) {
+        lock.lock();
+        try {
+            TaskEvent event = TaskEvent.of(++sequence, change, project);
+            history[(int) (sequence % history.length)] = event;
+            for (Iterator<Subscription> it = subscriptions.iterator(); it.hasNext(); ) {
+                Subscription subscription = it.next();
+                if (!subscription.queue.offer(event)) {
+                    subscription.overflowed = true;
+                    it.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Sends every change from now on to the sink. With the lastEventId of an earlier subscription the
+    //changes after it are sent first, or a reset event when they are no longer kept or the id is not
+    //one of this feed's.
+    public Subscription subscribe(String lastEventId, EventSink sink) {
+        Subscription subscription = new Subscription(sink);
+        long lastSequence = lastEventId != null ? sequenceOf(lastEventId) : 0;
+        lock.lock();
+        try {
+            if (lastEventId != null) {
+                long oldest = Math.max(1, sequence - history.length + 1);
+                if (lastSequence < 0 || lastSequence > sequence || lastSequence < oldest - 1) {
+                    subscription.queue.add(new TaskEvent(sequence, TaskEvent.RESET, null, null, null, null, null));
+                } else {
+                    for (long missed = lastSequence + 1; missed <= sequence; missed++) {
+                        subscription.queue.add(history[(int) (missed % history.length)]);
+                    }
+                }
+            }
+            subscriptions.add(subscription);
+            subscription.sender.start();
+        } finally {
+            lock.unlock();
+        }
+        return subscription;
+    }
+
+    //id of the event with the given sequence, as sent to the subscribers
+    public String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    //sequence of an id of this feed, -1 for an id of another process or one that is not an id at all
+    private long sequenceOf(String eventId) {
+        int dash = eventId.indexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    //sequence of the last published change, 0 before the first
+    public long sequence() {
+        lock.lock();
+        try {
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int subscriberCount() {
+        lock.lock();
+        try {
+            return subscriptions.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //completes every subscription
+    @Override
+    public void close() {
+        List<Subscription> open;
+        lock.lock();
+        try {
+            open = new ArrayList<>(subscriptions);
+            subscriptions.clear();
+        } finally {
+            lock.unlock();
+        }
+        for (Subscription subscription : open) {
+            subscription.sender.interrupt();
+        }
+    }
+
+    public final class Subscription {
+        private final BlockingQueue<TaskEvent> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final EventSink sink;
+        private volatile boolean overflowed = false;
+        private volatile boolean cancelled = false;
+        private final Thread sender;
+
+        private Subscription(EventSink sink) {
+            this.sink = sink;
+            this.sender = Thread.ofVirtual().name("change-feed").unstarted(this::run);
+        }
+
+        //stops sending without completing the sink, for when the client went away
+        public void cancel() {
+            cancelled = true;
+            lock.lock();
+            try {
+                subscriptions.remove(this);
+            } finally {
+                lock.unlock();
+            }
+            sender.interrupt();
+        }
+
+        private void run() {
+            try {
+                while (!overflowed) {
+                    TaskEvent event = queue.poll(heartbeatNanos, TimeUnit.NANOSECONDS);
+                    if (overflowed) {
+                        break;
+                    }
+                    if (event == null) {
+                        sink.heartbeat();
+                    } else {
+                        sink.send(event);
+                    }
+                }
+                //the queued events are of no use once one is lost
+                queue.clear();
+                sink.send(new TaskEvent(0, TaskEvent.OVERFLOW, null, null, null, null, null));
+                sink.complete();
+            } catch (InterruptedException e) {
+                if (!cancelled) {
+                    sink.complete();
+                }
+            } catch (IOException e) {
+                //the client is gone
+                cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.ortecfinance.tasklist;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.StampedLock;
+
+//In-memory task storage for very large task lists, with the same operations and errors as TaskStorage.
+//Tasks are not kept as objects but as columns indexed by row (the order tasks were added in):
+//ids, done flags, deadlines as epoch days, project ordinals and description handles into an off-heap
+//DescriptionArena. Every project keeps the
+//rows of its tasks. A Task is only created when it is handed out, so a task costs a few array slots
+//plus its description instead of a Task, a LocalDate, a TaskLocation and the index entries pointing at them.
+//There is no deadline index, the deadline views scan the deadline column, which is cheaper to keep
+//than an index entry per task and fast enough for a few million tasks.
+//No write-ahead log, snapshots or paging: this is TaskStorage's data model, not a replacement for it.
+public class ColumnarTaskStorage {
+    //deadline column value of a task without a deadline
+    private static final int NO_DEADLINE = Integer.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 16;
+    private final StampedLock lock = new StampedLock();
+
+    private final List<String> projectNames = new ArrayList<>();
+    private final Map<String, Integer> projectOrdinals = new HashMap<>();
+    //rows of every project's tasks in the order they were added, the first projectSizes[ordinal] are used
+    private int[][] projectRows = new int[INITIAL_CAPACITY][];
+    private int[] projectSizes = new int[INITIAL_CAPACITY];
+
+    private int size = 0;
+    //ids only ever grow, so the column is sorted and a row can be found by binary search
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private final BitSet done = new BitSet();
+    private int[] deadlines = new int[INITIAL_CAPACITY];
+    private int[] ordinals = new int[INITIAL_CAPACITY];
+    private long[] descriptionHandles = new long[INITIAL_CAPACITY];
+    private final DescriptionArena descriptions = new DescriptionArena();
+    private int withDeadline = 0;
+    private long lastId = 0;
+
+    public void addProject(String name) {
+        long stamp = lock.writeLock();
+        try {
+            if (projectOrdinals.containsKey(name)) {
+                throw new IllegalArgumentException("Project " + name + " already exists: ");
+            }
+            int ordinal = projectNames.size();
+            if (ordinal == projectSizes.length) {
+                projectRows = Arrays.copyOf(projectRows, ordinal * 2);
+                projectSizes = Arrays.copyOf(projectSizes, ordinal * 2);
+            }
+            projectRows[ordinal] = new int[INITIAL_CAPACITY];
+            projectNames.add(name);
+            projectOrdinals.put(name, ordinal);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean projectExists(String name) {
+        long stamp = lock.readLock();
+        try {
+            return projectOrdinals.containsKey(name);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public void addTask(String project, String description) {
+        long stamp = lock.writeLock();
+        try {
+            Integer ordinal = projectOrdinals.get(project);
+            if (ordinal == null) {
+                throw new IllegalArgumentException("Project not found: " + project);
+            }
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                deadlines = Arrays.copyOf(deadlines, capacity);
+                ordinals = Arrays.copyOf(ordinals, capacity);
+                descriptionHandles = Arrays.copyOf(descriptionHandles, capacity);
+            }
+            int row = size++;
+            ids[row] = ++lastId;
+            deadlines[row] = NO_DEADLINE;
+            ordinals[row] = ordinal;
+            descriptionHandles[row] = descriptions.intern(description);
+
+            int position = projectSizes[ordinal]++;
+            if (position == projectRows[ordinal].length) {
+                projectRows[ordinal] = Arrays.copyOf(projectRows[ordinal], position * 2);
+            }
+            projectRows[ordinal][position] = row;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public Task returnTaskByID(long ID) {
+        long stamp = lock.readLock();
+        try {
+            int row = rowOf(ID);
+            return row >= 0 ? task(row) : null;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    //name of the project the task belongs to, null if there is no such task
+    public String projectOfTask(long ID) {
+        long stamp = lock.readLock();
+        try {
+            int row = rowOf(ID);
+            return row >= 0 ? projectNames.get(ordinals[row]) : null;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public void markTask(long ID, boolean done) {
+        long stamp = lock.writeLock();
+        try {
+            this.done.set(findTask(ID), done);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void setTaskDeadline(long ID, LocalDate deadline) {
+        long stamp = lock.writeLock();
+        try {
+            int row = findTask(ID);
+            int day = deadline != null ? epochDay(deadline) : NO_DEADLINE;
+            if (deadlines[row] == NO_DEADLINE && deadline != null) {
+                withDeadline++;
+            } else if (deadlines[row] != NO_DEADLINE && deadline == null) {
+                withDeadline--;
+            }
+            deadlines[row] = day;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    //Project name -> tasks, copied out of the columns so later changes are not visible in it
+    public Map<String, List<Task>> getAllProjects() {
+        long stamp = lock.readLock();
+        try {
+            Map<String, List<Task>> result = new LinkedHashMap<>();
+            for (int ordinal = 0; ordinal < projectNames.size(); ordinal++) {
+                List<Task> tasks = new ArrayList<>(projectSizes[ordinal]);
+                for (int position = 0; position < projectSizes[ordinal]; position++) {
+                    tasks.add(task(projectRows[ordinal][position]));
+                }
+                result.put(projectNames.get(ordinal), tasks);
+            }
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int projectCount() {
+        long stamp = lock.readLock();
+        try {
+            return projectNames.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int taskCount() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int tasksWithDeadlineCount() {
+        long stamp = lock.readLock();
+        try {
+            return withDeadline;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public Map<String, List<Task>> getTasksTodaysDeadline() {
+        int today = epochDay(LocalDate.now());
+        Map<LocalDate, Map<String, List<Task>>> due = groupByDeadline(today, today, false);
+        return due.isEmpty() ? new LinkedHashMap<>() : due.values().iterator().next();
+    }
+
+    public Map<LocalDate, Map<String, List<Task>>> getTasksSortedByDeadline() {
+        return groupByDeadline(NO_DEADLINE + 1, Integer.MAX_VALUE, true);
+    }
+
+    public Map<LocalDate, Map<String, List<Task>>> getTasksWithDeadlineBetween(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date " + from + " is after end date " + to);
+        }
+        //no stored deadline lies outside the int range, so the range can be cut down to it
+        return groupByDeadline(Math.clamp(from.toEpochDay(), NO_DEADLINE + 1, Integer.MAX_VALUE),
+                Math.clamp(to.toEpochDay(), NO_DEADLINE + 1, Integer.MAX_VALUE), false);
+    }
+
+    //Deadline -> project name -> tasks for the deadlines in [from, to] in chronological order, followed by
+    //the tasks without a deadline under null if asked for. Walking the projects in order and their rows
+    //in order gives the same project and task order as TaskStorage's deadline index.
+    private Map<LocalDate, Map<String, List<Task>>> groupByDeadline(int from, int to, boolean withoutDeadline) {
+        long stamp = lock.readLock();
+        try {
+            NavigableMap<Integer, Map<String, List<Task>>> byDay = new TreeMap<>();
+            Map<String, List<Task>> undated = new LinkedHashMap<>();
+            for (int ordinal = 0; ordinal < projectNames.size(); ordinal++) {
+                String project = projectNames.get(ordinal);
+                int[] rows = projectRows[ordinal];
+                for (int position = 0; position < projectSizes[ordinal]; position++) {
+                    int row = rows[position];
+                    int deadline = deadlines[row];
+                    Map<String, List<Task>> group;
+                    if (deadline == NO_DEADLINE) {
+                        if (!withoutDeadline) {
+                            continue;
+                        }
+                        group = undated;
+                    } else if (deadline >= from && deadline <= to) {
+                        group = byDay.computeIfAbsent(deadline, day -> new LinkedHashMap<>());
+                    } else {
+                        continue;
+                    }
+                    group.computeIfAbsent(project, name -> new ArrayList<>()).add(task(row));
+                }
+            }
+
+            Map<LocalDate, Map<String, List<Task>>> result = new LinkedHashMap<>();
+            for (Map.Entry<Integer, Map<String, List<Task>>> day : byDay.entrySet()) {
+                result.put(LocalDate.ofEpochDay(day.getKey()), day.getValue());
+            }
+            if (!undated.isEmpty()) {
+                result.put(null, undated);
+            }
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    //an int holds the epoch days of about 5.8 million years either side of 1970
+    private static int epochDay(LocalDate date) {
+        long day = date.toEpochDay();
+        if (day <= NO_DEADLINE || day > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Date out of range: " + date);
+        }
+        return (int) day;
+    }
+
+    //caller must hold a lock
+    private Task task(int row) {
+        int deadline = deadlines[row];
+        return new Task(ids[row], descriptions, descriptionHandles[row], done.get(row),
+                deadline != NO_DEADLINE ? LocalDate.ofEpochDay(deadline) : null);
+    }
+
+    //Row of the task with the given id, -1 if there is none. Ids are handed out one by one,
+    //so the row is almost always id - 1 and the binary search is only a fallback.
+    private int rowOf(long ID) {
+        if (ID >= 1 && ID <= size && ids[(int) (ID - 1)] == ID) {
+            return (int) (ID - 1);
+        }
+        int row = Arrays.binarySearch(ids, 0, size, ID);
+        return row >= 0 ? row : -1;
+    }
+
+    //caller must hold the write lock
+    private int findTask(long ID) {
+        int row = rowOf(ID);
+        if (row < 0) {
+            throw new IllegalArgumentException("Task not found: " + ID);
+        }
+        return row;
+    }
+}
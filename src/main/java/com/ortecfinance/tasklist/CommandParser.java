@@ -1,80 +1,127 @@
 package com.ortecfinance.tasklist;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
 
+//Parses a console line in one pass over its characters. Words are found by their index in the line and
+//compared in place, only the values kept by a command (project name, task description) become strings.
+//The result is the same as splitting the line on single spaces, including empty words for double spaces.
 public class CommandParser {
 
     //subfunction to parse the date given dd-mm-yyyy format
     public static LocalDate parseDate(String dateString) {
-        String[] parts = dateString.split("-");
-        int day = Integer.parseInt(parts[0]);
-        int month = Integer.parseInt(parts[1]);
-        int year = Integer.parseInt(parts[2]);
+        return parseDate(dateString, 0, dateString.length());
+    }
+
+    //Same rules as splitting on '-' and parsing the first three parts: trailing dashes are ignored and
+    //so is everything after the year
+    private static LocalDate parseDate(CharSequence line, int start, int end) {
+        int last = end;
+        while (last > start && line.charAt(last - 1) == '-') {
+            last--;
+        }
+        if (last == start && end > start) {
+            throw new DateTimeException("Invalid date: " + line.subSequence(start, end));
+        }
+        int dayEnd = indexOf(line, '-', start, last);
+        int day = parseInt(line, start, dayEnd);
+        if (dayEnd == last) {
+            throw new DateTimeException("Invalid date: " + line.subSequence(start, end));
+        }
+        int monthEnd = indexOf(line, '-', dayEnd + 1, last);
+        int month = parseInt(line, dayEnd + 1, monthEnd);
+        if (monthEnd == last) {
+            throw new DateTimeException("Invalid date: " + line.subSequence(start, end));
+        }
+        int year = parseInt(line, monthEnd + 1, indexOf(line, '-', monthEnd + 1, last));
         return LocalDate.of(year, month, day);
     }
 
     public static Command parse(String commandLine) {
-        if (commandLine == null || commandLine.trim().isEmpty()) {
+        if (commandLine == null || isBlank(commandLine)) {
             return new UnknownCommand("");
         }
 
-        String[] commandRest = commandLine.split(" ", 2);
-        String command = commandRest[0];
+        int length = commandLine.length();
+        int commandEnd = indexOf(commandLine, ' ', 0, length);
+        //start of the arguments, -1 if there is no space after the command
+        int rest = commandEnd < length ? commandEnd + 1 : -1;
 
-        switch (command) {
-            case "show":
-                return new ShowCommand();
-            case "add":
-                if (commandRest.length < 2) {
-                    return new ErrorCommand("Please specify what to add (project/task).");
-                }
-                return parseAddCommand(commandRest[1]);
-            case "check":
-                if (commandRest.length < 2) {
-                    return new ErrorCommand("Please provide a task ID");
-                }
-                return parseCheckCommand(commandRest[1], true);
-            case "uncheck":
-                if (commandRest.length < 2) {
-                    return new ErrorCommand("Please provide a task ID");
-                }
-                return parseCheckCommand(commandRest[1], false);
-            case "deadline":
-                if (commandRest.length < 2) {
-                    return new ErrorCommand("Please provide a task ID");
-                }
-                return parseDeadlineCommand(commandRest[1]);
-            case "today":
-                return new TodayCommand();
-            case "view-by-deadline":
-                return new ViewByDeadlineCommand();
-            case "help":
-                return new HelpCommand();
-            default:
-                return new UnknownCommand(command);
+        if (is(commandLine, 0, commandEnd, "show")) {
+            //show without a project name shows all projects
+            return new ShowCommand(rest < 0 || isBlank(commandLine.substring(rest)) ? null : commandLine.substring(rest));
+        } else if (is(commandLine, 0, commandEnd, "add")) {
+            if (rest < 0) {
+                return new ErrorCommand("Please specify what to add (project/task).");
+            }
+            return parseAddCommand(commandLine, rest);
+        } else if (is(commandLine, 0, commandEnd, "check")) {
+            if (rest < 0) {
+                return new ErrorCommand("Please provide a task ID");
+            }
+            return parseCheckCommand(commandLine, rest, true);
+        } else if (is(commandLine, 0, commandEnd, "uncheck")) {
+            if (rest < 0) {
+                return new ErrorCommand("Please provide a task ID");
+            }
+            return parseCheckCommand(commandLine, rest, false);
+        } else if (is(commandLine, 0, commandEnd, "deadline")) {
+            if (rest < 0) {
+                return new ErrorCommand("Please provide a task ID");
+            }
+            return parseDeadlineCommand(commandLine, rest);
+        } else if (is(commandLine, 0, commandEnd, "today")) {
+            return new TodayCommand();
+        } else if (is(commandLine, 0, commandEnd, "view-by-deadline")) {
+            return new ViewByDeadlineCommand();
+        } else if (is(commandLine, 0, commandEnd, "due")) {
+            if (rest < 0) {
+                return new ErrorCommand("Please provide a start and an end date.");
+            }
+            return parseDueCommand(commandLine, rest);
+        } else if (is(commandLine, 0, commandEnd, "help")) {
+            return new HelpCommand();
+        } else if (is(commandLine, 0, commandEnd, "stats")) {
+            return new StatsCommand();
+        } else if (is(commandLine, 0, commandEnd, "export")) {
+            if (rest < 0 || isBlank(commandLine.substring(rest))) {
+                return new ErrorCommand("Please provide the file to export to.");
+            }
+            return new ExportCommand(commandLine.substring(rest));
+        } else if (is(commandLine, 0, commandEnd, "import")) {
+            if (rest < 0 || isBlank(commandLine.substring(rest))) {
+                return new ErrorCommand("Please provide the file to import.");
+            }
+            return new ImportCommand(commandLine.substring(rest));
+        } else if (is(commandLine, 0, commandEnd, "search")) {
+            if (rest < 0) {
+                return new ErrorCommand("Please provide the words to search for.");
+            }
+            return parseSearchCommand(commandLine, rest);
         }
+        return new UnknownCommand(commandLine.substring(0, commandEnd));
     }
 
     //Command to add projects/tasks
-    private static Command parseAddCommand(String arguments) {
-        String[] subcommandRest = arguments.split(" ", 2);
-        String subcommand = subcommandRest[0];
+    private static Command parseAddCommand(String line, int start) {
+        int length = line.length();
+        int subcommandEnd = indexOf(line, ' ', start, length);
 
-        if (subcommand.equals("project")) {
-            if (subcommandRest.length < 2) {
+        if (is(line, start, subcommandEnd, "project")) {
+            if (subcommandEnd == length) {
                 return new ErrorCommand("Please provide a project name.");
             }
-            return new AddProjectCommand(subcommandRest[1]);
+            return new AddProjectCommand(line.substring(subcommandEnd + 1));
         }
-        else if (subcommand.equals("task")) {
-            if (subcommandRest.length < 2) {
+        else if (is(line, start, subcommandEnd, "task")) {
+            if (subcommandEnd == length) {
                 return new ErrorCommand("Please provide a project name and task description.");
             }
-            String[] projectTask = subcommandRest[1].split(" ", 2);
-            if (projectTask.length < 2) {
+            int projectEnd = indexOf(line, ' ', subcommandEnd + 1, length);
+            if (projectEnd == length) {
                 return new ErrorCommand("Please provide both the project name and task description.");
             }
-            return new AddTaskCommand(projectTask[0], projectTask[1]);
+            return new AddTaskCommand(line.substring(subcommandEnd + 1, projectEnd), line.substring(projectEnd + 1));
         }
         else {
             return new ErrorCommand("Unknown add subcommand. Use 'add project' or 'add task'.");
@@ -82,24 +129,25 @@ public class CommandParser {
     }
 
     // Command for (un)checking a given task
-    private static Command parseCheckCommand(String idString, boolean done) {
+    private static Command parseCheckCommand(String line, int start, boolean done) {
         try {
-            long id = Long.parseLong(idString);
+            long id = parseLong(line, start, line.length());
             return new CheckCommand(id, done);
         } catch (NumberFormatException e) {
-            return new ErrorCommand("Invalid task ID: " + idString);
+            return new ErrorCommand("Invalid task ID: " + line.substring(start));
         }
     }
 
     // Command for adding a deadline to a task
-    private static Command parseDeadlineCommand(String arguments) {
+    private static Command parseDeadlineCommand(String line, int start) {
         try {
-            String[] parts = arguments.split(" ", 2);
-            if (parts.length < 2) {
+            int length = line.length();
+            int idEnd = indexOf(line, ' ', start, length);
+            if (idEnd == length) {
                 return new ErrorCommand("Please provide both an ID and a deadline.");
             }
-            long taskId = Long.parseLong(parts[0]);
-            LocalDate deadline = parseDate(parts[1]);
+            long taskId = parseLong(line, start, idEnd);
+            LocalDate deadline = parseDate(line, idEnd + 1, length);
             return new DeadlineCommand(taskId, deadline);
         } catch (NumberFormatException e) {
             return new ErrorCommand("Invalid task ID");
@@ -108,10 +156,135 @@ public class CommandParser {
         }
     }
 
+    // Command for viewing the tasks with a deadline between two dates
+    private static Command parseDueCommand(String line, int start) {
+        try {
+            int length = line.length();
+            int fromEnd = indexOf(line, ' ', start, length);
+            if (fromEnd == length) {
+                return new ErrorCommand("Please provide a start and an end date.");
+            }
+            LocalDate from = parseDate(line, start, fromEnd);
+            LocalDate to = parseDate(line, fromEnd + 1, length);
+            if (from.isAfter(to)) {
+                return new ErrorCommand("The start date cannot be after the end date.");
+            }
+            return new DueCommand(from, to);
+        } catch (Exception e) {
+            return new ErrorCommand("Please use the format: due <dd-mm-yyyy> <dd-mm-yyyy>");
+        }
+    }
+
+    // Command for searching task descriptions, words of the form key:value filter the results
+    private static Command parseSearchCommand(String line, int start) {
+        StringBuilder query = new StringBuilder();
+        String project = null;
+        Boolean done = null;
+        LocalDate dueBy = null;
+        int length = line.length();
+        try {
+            for (int wordStart = start; wordStart <= length; ) {
+                int wordEnd = indexOf(line, ' ', wordStart, length);
+                if (line.startsWith("project:", wordStart)) {
+                    if (wordEnd == wordStart + 8) {
+                        throw new IllegalArgumentException("No project name");
+                    }
+                    project = line.substring(wordStart + 8, wordEnd);
+                } else if (line.startsWith("done:", wordStart)) {
+                    if (!is(line, wordStart, wordEnd, "done:true") && !is(line, wordStart, wordEnd, "done:false")) {
+                        throw new IllegalArgumentException("Invalid done filter");
+                    }
+                    done = wordEnd - wordStart == 9;
+                } else if (line.startsWith("due:", wordStart)) {
+                    dueBy = parseDate(line, wordStart + 4, wordEnd);
+                } else if (wordEnd > wordStart) {
+                    if (!query.isEmpty()) {
+                        query.append(' ');
+                    }
+                    query.append(line, wordStart, wordEnd);
+                }
+                wordStart = wordEnd + 1;
+            }
+        } catch (Exception e) {
+            return new ErrorCommand("Please use the format: search <words> [project:<name>] [done:true|false] [due:<dd-mm-yyyy>]");
+        }
+        if (query.isEmpty()) {
+            return new ErrorCommand("Please provide the words to search for.");
+        }
+        return new SearchCommand(query.toString(), new TaskSearch.Filter(project, done, dueBy));
+    }
+
+    //same as String.trim().isEmpty() without creating the trimmed string
+    private static boolean isBlank(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //index of the first c in [start, end), end if there is none
+    private static int indexOf(CharSequence line, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (line.charAt(i) == c) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    //whether the word in [start, end) is the given one
+    private static boolean is(String line, int start, int end, String word) {
+        return end - start == word.length() && line.startsWith(word, start);
+    }
+
+    //Plain ASCII digits are parsed here, anything else (signs, other digits, overflow, empty) is left to
+    //Integer.parseInt so the accepted input and the exceptions stay the same
+    private static int parseInt(CharSequence line, int start, int end) {
+        if (end > start && end - start <= 9) {
+            int value = 0;
+            int i = start;
+            for (; i < end; i++) {
+                int digit = line.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                value = value * 10 + digit;
+            }
+            if (i == end) {
+                return value;
+            }
+        }
+        return Integer.parseInt(line, start, end, 10);
+    }
+
+    //same as parseInt for longs, up to 18 digits cannot overflow
+    private static long parseLong(CharSequence line, int start, int end) {
+        if (end > start && end - start <= 18) {
+            long value = 0;
+            int i = start;
+            for (; i < end; i++) {
+                int digit = line.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                value = value * 10 + digit;
+            }
+            if (i == end) {
+                return value;
+            }
+        }
+        return Long.parseLong(line, start, end, 10);
+    }
+
     /* CLASSES FOR ALL COMMANDS */
     public interface Command {}
 
-    public static class ShowCommand implements Command {}
+    public static class ShowCommand implements Command {
+        public final String projectName;
+        public ShowCommand(String projectName) { this.projectName = projectName; }
+    }
 
     public static class TodayCommand implements Command {}
 
@@ -119,6 +292,8 @@ public class CommandParser {
 
     public static class HelpCommand implements Command {}
 
+    public static class StatsCommand implements Command {}
+
     public static class AddProjectCommand implements Command {
         public final String projectName;
         public AddProjectCommand(String projectName) { this.projectName = projectName; }
@@ -151,6 +326,34 @@ public class CommandParser {
         }
     }
 
+    public static class DueCommand implements Command {
+        public final LocalDate from;
+        public final LocalDate to;
+        public DueCommand(LocalDate from, LocalDate to) {
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    public static class SearchCommand implements Command {
+        public final String query;
+        public final TaskSearch.Filter filter;
+        public SearchCommand(String query, TaskSearch.Filter filter) {
+            this.query = query;
+            this.filter = filter;
+        }
+    }
+
+    public static class ExportCommand implements Command {
+        public final String path;
+        public ExportCommand(String path) { this.path = path; }
+    }
+
+    public static class ImportCommand implements Command {
+        public final String path;
+        public ImportCommand(String path) { this.path = path; }
+    }
+
     public static class ErrorCommand implements Command {
         public final String message;
         public ErrorCommand(String message) { this.message = message; }
@@ -0,0 +1,180 @@
+package com.ortecfinance.tasklist;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+//Runs a stream of console command lines on virtual threads and hands back every command's output.
+//Commands for the same project keep the order they were sent in, commands for different projects
+//run in parallel. Commands that are not about a single project (show, today, check of a task that does
+//not exist yet, ...) wait for everything sent before them and hold back everything sent after them.
+//Adding a task also waits for the task added before it, in whatever project, so task ids are handed out
+//in the order of the stream, as in the console. With that every command's output is the one the console
+//would have printed, as long as nothing else changes the task list while the stream runs; only the
+//order the results come back in differs.
+final class CommandStreamRunner {
+    //commands running or waiting to be written, reading the input pauses when this many are in flight
+    static final int MAX_IN_FLIGHT = 1024;
+
+    //line is the 1-based number of the command in the stream, results come back in completion order
+    record Result(long line, String command, String output) {
+    }
+
+    interface ResultWriter {
+        void write(Result result) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private final TaskService taskService;
+    private final TaskMetrics metrics;
+
+    CommandStreamRunner(TaskService taskService, TaskMetrics metrics) {
+        this.taskService = taskService;
+        this.metrics = metrics;
+    }
+
+    //Returns the number of commands executed, blank lines are skipped
+    long run(BufferedReader commands, ResultWriter results) throws IOException {
+        BlockingQueue<Result> finished = new LinkedBlockingQueue<>();
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+        //last command of every project since the last barrier
+        Map<String, CompletableFuture<Void>> lanes = new HashMap<>();
+        CompletableFuture<Void> barrier = CompletableFuture.completedFuture(null);
+        //last add task since the last barrier, the next one waits for it
+        CompletableFuture<Void> lastAdd = barrier;
+        long lineNumber = 0;
+        long dispatched = 0;
+        long written = 0;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            String line;
+            while ((line = commands.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                //write results while waiting for room, they are what frees it up
+                while (!inFlight.tryAcquire()) {
+                    results.write(take(finished));
+                    inFlight.release();
+                    written++;
+                }
+
+                CommandParser.Command command = withoutFileAccess(CommandParser.parse(line));
+                long number = lineNumber;
+                String text = line;
+                Runnable task = () -> {
+                    String output = null;
+                    try {
+                        output = execute(command);
+                    } catch (Error e) {
+                        output = "Could not execute the command: " + e + System.lineSeparator();
+                        throw e;
+                    } finally {
+                        //every dispatched command gets its result, or the loop below waits for it forever
+                        finished.add(new Result(number, text, output));
+                    }
+                };
+                String lane = laneOf(command);
+                if (lane != null) {
+                    CompletableFuture<Void> previous = lanes.getOrDefault(lane, barrier);
+                    CompletableFuture<Void> next;
+                    if (command instanceof CommandParser.AddTaskCommand) {
+                        next = settled(CompletableFuture.allOf(previous, lastAdd)).thenRunAsync(task, executor);
+                        lastAdd = next;
+                    } else {
+                        next = settled(previous).thenRunAsync(task, executor);
+                    }
+                    lanes.put(lane, next);
+                    if (lanes.size() > MAX_IN_FLIGHT) {
+                        lanes.values().removeIf(CompletableFuture::isDone);
+                    }
+                } else {
+                    List<CompletableFuture<Void>> before = new ArrayList<>(lanes.values());
+                    before.add(barrier);
+                    barrier = settled(CompletableFuture.allOf(before.toArray(new CompletableFuture<?>[0])))
+                            .thenRunAsync(task, executor);
+                    lanes.clear();
+                    lastAdd = barrier;
+                }
+                dispatched++;
+
+                Result result;
+                boolean any = false;
+                while ((result = finished.poll()) != null) {
+                    results.write(result);
+                    inFlight.release();
+                    written++;
+                    any = true;
+                }
+                if (any) {
+                    results.flush();
+                }
+            }
+
+            while (written < dispatched) {
+                results.write(take(finished));
+                written++;
+            }
+            results.flush();
+        }
+        return dispatched;
+    }
+
+    //the files of the server are not for the client to name
+    private static CommandParser.Command withoutFileAccess(CommandParser.Command command) {
+        if (command instanceof CommandParser.ExportCommand || command instanceof CommandParser.ImportCommand) {
+            return new CommandParser.ErrorCommand(
+                    "Use GET /projects/export and POST /projects/import instead of export and import.");
+        }
+        return command;
+    }
+
+    //Project whose commands have to stay in order, null if the command has to wait for all of them.
+    //A task never moves to another project, so a task that exists when its command is read stays in the
+    //lane it is found in; one that does not exist yet may be added by a command still running
+    private String laneOf(CommandParser.Command command) {
+        if (command instanceof CommandParser.ShowCommand show) {
+            return show.projectName;
+        } else if (command instanceof CommandParser.AddProjectCommand addProject) {
+            return addProject.projectName;
+        } else if (command instanceof CommandParser.AddTaskCommand addTask) {
+            return addTask.projectName;
+        } else if (command instanceof CommandParser.CheckCommand check) {
+            return taskService.getProjectOfTask(check.taskId);
+        } else if (command instanceof CommandParser.DeadlineCommand deadline) {
+            return taskService.getProjectOfTask(deadline.taskId);
+        }
+        return null;
+    }
+
+    //Completes once the future did, also when it failed with an Error, so the commands chained on a
+    //failed one still run and report back
+    private static CompletableFuture<Void> settled(CompletableFuture<?> future) {
+        return future.handle((value, failure) -> null);
+    }
+
+    private String execute(CommandParser.Command command) {
+        try {
+            return TaskList.execute(taskService, metrics, command);
+        } catch (RuntimeException e) {
+            //never fail the future, later commands of the project are chained on it
+            return "Could not execute the command: " + e.getMessage() + System.lineSeparator();
+        }
+    }
+
+    private static Result take(BlockingQueue<Result> finished) throws InterruptedIOException {
+        try {
+            return finished.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a command to finish");
+        }
+    }
+}
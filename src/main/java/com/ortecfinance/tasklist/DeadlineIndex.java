@@ -0,0 +1,58 @@
+package com.ortecfinance.tasklist;
+
+import java.time.LocalDate;
+import java.util.*;
+
+//Secondary index of all tasks sorted by deadline, kept up to date by TaskStorage
+//so the deadline views are an ordered walk instead of a scan + sort of every task.
+final class DeadlineIndex {
+    private final NavigableMap<LocalDate, NavigableSet<TaskLocation>> byDeadline = new TreeMap<>();
+    private final NavigableSet<TaskLocation> withoutDeadline = new TreeSet<>();
+
+    public void add(TaskLocation task, LocalDate deadline) {
+        bucket(deadline, true).add(task);
+    }
+
+    public void move(TaskLocation task, LocalDate oldDeadline, LocalDate newDeadline) {
+        if (Objects.equals(oldDeadline, newDeadline)) {
+            return;
+        }
+        NavigableSet<TaskLocation> oldBucket = bucket(oldDeadline, false);
+        if (oldBucket != null) {
+            oldBucket.remove(task);
+            //drop empty dates so walking the index never visits them
+            if (oldBucket.isEmpty() && oldDeadline != null) {
+                byDeadline.remove(oldDeadline);
+            }
+        }
+        add(task, newDeadline);
+    }
+
+    public NavigableSet<TaskLocation> dueOn(LocalDate date) {
+        NavigableSet<TaskLocation> tasks = byDeadline.get(date);
+        return tasks != null ? tasks : Collections.emptyNavigableSet();
+    }
+
+    //all deadlines in chronological order, both ends inclusive
+    public NavigableMap<LocalDate, NavigableSet<TaskLocation>> between(LocalDate from, LocalDate to) {
+        return byDeadline.subMap(from, true, to, true);
+    }
+
+    public NavigableMap<LocalDate, NavigableSet<TaskLocation>> byDeadline() {
+        return byDeadline;
+    }
+
+    public NavigableSet<TaskLocation> withoutDeadline() {
+        return withoutDeadline;
+    }
+
+    private NavigableSet<TaskLocation> bucket(LocalDate deadline, boolean create) {
+        if (deadline == null) {
+            return withoutDeadline;
+        }
+        if (create) {
+            return byDeadline.computeIfAbsent(deadline, k -> new TreeSet<>());
+        }
+        return byDeadline.get(deadline);
+    }
+}
@@ -0,0 +1,251 @@
+package com.ortecfinance.tasklist;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+//Tells its listeners when an open task becomes due (the day of its deadline starts) and when it becomes
+//overdue (the day after it starts). It follows the storage's changes and keeps a timer per pending reminder
+//in a DeadlineWheel, so setting a deadline or checking a task moves or cancels a timer in O(1) and a new day
+//only touches the reminders of that day, nothing ever scans the tasks. A change that makes a task due or
+//overdue right away (a deadline of today or earlier, unchecking such a task) reminds right away.
+//Reminders are delivered on the engine's own thread, one at a time.
+//Its state is guarded by a ReentrantLock rather than a monitor, like WriteAheadLog and ChangeFeed, since
+//changes arrive on the writers' threads, which can be virtual.
+public final class DeadlineReminders implements AutoCloseable {
+
+    public enum Kind { DUE, OVERDUE }
+
+    public record Reminder(Kind kind, long taskId, String project, LocalDate deadline) {
+    }
+
+    //Gets every reminder, must not block for long since it holds up the ones after it
+    @FunctionalInterface
+    public interface Listener {
+        void remind(Reminder reminder);
+    }
+
+    private final Clock clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final DeadlineWheel<Reminder> wheel;
+    //what the engine knows of the tasks that are done or have a deadline, the others are open without one
+    private final LongObjectMap<TaskState> tasks = new LongObjectMap<>();
+    //true while the storage hands over its current data, nothing before today is reminded of then
+    private boolean catchingUp = false;
+    private ScheduledExecutorService scheduler;
+
+    private static final class TaskState {
+        private final String project;
+        private boolean done;
+        private LocalDate deadline;
+        private DeadlineWheel.Timer<Reminder> due;
+        private DeadlineWheel.Timer<Reminder> overdue;
+
+        private TaskState(String project) {
+            this.project = project;
+        }
+    }
+
+    public DeadlineReminders(Clock clock) {
+        this.clock = clock;
+        this.wheel = new DeadlineWheel<>(LocalDate.now(clock).toEpochDay());
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    //Follows the storage from now on, starting with the reminders of the tasks it already has
+    public void follow(TaskStorage taskStorage) {
+        taskStorage.addChangeListener(new TaskStorage.ChangeListener() {
+            @Override
+            public void catchUp(boolean started) {
+                lock.lock();
+                try {
+                    catchingUp = started;
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            @Override
+            public void changed(LogRecord change, String project) {
+                DeadlineReminders.this.changed(change, project);
+            }
+        }, true);
+    }
+
+    //Delivers the reminders of every new day from now on, and those of changes as they happen
+    public void start() {
+        lock.lock();
+        try {
+            if (scheduler != null) {
+                return;
+            }
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "tasklist-reminders");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.execute(this::tick);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //number of reminders waiting for their day
+    int pending() {
+        lock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Moves to the given day and delivers everything that is due by then, on the calling thread
+    void advanceTo(LocalDate today) {
+        List<Reminder> reminders = new ArrayList<>();
+        lock.lock();
+        try {
+            wheel.advanceTo(today.toEpochDay());
+            wheel.takeExpired(timer -> {
+                Reminder reminder = timer.value();
+                TaskState state = tasks.get(reminder.taskId());
+                if (reminder.kind() == Kind.DUE) {
+                    state.due = null;
+                } else {
+                    state.overdue = null;
+                }
+                reminders.add(reminder);
+            });
+        } finally {
+            lock.unlock();
+        }
+        for (Reminder reminder : reminders) {
+            for (Listener listener : listeners) {
+                try {
+                    listener.remind(reminder);
+                } catch (RuntimeException e) {
+                    //one broken listener must not keep the reminder from the others
+                    System.err.println("Reminder listener failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    //runs on the scheduler: delivers what is due today and sleeps until the next midnight
+    private void tick() {
+        advanceTo(LocalDate.now(clock));
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        ZonedDateTime midnight = now.toLocalDate().plusDays(1).atStartOfDay(now.getZone());
+        //at least a millisecond, a clock running slightly behind would otherwise tick in a loop
+        long delay = Math.max(1, Duration.between(now, midnight).toMillis());
+        lock.lock();
+        try {
+            if (!scheduler.isShutdown()) {
+                scheduler.schedule(this::tick, delay, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Called by the storage under its write lock, so it only moves timers and never delivers
+    private void changed(LogRecord change, String project) {
+        lock.lock();
+        try {
+            changedLocked(change, project);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void changedLocked(LogRecord change, String project) {
+        switch (change) {
+            case LogRecord.AddProject r -> {
+            }
+            //a new task is open and has no deadline, nothing to remember
+            case LogRecord.AddTask r -> {
+            }
+            case LogRecord.MarkTask r -> {
+                TaskState state = stateOf(r.id(), project);
+                if (state.done != r.done()) {
+                    state.done = r.done();
+                    schedule(r.id(), state);
+                }
+            }
+            case LogRecord.SetDeadline r -> {
+                TaskState state = stateOf(r.id(), project);
+                state.deadline = r.deadline();
+                schedule(r.id(), state);
+            }
+        }
+    }
+
+    private TaskState stateOf(long id, String project) {
+        TaskState state = tasks.get(id);
+        if (state == null) {
+            state = new TaskState(project);
+            tasks.put(id, state);
+        }
+        return state;
+    }
+
+    private void schedule(long id, TaskState state) {
+        if (state.due != null) {
+            wheel.cancel(state.due);
+            state.due = null;
+        }
+        if (state.overdue != null) {
+            wheel.cancel(state.overdue);
+            state.overdue = null;
+        }
+        if (state.done || state.deadline == null) {
+            return;
+        }
+
+        long deadline = state.deadline.toEpochDay();
+        long today = wheel.today();
+        if (deadline > today) {
+            state.due = wheel.add(new Reminder(Kind.DUE, id, state.project, state.deadline), deadline);
+            state.overdue = wheel.add(new Reminder(Kind.OVERDUE, id, state.project, state.deadline), deadline + 1);
+            return;
+        }
+        //when catching up, the task became due or overdue while nobody was listening
+        if (deadline == today) {
+            if (!catchingUp) {
+                state.due = wheel.add(new Reminder(Kind.DUE, id, state.project, state.deadline), deadline);
+            }
+            state.overdue = wheel.add(new Reminder(Kind.OVERDUE, id, state.project, state.deadline), deadline + 1);
+        } else if (!catchingUp) {
+            //only overdue when both days have come already
+            state.overdue = wheel.add(new Reminder(Kind.OVERDUE, id, state.project, state.deadline), deadline + 1);
+        }
+        //the reminder expired right away, deliver it without waiting for midnight
+        if (!catchingUp && scheduler != null && !scheduler.isShutdown()) {
+            scheduler.execute(() -> advanceTo(LocalDate.now(clock)));
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.ortecfinance.tasklist;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+//Immutable set of task locations ordered by deadline, then project, then id, the tasks without a deadline
+//last, stored as an AVL tree. Adding or removing a location copies only the path from the root to it,
+//the rest is shared with the previous version. Kept in the storage snapshots, so a deadline view walks the
+//index of its snapshot without copying it and without holding the storage lock.
+final class DeadlineTree {
+    //sorts after every epoch day a LocalDate can have
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private static final DeadlineTree EMPTY = new DeadlineTree(null, 0);
+
+    private record Node(long day, TaskLocation location, Node left, Node right, int height) {
+    }
+
+    private final Node root;
+    private final int size;
+
+    private DeadlineTree(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    static DeadlineTree empty() {
+        return EMPTY;
+    }
+
+    //Builds a balanced tree from all locations at once, much cheaper than adding them one by one
+    //when loading a whole snapshot. deadlines.get(i) is the deadline of locations.get(i).
+    static DeadlineTree copyOf(List<TaskLocation> locations, List<LocalDate> deadlines) {
+        long[] days = new long[locations.size()];
+        Integer[] order = new Integer[locations.size()];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = day(deadlines.get(i));
+            order[i] = i;
+        }
+        Comparator<Integer> byDeadline = Comparator.<Integer>comparingLong(i -> days[i])
+                .thenComparing(locations::get);
+        Arrays.sort(order, byDeadline);
+        return new DeadlineTree(build(order, 0, order.length, days, locations), order.length);
+    }
+
+    int size() {
+        return size;
+    }
+
+    //returns a new tree with the location added under the deadline, null for none
+    DeadlineTree with(LocalDate deadline, TaskLocation location) {
+        long day = day(deadline);
+        if (contains(root, day, location)) {
+            return this;
+        }
+        return new DeadlineTree(insert(root, day, location), size + 1);
+    }
+
+    //returns a new tree without the location, deadline has to be the one it was added under
+    DeadlineTree without(LocalDate deadline, TaskLocation location) {
+        long day = day(deadline);
+        if (!contains(root, day, location)) {
+            return this;
+        }
+        return new DeadlineTree(remove(root, day, location), size - 1);
+    }
+
+    //The locations with a deadline between from and to, both ends inclusive, or all of them, the ones without
+    //a deadline last, when from and to are null. Only keeps the path to the next location, O(log n) memory.
+    Iterator<TaskLocation> iterator(LocalDate from, LocalDate to) {
+        long fromDay = from != null ? day(from) : Long.MIN_VALUE;
+        long toDay = to != null ? day(to) : NO_DEADLINE;
+        Deque<Node> path = new ArrayDeque<>();
+        //every node on the way down that is not before from is visited before its right subtree
+        Node node = root;
+        while (node != null) {
+            if (node.day >= fromDay) {
+                path.push(node);
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty() && path.peek().day <= toDay;
+            }
+
+            @Override
+            public TaskLocation next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Node next = path.pop();
+                for (Node child = next.right; child != null; child = child.left) {
+                    path.push(child);
+                }
+                return next.location;
+            }
+        };
+    }
+
+    private static long day(LocalDate deadline) {
+        return deadline != null ? deadline.toEpochDay() : NO_DEADLINE;
+    }
+
+    private static int compare(long day, TaskLocation location, Node node) {
+        int byDay = Long.compare(day, node.day);
+        return byDay != 0 ? byDay : location.compareTo(node.location);
+    }
+
+    private static boolean contains(Node node, long day, TaskLocation location) {
+        while (node != null) {
+            int order = compare(day, location, node);
+            if (order == 0) {
+                return true;
+            }
+            node = order < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    private static Node build(Integer[] order, int start, int end, long[] days, List<TaskLocation> locations) {
+        if (start == end) {
+            return null;
+        }
+        int middle = (start + end) >>> 1;
+        Node left = build(order, start, middle, days, locations);
+        Node right = build(order, middle + 1, end, days, locations);
+        return node(days[order[middle]], locations.get(order[middle]), left, right);
+    }
+
+    private static Node insert(Node node, long day, TaskLocation location) {
+        if (node == null) {
+            return new Node(day, location, null, null, 1);
+        }
+        if (compare(day, location, node) < 0) {
+            return balance(node.day, node.location, insert(node.left, day, location), node.right);
+        }
+        return balance(node.day, node.location, node.left, insert(node.right, day, location));
+    }
+
+    private static Node remove(Node node, long day, TaskLocation location) {
+        int order = compare(day, location, node);
+        if (order < 0) {
+            return balance(node.day, node.location, remove(node.left, day, location), node.right);
+        }
+        if (order > 0) {
+            return balance(node.day, node.location, node.left, remove(node.right, day, location));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        //replace the node by the first one of its right subtree
+        Node first = node.right;
+        while (first.left != null) {
+            first = first.left;
+        }
+        return balance(first.day, first.location, node.left, remove(node.right, first.day, first.location));
+    }
+
+    private static Node balance(long day, TaskLocation location, Node left, Node right) {
+        int leftHeight = height(left);
+        int rightHeight = height(right);
+        if (leftHeight > rightHeight + 1) {
+            if (height(left.left) < height(left.right)) {
+                left = rotateLeft(left);
+            }
+            return rotateRight(node(day, location, left, right));
+        }
+        if (rightHeight > leftHeight + 1) {
+            if (height(right.right) < height(right.left)) {
+                right = rotateRight(right);
+            }
+            return rotateLeft(node(day, location, left, right));
+        }
+        return node(day, location, left, right);
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        return node(right.day, right.location, node(node.day, node.location, node.left, right.left), right.right);
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        return node(left.day, left.location, left.left, node(node.day, node.location, left.right, node.right));
+    }
+
+    private static Node node(long day, TaskLocation location, Node left, Node right) {
+        return new Node(day, location, left, right, Math.max(height(left), height(right)) + 1);
+    }
+
+    private static int height(Node node) {
+        return node != null ? node.height : 0;
+    }
+}
@@ -0,0 +1,71 @@
+package com.ortecfinance.tasklist;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+//The deadline index as it was at one point in time: the deadline order (deadline, then project, then id,
+//the tasks without a deadline last) of one snapshot, all of it or only the deadlines between from and to.
+//Tasks are looked up in that snapshot, so a response streamed from it in chunks never repeats or skips a
+//task whose deadline changes in the meantime, and no lock is needed after it was taken. Nothing is copied
+//up front, every walk goes through the snapshot's DeadlineTree one chunk at a time.
+final class DeadlineView {
+    private final StorageSnapshot snapshot;
+    private final LocalDate from;
+    private final LocalDate to;
+
+    DeadlineView(StorageSnapshot snapshot, LocalDate from, LocalDate to) {
+        this.snapshot = snapshot;
+        this.from = from;
+        this.to = to;
+    }
+
+    //Deadline -> project name -> tasks, at most limit tasks per chunk, the view in order
+    Iterator<Map<LocalDate, Map<String, List<Task>>>> chunks(int limit) {
+        Iterator<TaskLocation> locations = snapshot.deadlines().iterator(from, to);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return locations.hasNext();
+            }
+
+            @Override
+            public Map<LocalDate, Map<String, List<Task>>> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk(locations, limit);
+            }
+        };
+    }
+
+    private Map<LocalDate, Map<String, List<Task>>> chunk(Iterator<TaskLocation> locations, int limit) {
+        Map<LocalDate, Map<String, List<Task>>> chunk = new LinkedHashMap<>();
+        Map<String, List<Task>> projects = null;
+        List<Task> tasks = null;
+        LocalDate currentDeadline = null;
+        String currentProject = null;
+        for (int i = 0; i < limit && locations.hasNext(); i++) {
+            TaskLocation location = locations.next();
+            Task task = snapshot.task(location);
+            if (projects == null || !Objects.equals(task.getDeadline(), currentDeadline)) {
+                currentDeadline = task.getDeadline();
+                projects = new LinkedHashMap<>();
+                chunk.put(currentDeadline, projects);
+                currentProject = null;
+            }
+            if (!location.project().equals(currentProject)) {
+                currentProject = location.project();
+                tasks = new ArrayList<>();
+                projects.put(currentProject, tasks);
+            }
+            tasks.add(task);
+        }
+        return chunk;
+    }
+}
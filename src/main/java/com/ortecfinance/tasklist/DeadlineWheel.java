@@ -0,0 +1,161 @@
+package com.ortecfinance.tasklist;
+
+import java.util.function.Consumer;
+
+//Hierarchical timing wheel of days: timers are added and cancelled in O(1) and advancing by a day only
+//looks at the timers of that day, no matter how many are pending. Level 0 has a slot per day for the next
+//64 days, level 1 a slot per 64 days for the next 4096 days, level 2 a slot per 4096 days. A slot of a
+//higher level is spread over the level below when its first day comes, so every timer is moved at most
+//twice before it fires. Timers further out than level 2 reaches (about 700 years) wait in an overflow list.
+//Days are epoch days. Not thread safe.
+final class DeadlineWheel<T> {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 3;
+
+    //slots[level][index] is the sentinel of a circular list
+    private final Timer<T>[][] slots;
+    private final Timer<T> overflow = new Timer<>(null, 0);
+    //timers whose day has come and that are waiting to be taken
+    private final Timer<T> expired = new Timer<>(null, 0);
+    private long today;
+    private int size = 0;
+
+    //A pending timer, handed out so it can be cancelled
+    static final class Timer<T> {
+        private final T value;
+        private final long day;
+        private Timer<T> previous = this;
+        private Timer<T> next = this;
+
+        private Timer(T value, long day) {
+            this.value = value;
+            this.day = day;
+        }
+
+        T value() {
+            return value;
+        }
+
+        long day() {
+            return day;
+        }
+
+        boolean isPending() {
+            return next != this;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    DeadlineWheel(long today) {
+        this.today = today;
+        slots = (Timer<T>[][]) new Timer<?>[LEVELS][SLOTS];
+        for (Timer<T>[] level : slots) {
+            for (int index = 0; index < SLOTS; index++) {
+                level[index] = new Timer<>(null, 0);
+            }
+        }
+    }
+
+    long today() {
+        return today;
+    }
+
+    int size() {
+        return size;
+    }
+
+    //A timer for the given day, a day that has already come expires it right away
+    Timer<T> add(T value, long day) {
+        Timer<T> timer = new Timer<>(value, day);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    void cancel(Timer<T> timer) {
+        if (timer.isPending()) {
+            unlink(timer);
+            size--;
+        }
+    }
+
+    //Moves to the given day (never back) and expires every timer up to and including it
+    void advanceTo(long day) {
+        while (today < day) {
+            today++;
+            //spread the slots starting today over the levels below, highest level first
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((today & ((1L << (BITS * level)) - 1)) == 0) {
+                    if (level == LEVELS - 1 && (today & ((1L << (BITS * LEVELS)) - 1)) == 0) {
+                        replace(overflow);
+                    }
+                    replace(slots[level][index(today, level)]);
+                }
+            }
+            moveAll(slots[0][index(today, 0)], expired);
+        }
+    }
+
+    //Removes the expired timers and hands them over in the order they expired
+    void takeExpired(Consumer<Timer<T>> action) {
+        while (expired.next != expired) {
+            Timer<T> timer = expired.next;
+            unlink(timer);
+            size--;
+            action.accept(timer);
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        long delta = timer.day - today;
+        if (delta <= 0) {
+            link(expired, timer);
+        } else if (delta < 1L << (BITS * LEVELS)) {
+            int level = (63 - Long.numberOfLeadingZeros(delta)) / BITS;
+            link(slots[level][index(timer.day, level)], timer);
+        } else {
+            link(overflow, timer);
+        }
+    }
+
+    //places every timer of the list again, relative to today
+    private void replace(Timer<T> list) {
+        //detached first, a timer can land in the list it came from (the overflow list)
+        Timer<T> detached = new Timer<>(null, 0);
+        moveAll(list, detached);
+        while (detached.next != detached) {
+            Timer<T> timer = detached.next;
+            unlink(timer);
+            place(timer);
+        }
+    }
+
+    private void moveAll(Timer<T> from, Timer<T> to) {
+        while (from.next != from) {
+            Timer<T> timer = from.next;
+            unlink(timer);
+            link(to, timer);
+        }
+    }
+
+    private static int index(long day, int level) {
+        return (int) (day >>> (BITS * level)) & MASK;
+    }
+
+    //appends at the end of the list
+    private static <T> void link(Timer<T> list, Timer<T> timer) {
+        timer.previous = list.previous;
+        timer.next = list;
+        list.previous.next = timer;
+        list.previous = timer;
+    }
+
+    private static <T> void unlink(Timer<T> timer) {
+        timer.previous.next = timer.next;
+        timer.next.previous = timer.previous;
+        timer.previous = timer;
+        timer.next = timer;
+    }
+}
@@ -0,0 +1,145 @@
+package com.ortecfinance.tasklist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+//Task descriptions as UTF-8 outside the Java heap, so millions of them neither take heap space nor have
+//to be scanned by the garbage collector. Each distinct description is stored once: interning one that is
+//already there returns the handle of the stored copy. A handle is the chunk index in the upper 32 bits
+//and the offset of the entry (int length, UTF-8 bytes) in the lower 32 bits.
+//Entries are never removed and chunks are released by the garbage collector together with the arena,
+//which every Task decoded from it keeps reachable. Interning is synchronized, decoding needs no lock
+//since an entry is written before its handle is handed out and never changes afterwards.
+final class DescriptionArena {
+    private static final int CHUNK_SIZE = 1 << 20;
+    private static final int INITIAL_TABLE_SIZE = 1 << 10;
+
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+    private ByteBuffer current;
+    //dictionary of the stored entries, open addressing with linear probing, a slot holds handle + 1 (0 is empty)
+    private long[] table = new long[INITIAL_TABLE_SIZE];
+    private int size = 0;
+    private long bytes = 0;
+
+    synchronized long intern(String description) {
+        byte[] encoded = description.getBytes(StandardCharsets.UTF_8);
+        int hash = Arrays.hashCode(encoded);
+        int mask = table.length - 1;
+        int slot = mix(hash) & mask;
+        while (table[slot] != 0) {
+            long handle = table[slot] - 1;
+            if (contentEquals(handle, encoded)) {
+                return handle;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        long handle = store(encoded);
+        table[slot] = handle + 1;
+        if (++size > table.length * 3 / 4) {
+            grow();
+        }
+        return handle;
+    }
+
+    String decode(long handle) {
+        ByteBuffer chunk = chunks[(int) (handle >>> 32)];
+        int offset = (int) handle;
+        byte[] encoded = new byte[chunk.getInt(offset)];
+        chunk.get(offset + 4, encoded);
+        return new String(encoded, StandardCharsets.UTF_8);
+    }
+
+    //Appends the description without creating a String for it as long as it is ASCII
+    void appendTo(long handle, Appendable out) throws IOException {
+        ByteBuffer chunk = chunks[(int) (handle >>> 32)];
+        int offset = (int) handle;
+        int start = offset + 4;
+        int end = start + chunk.getInt(offset);
+        for (int i = start; i < end; i++) {
+            byte b = chunk.get(i);
+            if (b < 0) {
+                //a multi-byte character, the rest is decoded as a whole
+                byte[] rest = new byte[end - i];
+                chunk.get(i, rest);
+                out.append(new String(rest, StandardCharsets.UTF_8));
+                return;
+            }
+            out.append((char) b);
+        }
+    }
+
+    //number of distinct descriptions
+    synchronized int size() {
+        return size;
+    }
+
+    //off-heap bytes taken by the stored descriptions, including their length prefixes
+    synchronized long byteSize() {
+        return bytes;
+    }
+
+    private long store(byte[] encoded) {
+        int entrySize = 4 + encoded.length;
+        if (current == null || current.remaining() < entrySize) {
+            ByteBuffer[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+            current = ByteBuffer.allocateDirect(Math.max(CHUNK_SIZE, entrySize));
+            grown[grown.length - 1] = current;
+            chunks = grown;
+        }
+        int offset = current.position();
+        current.putInt(encoded.length).put(encoded);
+        bytes += entrySize;
+        return ((long) (chunks.length - 1) << 32) | offset;
+    }
+
+    private boolean contentEquals(long handle, byte[] encoded) {
+        ByteBuffer chunk = chunks[(int) (handle >>> 32)];
+        int offset = (int) handle;
+        if (chunk.getInt(offset) != encoded.length) {
+            return false;
+        }
+        for (int i = 0; i < encoded.length; i++) {
+            if (chunk.get(offset + 4 + i) != encoded[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //the hashes are computed again from the stored bytes, keeping them would cost 4 bytes per entry
+    private void grow() {
+        long[] oldTable = table;
+        table = new long[oldTable.length * 2];
+        int mask = table.length - 1;
+        for (long entry : oldTable) {
+            if (entry != 0) {
+                int slot = mix(hashOf(entry - 1)) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = entry;
+            }
+        }
+    }
+
+    //same as Arrays.hashCode of the entry's bytes
+    private int hashOf(long handle) {
+        ByteBuffer chunk = chunks[(int) (handle >>> 32)];
+        int offset = (int) handle;
+        int end = offset + 4 + chunk.getInt(offset);
+        int hash = 1;
+        for (int i = offset + 4; i < end; i++) {
+            hash = 31 * hash + chunk.get(i);
+        }
+        return hash;
+    }
+
+    //spreads the bits of Arrays.hashCode, whose low bits are poor for short strings
+    private static int mix(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+}
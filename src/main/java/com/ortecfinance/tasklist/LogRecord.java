@@ -0,0 +1,15 @@
+package com.ortecfinance.tasklist;
+
+import java.time.LocalDate;
+
+//One mutation of TaskStorage as written to the WriteAheadLog and applied again on replay.
+sealed interface LogRecord {
+
+    record AddProject(String name) implements LogRecord {}
+
+    record AddTask(long id, String project, String description) implements LogRecord {}
+
+    record MarkTask(long id, boolean done) implements LogRecord {}
+
+    record SetDeadline(long id, LocalDate deadline) implements LogRecord {}
+}
@@ -0,0 +1,6 @@
+package com.ortecfinance.tasklist;
+
+//One page of a paginated view. nextCursor is passed back to get the page after it
+//and is null on the last page.
+public record Page<T>(T items, String nextCursor) {
+}
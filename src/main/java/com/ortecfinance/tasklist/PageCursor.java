@@ -0,0 +1,40 @@
+package com.ortecfinance.tasklist;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+//Opaque continuation token for the paginated views: a few numbers telling the storage
+//where the next page starts, base64 encoded so clients do not build their own.
+final class PageCursor {
+
+    private PageCursor() {
+    }
+
+    static String encode(long... parts) {
+        StringBuilder text = new StringBuilder();
+        for (long part : parts) {
+            if (!text.isEmpty()) {
+                text.append('.');
+            }
+            text.append(part);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static long[] decode(String cursor, int partCount) {
+        try {
+            String[] text = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split("\\.");
+            if (text.length != partCount) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            long[] parts = new long[partCount];
+            for (int i = 0; i < partCount; i++) {
+                parts[i] = Long.parseLong(text[i]);
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            //also covers bad base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
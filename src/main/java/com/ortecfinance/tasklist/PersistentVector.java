@@ -0,0 +1,147 @@
+package com.ortecfinance.tasklist;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+//Immutable list stored as a 32-way trie. Appending or replacing an element copies only
+//the path from the root to that element (a few arrays of 32), the rest is shared with
+//the previous version. Used for the storage snapshots so writers do not copy whole lists.
+final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, 0, new Object[WIDTH]);
+
+    private final int size;
+    //number of bits to shift an index by to find the child in the root, 0 if the root is a leaf
+    private final int shift;
+    private final Object[] root;
+
+    private PersistentVector(int size, int shift, Object[] root) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return (E) leafFor(index)[index & MASK];
+    }
+
+    //Builds a vector in one pass from the bottom up, much cheaper than appending one by one
+    //when loading a whole project at once.
+    static <E> PersistentVector<E> copyOf(List<? extends E> elements) {
+        int size = elements.size();
+        if (size == 0) {
+            return empty();
+        }
+        //fill the leaves
+        Object[] nodes = new Object[(size + MASK) >>> BITS];
+        for (int leaf = 0; leaf < nodes.length; leaf++) {
+            Object[] values = new Object[WIDTH];
+            int start = leaf << BITS;
+            for (int i = 0; i < WIDTH && start + i < size; i++) {
+                values[i] = elements.get(start + i);
+            }
+            nodes[leaf] = values;
+        }
+        //group 32 nodes under a parent until a single root is left
+        int shift = 0;
+        while (nodes.length > 1) {
+            Object[] parents = new Object[(nodes.length + MASK) >>> BITS];
+            for (int parent = 0; parent < parents.length; parent++) {
+                Object[] children = new Object[WIDTH];
+                int start = parent << BITS;
+                System.arraycopy(nodes, start, children, 0, Math.min(WIDTH, nodes.length - start));
+                parents[parent] = children;
+            }
+            nodes = parents;
+            shift += BITS;
+        }
+        return new PersistentVector<>(size, shift, (Object[]) nodes[0]);
+    }
+
+    //returns a new vector with the element added at the end
+    public PersistentVector<E> append(E element) {
+        Object[] newRoot = root;
+        int newShift = shift;
+        //root is full, grow the trie by one level
+        if (size == 1 << (shift + BITS)) {
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newShift += BITS;
+        }
+        return new PersistentVector<>(size + 1, newShift, copyPath(newRoot, newShift, size, element));
+    }
+
+    //returns a new vector with the element at the index replaced
+    public PersistentVector<E> with(int index, E element) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return new PersistentVector<>(size, shift, copyPath(root, shift, index, element));
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        //walk leaf by leaf instead of going down the trie for every element
+        return new Iterator<>() {
+            private int index;
+            private Object[] leaf;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                if ((index & MASK) == 0 || leaf == null) {
+                    leaf = leafFor(index);
+                }
+                return (E) leaf[index++ & MASK];
+            }
+        };
+    }
+
+    private Object[] leafFor(int index) {
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    private static Object[] copyPath(Object[] node, int level, int index, Object element) {
+        Object[] copy = node == null ? new Object[WIDTH] : node.clone();
+        if (level == 0) {
+            copy[index & MASK] = element;
+        } else {
+            int child = (index >>> level) & MASK;
+            copy[child] = copyPath((Object[]) copy[child], level - BITS, index, element);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,5 @@
+package com.ortecfinance.tasklist;
+
+//Task counts of one project: overdue (deadline before today) and dueToday only count open tasks
+public record ProjectStats(int open, int done, int overdue, int dueToday) {
+}
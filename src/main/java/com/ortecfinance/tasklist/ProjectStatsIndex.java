@@ -0,0 +1,103 @@
+package com.ortecfinance.tasklist;
+
+import java.time.LocalDate;
+import java.util.*;
+
+//Open, done, overdue and due today counts of every project, kept up to date by TaskStorage so the
+//stats are read per project instead of counted over all tasks. Every project also counts its open
+//tasks per deadline. Overdue and due today are relative to the day the index was last rolled to, moving
+//to another day recounts them from the per deadline counts, which only touches every project's
+//distinct deadlines once a day and never a task.
+final class ProjectStatsIndex {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private LocalDate today;
+    private int projects = 0;
+    private int[] open = new int[INITIAL_CAPACITY];
+    private int[] done = new int[INITIAL_CAPACITY];
+    private int[] overdue = new int[INITIAL_CAPACITY];
+    private int[] dueToday = new int[INITIAL_CAPACITY];
+    //project ordinal -> deadline -> number of open tasks with that deadline
+    private final List<NavigableMap<LocalDate, Integer>> openByDeadline = new ArrayList<>();
+
+    ProjectStatsIndex(LocalDate today) {
+        this.today = today;
+    }
+
+    LocalDate today() {
+        return today;
+    }
+
+    void addProject() {
+        if (projects == open.length) {
+            int capacity = projects * 2;
+            open = Arrays.copyOf(open, capacity);
+            done = Arrays.copyOf(done, capacity);
+            overdue = Arrays.copyOf(overdue, capacity);
+            dueToday = Arrays.copyOf(dueToday, capacity);
+        }
+        openByDeadline.add(new TreeMap<>());
+        projects++;
+    }
+
+    void addTask(int ordinal, boolean isDone, LocalDate deadline) {
+        if (isDone) {
+            done[ordinal]++;
+        } else {
+            open[ordinal]++;
+            countOpen(ordinal, deadline, 1);
+        }
+    }
+
+    void markTask(int ordinal, boolean wasDone, boolean isDone, LocalDate deadline) {
+        if (wasDone == isDone) {
+            return;
+        }
+        int change = isDone ? -1 : 1;
+        open[ordinal] += change;
+        done[ordinal] -= change;
+        countOpen(ordinal, deadline, change);
+    }
+
+    void setDeadline(int ordinal, boolean isDone, LocalDate oldDeadline, LocalDate newDeadline) {
+        if (isDone || Objects.equals(oldDeadline, newDeadline)) {
+            return;
+        }
+        countOpen(ordinal, oldDeadline, -1);
+        countOpen(ordinal, newDeadline, 1);
+    }
+
+    //Makes overdue and due today relative to the given day, in either direction
+    void rollTo(LocalDate day) {
+        if (day.equals(today)) {
+            return;
+        }
+        today = day;
+        for (int ordinal = 0; ordinal < projects; ordinal++) {
+            NavigableMap<LocalDate, Integer> deadlines = openByDeadline.get(ordinal);
+            int before = 0;
+            for (int count : deadlines.headMap(day, false).values()) {
+                before += count;
+            }
+            overdue[ordinal] = before;
+            dueToday[ordinal] = deadlines.getOrDefault(day, 0);
+        }
+    }
+
+    ProjectStats stats(int ordinal) {
+        return new ProjectStats(open[ordinal], done[ordinal], overdue[ordinal], dueToday[ordinal]);
+    }
+
+    private void countOpen(int ordinal, LocalDate deadline, int change) {
+        if (deadline == null) {
+            return;
+        }
+        openByDeadline.get(ordinal).merge(deadline, change, (count, delta) -> count + delta == 0 ? null : count + delta);
+        int comparison = deadline.compareTo(today);
+        if (comparison < 0) {
+            overdue[ordinal] += change;
+        } else if (comparison == 0) {
+            dueToday[ordinal] += change;
+        }
+    }
+}
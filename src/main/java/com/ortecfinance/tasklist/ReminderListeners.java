@@ -0,0 +1,97 @@
+package com.ortecfinance.tasklist;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.ortecfinance.tasklist.TaskFormatter.formatDate;
+
+//The places DeadlineReminders can send its reminders to
+public final class ReminderListeners {
+
+    private ReminderListeners() {
+    }
+
+    //One line per reminder
+    public static DeadlineReminders.Listener logging(PrintStream out) {
+        return reminder -> out.println(switch (reminder.kind()) {
+            case DUE -> "Task " + reminder.taskId() + " (" + reminder.project() + ") is due today, "
+                    + formatDate(reminder.deadline()) + ".";
+            case OVERDUE -> "Task " + reminder.taskId() + " (" + reminder.project() + ") is overdue, its deadline was "
+                    + formatDate(reminder.deadline()) + ".";
+        });
+    }
+
+    //Keeps the reminders for consumers in the same process. Never blocks the reminders: when the queue
+    //is full the reminder is dropped and counted.
+    public static final class Queue implements DeadlineReminders.Listener {
+        private final BlockingQueue<DeadlineReminders.Reminder> reminders;
+        private final LongAdder dropped = new LongAdder();
+
+        public Queue(int capacity) {
+            this.reminders = new ArrayBlockingQueue<>(capacity);
+        }
+
+        @Override
+        public void remind(DeadlineReminders.Reminder reminder) {
+            if (!reminders.offer(reminder)) {
+                dropped.increment();
+            }
+        }
+
+        //the oldest reminder, null if there is none within the timeout
+        public DeadlineReminders.Reminder poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return reminders.poll(timeout, unit);
+        }
+
+        public long dropped() {
+            return dropped.sum();
+        }
+    }
+
+    //Posts every reminder as JSON ({"kind": .., "taskId": .., "project": .., "deadline": ..}) to a URL.
+    //Does not wait for the answer and does not retry, a failed post is only reported.
+    public static final class Webhook implements DeadlineReminders.Listener {
+        private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+        private final URI uri;
+        private final ObjectMapper objectMapper;
+        private final HttpClient client = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+
+        public Webhook(URI uri, ObjectMapper objectMapper) {
+            this.uri = uri;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public void remind(DeadlineReminders.Reminder reminder) {
+            HttpRequest request;
+            try {
+                request = HttpRequest.newBuilder(uri)
+                        .timeout(TIMEOUT)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(reminder)))
+                        .build();
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                if (error != null) {
+                    System.err.println("Could not post reminder to " + uri + ": " + error.getMessage());
+                } else if (response.statusCode() >= 300) {
+                    System.err.println("Posting reminder to " + uri + " failed with status " + response.statusCode());
+                }
+            });
+        }
+    }
+}
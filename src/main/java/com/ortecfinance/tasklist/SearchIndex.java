@@ -0,0 +1,150 @@
+package com.ortecfinance.tasklist;
+
+import java.util.*;
+import java.util.function.LongPredicate;
+
+//Inverted index of the words in task descriptions, kept up to date by TaskStorage, so searching
+//walks the id lists of the search terms instead of every task. Words are the runs of letters and
+//digits of a description in lower case. Descriptions never change, tasks are only added.
+final class SearchIndex {
+    record Match(long id, int matches) {
+    }
+
+    //ids of the tasks containing a word, ascending
+    private static final class Postings {
+        long[] ids = new long[2];
+        int size;
+    }
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    //set when ids were added out of order, which only happens while loading a snapshot
+    private boolean unsorted = false;
+
+    void add(long id, String description) {
+        for (String word : words(description)) {
+            Postings list = postings.computeIfAbsent(word, w -> new Postings());
+            if (list.size > 0 && list.ids[list.size - 1] > id) {
+                unsorted = true;
+            }
+            if (list.size == list.ids.length) {
+                list.ids = Arrays.copyOf(list.ids, list.size * 2);
+            }
+            list.ids[list.size++] = id;
+        }
+    }
+
+    //Sorts the lists after tasks were added out of id order, must be called before searching again
+    void sort() {
+        if (!unsorted) {
+            return;
+        }
+        for (Postings list : postings.values()) {
+            Arrays.sort(list.ids, 0, list.size);
+        }
+        unsorted = false;
+    }
+
+    //Ids and match counts of up to limit tasks containing at least one of the words of the query and
+    //accepted by the filter, most matching words first and then by id. The lists of the words are
+    //merged in id order, so a task's matches are counted without a map, and the merge stops as soon
+    //as limit tasks matching every word are found since nothing can rank above them.
+    //Once limit tasks with 1..n matches are found, only tasks with more than n matches can still make
+    //it in. Such a task is in at least one of the shortest (words - n) lists, so only those lists are
+    //walked and the others are searched for their ids: a rare word next to a common one does not walk
+    //the whole list of the common word.
+    List<Match> search(String query, LongPredicate filter, int limit) {
+        List<Postings> lists = new ArrayList<>();
+        for (String word : words(query)) {
+            Postings list = postings.get(word);
+            if (list != null) {
+                lists.add(list);
+            }
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        int termCount = lists.size();
+        //ids by number of matching words, each bucket needs at most limit ids
+        long[][] buckets = new long[termCount + 1][];
+        int[] bucketSizes = new int[termCount + 1];
+        int[] cursors = new int[termCount];
+        //buckets 1..full hold limit ids each
+        int full = 0;
+
+        while (full < termCount && bucketSizes[termCount] < limit) {
+            int walked = termCount - full;
+            long id = Long.MAX_VALUE;
+            for (int i = 0; i < walked; i++) {
+                Postings list = lists.get(i);
+                if (cursors[i] < list.size && list.ids[cursors[i]] < id) {
+                    id = list.ids[cursors[i]];
+                }
+            }
+            if (id == Long.MAX_VALUE) {
+                break;
+            }
+            int matches = 0;
+            for (int i = 0; i < termCount; i++) {
+                Postings list = lists.get(i);
+                if (i >= walked) {
+                    cursors[i] = seek(list, cursors[i], id);
+                }
+                if (cursors[i] < list.size && list.ids[cursors[i]] == id) {
+                    cursors[i]++;
+                    matches++;
+                }
+            }
+            if (bucketSizes[matches] < limit && filter.test(id)) {
+                if (buckets[matches] == null) {
+                    buckets[matches] = new long[Math.min(limit, 16)];
+                } else if (bucketSizes[matches] == buckets[matches].length) {
+                    buckets[matches] = Arrays.copyOf(buckets[matches], (int) Math.min(limit, buckets[matches].length * 2L));
+                }
+                buckets[matches][bucketSizes[matches]++] = id;
+                while (full < termCount && bucketSizes[full + 1] == limit) {
+                    full++;
+                }
+            }
+        }
+
+        List<Match> result = new ArrayList<>();
+        for (int matches = termCount; matches > 0 && result.size() < limit; matches--) {
+            for (int i = 0; i < bucketSizes[matches] && result.size() < limit; i++) {
+                result.add(new Match(buckets[matches][i], matches));
+            }
+        }
+        return result;
+    }
+
+    //index of the first id >= the given one from the cursor on, galloping so a far jump costs log(distance)
+    private static int seek(Postings list, int cursor, long id) {
+        int step = 1;
+        int high = cursor;
+        while (high < list.size && list.ids[high] < id) {
+            cursor = high + 1;
+            high += step;
+            step *= 2;
+        }
+        if (high >= list.size) {
+            high = list.size;
+        }
+        int found = Arrays.binarySearch(list.ids, cursor, high, id);
+        return found >= 0 ? found : -found - 1;
+    }
+
+    //distinct lower case words in order of appearance
+    static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); ) {
+            int codePoint = i < text.length() ? text.codePointAt(i) : -1;
+            boolean wordChar = codePoint >= 0 && Character.isLetterOrDigit(codePoint);
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+            i += codePoint >= 0 ? Character.charCount(codePoint) : 1;
+        }
+        return words;
+    }
+}
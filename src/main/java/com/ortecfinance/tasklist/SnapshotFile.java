@@ -0,0 +1,173 @@
+package com.ortecfinance.tasklist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+//Compact binary copy of all projects and tasks, written to and read from a memory-mapped file
+//so startup only has to replay the write-ahead log records written after it.
+//
+//Layout (big endian):
+//  int magic, int format version, long last write-ahead log sequence, long last task id, int project count
+//  per project: int name length, name (UTF-8), int task count
+//    per task: long id, long deadline as epoch day (NO_DEADLINE if not set), byte done,
+//              int description length, description (UTF-8)
+//  int crc32 of everything before it
+final class SnapshotFile {
+    private static final int MAGIC = 0x544C534E; //"TLSN"
+    private static final int FORMAT_VERSION = 2;
+    private static final long NO_DEADLINE = Long.MIN_VALUE;
+    private static final long MIN_EPOCH_DAY = LocalDate.MIN.toEpochDay();
+    private static final long MAX_EPOCH_DAY = LocalDate.MAX.toEpochDay();
+
+    record Contents(long walSequence, long lastId, List<String> projectNames, List<List<Task>> projectTasks) {}
+
+    private SnapshotFile() {
+    }
+
+    //Writes to a temporary file first and moves it in place, so a crash never leaves a half written snapshot
+    static void write(Path path, StorageSnapshot snapshot, long walSequence, long lastId) throws IOException {
+        Map<String, List<Task>> projects = snapshot.projects();
+        long size = 4 + 4 + 8 + 8 + 4 + 4;
+        for (Map.Entry<String, List<Task>> project : projects.entrySet()) {
+            size += 4 + utf8Length(project.getKey()) + 4;
+            for (Task task : project.getValue()) {
+                size += 8 + 8 + 1 + 4 + utf8Length(task.getDescription());
+            }
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot of " + size + " bytes is too large for a single mapped file");
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.deleteIfExists(temporary);
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(walSequence).putLong(lastId).putInt(projects.size());
+            for (Map.Entry<String, List<Task>> project : projects.entrySet()) {
+                putString(buffer, encoder, project.getKey());
+                buffer.putInt(project.getValue().size());
+                for (Task task : project.getValue()) {
+                    buffer.putLong(task.getId());
+                    buffer.putLong(task.getDeadline() != null ? task.getDeadline().toEpochDay() : NO_DEADLINE);
+                    buffer.put((byte) (task.isDone() ? 1 : 0));
+                    putString(buffer, encoder, task.getDescription());
+                }
+            }
+            buffer.putInt(checksum(buffer.duplicate().flip()));
+            buffer.force();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static Contents read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 4 + 4 + 8 + 8 + 4 + 4 || size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + path + " has an invalid size of " + size + " bytes");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int expectedChecksum = buffer.getInt((int) size - 4);
+            if (checksum(buffer.duplicate().limit((int) size - 4)) != expectedChecksum) {
+                throw new IOException("Snapshot " + path + " is corrupt, checksum does not match");
+            }
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new IOException("Snapshot " + path + " is not a snapshot file of a known format");
+            }
+            long walSequence = buffer.getLong();
+            long lastId = buffer.getLong();
+            int projectCount = buffer.getInt();
+
+            byte[] scratch = new byte[256];
+            List<String> projectNames = new ArrayList<>(projectCount);
+            List<List<Task>> projectTasks = new ArrayList<>(projectCount);
+            for (int p = 0; p < projectCount; p++) {
+                int nameLength = buffer.getInt();
+                scratch = ensureCapacity(scratch, nameLength);
+                projectNames.add(getString(buffer, scratch, nameLength));
+                int taskCount = buffer.getInt();
+                List<Task> tasks = new ArrayList<>(taskCount);
+                for (int t = 0; t < taskCount; t++) {
+                    long id = buffer.getLong();
+                    long epochDay = buffer.getLong();
+                    boolean done = buffer.get() != 0;
+                    int descriptionLength = buffer.getInt();
+                    scratch = ensureCapacity(scratch, descriptionLength);
+                    String description = getString(buffer, scratch, descriptionLength);
+                    if (epochDay != NO_DEADLINE && (epochDay < MIN_EPOCH_DAY || epochDay > MAX_EPOCH_DAY)) {
+                        throw new IOException("Snapshot " + path + " has a deadline out of range for task " + id);
+                    }
+                    LocalDate deadline = epochDay != NO_DEADLINE ? LocalDate.ofEpochDay(epochDay) : null;
+                    tasks.add(new Task(id, description, done, deadline));
+                }
+                projectTasks.add(tasks);
+            }
+            return new Contents(walSequence, lastId, projectNames, projectTasks);
+        }
+    }
+
+    private static void putString(ByteBuffer buffer, CharsetEncoder encoder, String value) {
+        int lengthPosition = buffer.position();
+        buffer.putInt(0);
+        encoder.reset();
+        encoder.encode(CharBuffer.wrap(value), buffer, true);
+        encoder.flush(buffer);
+        buffer.putInt(lengthPosition, buffer.position() - lengthPosition - 4);
+    }
+
+    private static String getString(ByteBuffer buffer, byte[] scratch, int length) {
+        buffer.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] ensureCapacity(byte[] scratch, int length) {
+        return scratch.length >= length ? scratch : new byte[Math.max(length, scratch.length * 2)];
+    }
+
+    //same byte count as the encoder above, lone surrogates are replaced by a single '?'
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static int checksum(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer);
+        return (int) crc.getValue();
+    }
+}
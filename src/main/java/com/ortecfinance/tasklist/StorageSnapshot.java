@@ -0,0 +1,178 @@
+package com.ortecfinance.tasklist;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Immutable, point in time view of all projects and their tasks.
+//TaskStorage publishes a new snapshot for every mutation, built from the previous one
+//so only the changed project list is touched and everything else is shared.
+//The version counts the mutations, a project's version is the version of the last mutation
+//that changed the project, so it only changes when the project does.
+//It also holds the deadline order of all tasks, so the deadline views walk a snapshot instead of copying
+//the storage's index under its lock.
+final class StorageSnapshot {
+    private final long version;
+    private final PersistentVector<String> projectNames;
+    private final PersistentVector<PersistentVector<Task>> projectTasks;
+    private final PersistentVector<Long> projectVersions;
+    private final DeadlineTree deadlines;
+    //project name -> ordinal, shared between all snapshots since projects are only ever added
+    private final Map<String, Integer> ordinals;
+    private final Map<String, List<Task>> projects = new ProjectsView();
+
+    private StorageSnapshot(long version, PersistentVector<String> projectNames,
+                            PersistentVector<PersistentVector<Task>> projectTasks,
+                            PersistentVector<Long> projectVersions, DeadlineTree deadlines,
+                            Map<String, Integer> ordinals) {
+        this.version = version;
+        this.projectNames = projectNames;
+        this.projectTasks = projectTasks;
+        this.projectVersions = projectVersions;
+        this.deadlines = deadlines;
+        this.ordinals = ordinals;
+    }
+
+    static StorageSnapshot empty() {
+        return new StorageSnapshot(0, PersistentVector.empty(), PersistentVector.empty(), PersistentVector.empty(),
+                DeadlineTree.empty(), new ConcurrentHashMap<>());
+    }
+
+    //Snapshot of fully built project lists, used when loading a snapshot file at startup
+    static StorageSnapshot of(List<String> projectNames, List<List<Task>> projectTasks) {
+        Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+        List<PersistentVector<Task>> tasks = new ArrayList<>(projectTasks.size());
+        List<TaskLocation> locations = new ArrayList<>();
+        List<LocalDate> deadlines = new ArrayList<>();
+        for (int ordinal = 0; ordinal < projectNames.size(); ordinal++) {
+            String name = projectNames.get(ordinal);
+            ordinals.put(name, ordinal);
+            List<Task> projectList = projectTasks.get(ordinal);
+            tasks.add(PersistentVector.copyOf(projectList));
+            for (int position = 0; position < projectList.size(); position++) {
+                Task task = projectList.get(position);
+                locations.add(new TaskLocation(name, ordinal, position, task.getId()));
+                deadlines.add(task.getDeadline());
+            }
+        }
+        return new StorageSnapshot(0, PersistentVector.copyOf(projectNames), PersistentVector.copyOf(tasks),
+                PersistentVector.copyOf(Collections.nCopies(projectNames.size(), 0L)),
+                DeadlineTree.copyOf(locations, deadlines), ordinals);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    //-1 if there is no such project
+    public long projectVersion(String project) {
+        int ordinal = ordinalOf(project);
+        return ordinal >= 0 ? projectVersions.get(ordinal) : -1;
+    }
+
+    //all projects in insertion order, unmodifiable and never changing afterwards
+    public Map<String, List<Task>> projects() {
+        return projects;
+    }
+
+    public List<String> projectNames() {
+        return projectNames;
+    }
+
+    public int projectCount() {
+        return projectNames.size();
+    }
+
+    public int ordinalOf(String project) {
+        Integer ordinal = ordinals.get(project);
+        //the shared map may already know projects added after this snapshot
+        return ordinal != null && ordinal < projectNames.size() ? ordinal : -1;
+    }
+
+    public Task task(TaskLocation location) {
+        return projectTasks.get(location.projectOrdinal()).get(location.position());
+    }
+
+    public List<Task> tasksOf(int projectOrdinal) {
+        return projectTasks.get(projectOrdinal);
+    }
+
+    DeadlineTree deadlines() {
+        return deadlines;
+    }
+
+    StorageSnapshot withProject(String name) {
+        ordinals.put(name, projectNames.size());
+        return new StorageSnapshot(version + 1, projectNames.append(name),
+                projectTasks.append(PersistentVector.empty()), projectVersions.append(version + 1), deadlines,
+                ordinals);
+    }
+
+    StorageSnapshot withAddedTask(int projectOrdinal, Task task) {
+        PersistentVector<Task> projectList = projectTasks.get(projectOrdinal);
+        TaskLocation location = new TaskLocation(projectNames.get(projectOrdinal), projectOrdinal,
+                projectList.size(), task.getId());
+        return new StorageSnapshot(version + 1, projectNames,
+                projectTasks.with(projectOrdinal, projectList.append(task)),
+                projectVersions.with(projectOrdinal, version + 1), deadlines.with(task.getDeadline(), location),
+                ordinals);
+    }
+
+    StorageSnapshot withReplacedTask(TaskLocation location, Task task) {
+        PersistentVector<Task> projectList = projectTasks.get(location.projectOrdinal());
+        LocalDate oldDeadline = projectList.get(location.position()).getDeadline();
+        //only a new deadline moves the task in the deadline order
+        DeadlineTree newDeadlines = Objects.equals(oldDeadline, task.getDeadline()) ? deadlines
+                : deadlines.without(oldDeadline, location).with(task.getDeadline(), location);
+        return new StorageSnapshot(version + 1, projectNames,
+                projectTasks.with(location.projectOrdinal(), projectList.with(location.position(), task)),
+                projectVersions.with(location.projectOrdinal(), version + 1), newDeadlines, ordinals);
+    }
+
+    //Map view over the vectors, so handing out all projects does not copy anything
+    private final class ProjectsView extends AbstractMap<String, List<Task>> {
+
+        @Override
+        public List<Task> get(Object key) {
+            int ordinal = key instanceof String name ? ordinalOf(name) : -1;
+            return ordinal >= 0 ? projectTasks.get(ordinal) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String name && ordinalOf(name) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return projectNames.size();
+        }
+
+        @Override
+        public Set<Entry<String, List<Task>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, List<Task>>> iterator() {
+                    Iterator<String> names = projectNames.iterator();
+                    Iterator<PersistentVector<Task>> tasks = projectTasks.iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return names.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, List<Task>> next() {
+                            return new SimpleImmutableEntry<>(names.next(), tasks.next());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return projectNames.size();
+                }
+            };
+        }
+    }
+}
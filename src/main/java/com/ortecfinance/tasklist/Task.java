@@ -1,41 +1,74 @@
 package com.ortecfinance.tasklist;
 
+import java.io.IOException;
 import java.time.LocalDate;
 
+//Immutable, so tasks can be handed out to the console and REST threads as part of a storage snapshot.
+//Changing a task means replacing it in TaskStorage with a copy made by withDone or withDeadline.
+//Tasks kept by the storages hold their description in a DescriptionArena and decode it when asked.
 public final class Task {
     private final long id;
-    private final String description;
-    private boolean done;
-    private LocalDate deadline;
+    //the description as a String, or the DescriptionArena holding it at descriptionHandle.
+    //One field for both keeps a stored task at 40 bytes.
+    private final Object description;
+    private final long descriptionHandle;
+    private final boolean done;
+    private final LocalDate deadline;
 
     public Task(long id, String description, boolean done) {
+        this(id, description, done, null); //by default no deadline for a task.
+    }
+
+    public Task(long id, String description, boolean done, LocalDate deadline) {
+        this(id, (Object) description, 0, done, deadline);
+    }
+
+    Task(long id, DescriptionArena descriptions, long descriptionHandle, boolean done, LocalDate deadline) {
+        this(id, (Object) descriptions, descriptionHandle, done, deadline);
+    }
+
+    private Task(long id, Object description, long descriptionHandle, boolean done, LocalDate deadline) {
         this.id = id;
         this.description = description;
+        this.descriptionHandle = descriptionHandle;
         this.done = done;
-        this.deadline = null; //by default no deadline for a task.
+        this.deadline = deadline;
     }
 
     public long getId() {
         return id;
     }
 
+    //decoded on every call when the description is in an arena, nothing keeps the String alive
     public String getDescription() {
-        return description;
+        if (description instanceof DescriptionArena descriptions) {
+            return descriptions.decode(descriptionHandle);
+        }
+        return (String) description;
+    }
+
+    //Same text as getDescription, written to out without decoding it into a String first
+    void appendDescriptionTo(Appendable out) throws IOException {
+        if (description instanceof DescriptionArena descriptions) {
+            descriptions.appendTo(descriptionHandle, out);
+        } else {
+            out.append((String) description);
+        }
     }
 
     public boolean isDone() {
         return done;
     }
 
-    public void setDone(boolean done) {
-        this.done = done;
+    public Task withDone(boolean done) {
+        return new Task(id, description, descriptionHandle, done, deadline);
     }
 
     public LocalDate getDeadline(){
         return deadline;
     }
 
-    public void setDeadline(LocalDate deadline) {
-        this.deadline = deadline;
+    public Task withDeadline(LocalDate deadline) {
+        return new Task(id, description, descriptionHandle, done, deadline);
     }
 }
@@ -0,0 +1,30 @@
+package com.ortecfinance.tasklist;
+
+import java.time.LocalDate;
+
+//Items and results of the bulk operations of TaskStorage. Every item succeeds or fails on its own,
+//a failed item does not stop the rest of the batch.
+public final class TaskBatch {
+
+    private TaskBatch() {
+    }
+
+    public record NewTask(String project, String description) {
+    }
+
+    //done and deadline are left unchanged when null
+    public record TaskUpdate(long id, Boolean done, LocalDate deadline) {
+    }
+
+    //id of the created or updated task, or the error message when the item failed
+    public record ItemResult(Long id, boolean success, String error) {
+
+        static ItemResult succeeded(long id) {
+            return new ItemResult(id, true, null);
+        }
+
+        static ItemResult failed(Long id, String error) {
+            return new ItemResult(id, false, error);
+        }
+    }
+}
@@ -1,8 +1,28 @@
 package com.ortecfinance.tasklist;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -13,23 +33,112 @@ import static com.ortecfinance.tasklist.TaskFormatter.formatDate;
 @RestController
 @RequestMapping("/projects")
 public class TaskController {
+    //upper bound for the limit parameter of the paginated views
+    private static final int MAX_PAGE_LIMIT = 1000;
+    private static final String NDJSON = "application/x-ndjson";
 
     private final TaskService taskService;
+    private final ObjectMapper objectMapper;
+    private final TaskMetrics metrics;
+    private final ChangeFeed changeFeed;
+    //the storage versions start at 0 on every start, so the ETags also name the start they belong to
+    private final String etagEpoch = Long.toString(System.currentTimeMillis(), 36);
 
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, ObjectMapper objectMapper, TaskMetrics metrics,
+                          ChangeFeed changeFeed) {
         this.taskService = taskService;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.changeFeed = changeFeed;
     }
 
-    //adds a project, given a post request with a body containing the project name
+    //adds a project, given a post request with a body containing the project name.
+    //Names of the fixed paths below (stats, search, ...) are refused, GET /projects/{projectName} could not reach them
     @PostMapping
     public void createProject(@RequestBody Map<String, String> request) {
         taskService.createProject(request.get("name"));
     }
 
-    //Returns all projects with all tasks containing its id,description,deadline and if the task is done
+    //Returns all projects with all tasks containing its id,description,deadline and if the task is done.
+    //Streamed from the current snapshot, so the response is consistent without copying anything
     @GetMapping
-    public Map<String, List<Task>> getAllProjects() {
-        return taskService.getAllProjects();
+    public ResponseEntity<StreamingResponseBody> getAllProjects(WebRequest request) {
+        if (notModified(request, taskService.getVersion())) {
+            return null;
+        }
+        Map<String, List<Task>> projects = taskService.getAllProjects();
+        return streamJson(json -> TaskJsonWriter.writeProjects(json, projects.entrySet()));
+    }
+
+    //Same projects one page at a time, used instead of the above when a limit is given.
+    //The nextCursor of the response is passed as cursor to get the next page
+    @GetMapping(params = "limit")
+    public Page<Map<String, List<Task>>> getProjectsPage(@RequestParam int limit,
+                                                         @RequestParam(required = false) String cursor,
+                                                         WebRequest request) {
+        if (notModified(request, taskService.getVersion())) {
+            return null;
+        }
+        try {
+            return taskService.getProjectsPage(cursor, Math.min(limit, MAX_PAGE_LIMIT));
+        } catch (IllegalArgumentException e) {
+            throw badPage(e);
+        }
+    }
+
+    //Project name -> open, done, overdue and due today task counts.
+    //No ETag, overdue and due today change at midnight without any change of the data
+    @GetMapping("/stats")
+    public Map<String, ProjectStats> getProjectStats() {
+        return taskService.getProjectStats();
+    }
+
+    //All projects and tasks as a binary TaskDump, to back them up or move them to another environment
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTasks(WebRequest request) {
+        if (notModified(request, taskService.getVersion())) {
+            return null;
+        }
+        StreamingResponseBody stream = out -> taskService.exportTasks(Channels.newChannel(out));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasklist.dump\"")
+                .body(stream);
+    }
+
+    //Adds the projects and tasks of a dump made by GET /projects/export, the tasks get new ids.
+    //Returns the number of projects and tasks in the dump
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public TaskDump.Summary importTasks(InputStream body) {
+        try {
+            return taskService.importTasks(Channels.newChannel(body));
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Could not import the dump: " + e.getMessage());
+        }
+    }
+
+    //Returns one project with its tasks, in the same format as all projects
+    @GetMapping("/{projectName}")
+    public ResponseEntity<StreamingResponseBody> getProject(@PathVariable String projectName, WebRequest request) {
+        if (notModified(request, taskService.getProjectVersion(projectName))) {
+            return null;
+        }
+        List<Task> tasks = taskService.getProject(projectName);
+        if (tasks == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return streamJson(json -> TaskJsonWriter.writeProjects(json, Map.of(projectName, tasks).entrySet()));
+    }
+
+    //Returns one task of the project
+    @GetMapping("/{projectName}/tasks/{taskId}")
+    public ResponseEntity<Task> getTask(@PathVariable String projectName, @PathVariable long taskId,
+                                        WebRequest request) {
+        if (notModified(request, taskService.getProjectVersion(projectName))) {
+            return null;
+        }
+        Task task = taskService.getTask(projectName, taskId);
+        return task != null ? ResponseEntity.ok(task) : ResponseEntity.notFound().build();
     }
 
     //Given the project name in the url, it adds a task for this project
@@ -40,20 +149,274 @@ public class TaskController {
         taskService.createTask(projectName, request.get("description"));
     }
 
+    //Creates many tasks across projects in one request, the body is a list of
+    //{"project": ..., "description": ...}. Returns the new id or the error for every item
+    @PostMapping("/tasks/batch")
+    public List<TaskBatch.ItemResult> createTasks(@RequestBody List<Map<String, String>> request) {
+        List<TaskBatch.ItemResult> results = new ArrayList<>(Collections.nCopies(request.size(), null));
+        List<TaskBatch.NewTask> tasks = new ArrayList<>(request.size());
+        List<Integer> positions = new ArrayList<>(request.size());
+        for (int i = 0; i < request.size(); i++) {
+            Map<String, String> item = request.get(i);
+            if (item == null || item.get("project") == null || item.get("description") == null) {
+                results.set(i, TaskBatch.ItemResult.failed(null, "Every item needs a project and a description"));
+                continue;
+            }
+            tasks.add(new TaskBatch.NewTask(item.get("project"), item.get("description")));
+            positions.add(i);
+        }
+        return merge(results, positions, taskService.createTasks(tasks));
+    }
+
+    //Checks/unchecks and sets deadlines of many tasks in one request, the body is a list of
+    //{"id": ..., "done": true|false, "deadline": "dd-mm-yyyy"} where done and deadline are optional.
+    //An item that cannot be parsed fails on its own, like an item for a task that does not exist
+    @PatchMapping("/tasks/batch")
+    public List<TaskBatch.ItemResult> updateTasks(@RequestBody List<Map<String, String>> request) {
+        List<TaskBatch.ItemResult> results = new ArrayList<>(Collections.nCopies(request.size(), null));
+        List<TaskBatch.TaskUpdate> updates = new ArrayList<>(request.size());
+        List<Integer> positions = new ArrayList<>(request.size());
+        for (int i = 0; i < request.size(); i++) {
+            Map<String, String> item = request.get(i);
+            if (item == null || item.get("id") == null) {
+                results.set(i, TaskBatch.ItemResult.failed(null, "Every item needs an id"));
+                continue;
+            }
+            long id;
+            try {
+                id = Long.parseLong(item.get("id"));
+            } catch (NumberFormatException e) {
+                results.set(i, TaskBatch.ItemResult.failed(null, "Invalid task ID: " + item.get("id")));
+                continue;
+            }
+            String done = item.get("done");
+            if (done != null && !done.equals("true") && !done.equals("false")) {
+                results.set(i, TaskBatch.ItemResult.failed(id, "done must be true or false: " + done));
+                continue;
+            }
+            String deadline = item.get("deadline");
+            LocalDate date = null;
+            if (deadline != null) {
+                try {
+                    date = parseDate(deadline);
+                } catch (NumberFormatException | DateTimeException e) {
+                    results.set(i, TaskBatch.ItemResult.failed(id, "Invalid deadline: " + deadline));
+                    continue;
+                }
+            }
+            updates.add(new TaskBatch.TaskUpdate(id, done != null ? Boolean.valueOf(done) : null, date));
+            positions.add(i);
+        }
+        return merge(results, positions, taskService.updateTasks(updates));
+    }
+
     //This updates the deadline for a given project name and task id with the provided parameter
     @PutMapping("/{projectName}/tasks/{taskId}")
     public void updateTaskDeadline(@PathVariable String projectName,
                                    @PathVariable long taskId,
                                    @RequestParam String deadline) {
         LocalDate date = parseDate(deadline);
+        //tasks never move to another project, so checking before the update is enough
+        if (!projectName.equals(taskService.getProjectOfTask(taskId))) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "Task " + taskId + " not found in project " + projectName);
+        }
         taskService.setTaskDeadline(taskId, date);
     }
 
     //Returns all tasks grouped by deadline first and then by project
     //and projects without a deadline at last
     @GetMapping("/view_by_deadline")
-    public Map<String, Map<String, List<Task>>> getTasksByDeadline() {
-        Map<LocalDate, Map<String, List<Task>>> tasksByDeadline = taskService.getTasksSortedByDeadline();
+    public ResponseEntity<StreamingResponseBody> getTasksByDeadline(WebRequest request) {
+        if (notModified(request, taskService.getVersion())) {
+            return null;
+        }
+        //one point in time view of the deadline index, streamed in chunks without holding a lock
+        DeadlineView view = taskService.getDeadlineView(null, null);
+        return streamJson(json -> TaskJsonWriter.writeByDeadline(json, view));
+    }
+
+    //Same view one page at a time, ordered by deadline and then project
+    @GetMapping(value = "/view_by_deadline", params = "limit")
+    public Page<Map<String, Map<String, List<Task>>>> getTasksByDeadlinePage(@RequestParam int limit,
+                                                                             @RequestParam(required = false) String cursor,
+                                                                             WebRequest request) {
+        if (notModified(request, taskService.getVersion())) {
+            return null;
+        }
+        Page<Map<LocalDate, Map<String, List<Task>>>> page;
+        try {
+            page = taskService.getTasksByDeadlinePage(cursor, Math.min(limit, MAX_PAGE_LIMIT));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw badPage(e);
+        }
+        return new Page<>(withFormattedDates(page.items()), page.nextCursor());
+    }
+
+    //Returns the tasks with a deadline between the from and to date (both inclusive),
+    //grouped by deadline first and then by project
+    @GetMapping("/due")
+    public ResponseEntity<StreamingResponseBody> getTasksDueBetween(@RequestParam String from,
+                                                                    @RequestParam String to,
+                                                                    WebRequest request) {
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            fromDate = parseDate(from);
+            toDate = parseDate(to);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw badPage(e);
+        }
+        if (notModified(request, taskService.getVersion())) {
+            return null;
+        }
+        //taken here so an invalid range fails before the response starts
+        DeadlineView view;
+        try {
+            view = taskService.getDeadlineView(fromDate, toDate);
+        } catch (IllegalArgumentException e) {
+            throw badPage(e);
+        }
+        return streamJson(json -> TaskJsonWriter.writeByDeadline(json, view));
+    }
+
+    //Tasks whose description contains any of the words in q, the tasks containing the most of them first.
+    //Optionally only the tasks of a project, with a done state or with a deadline on or before due
+    @GetMapping("/search")
+    public List<TaskSearch.Hit> searchTasks(@RequestParam String q,
+                                            @RequestParam(required = false) String project,
+                                            @RequestParam(required = false) Boolean done,
+                                            @RequestParam(required = false) String due,
+                                            @RequestParam(defaultValue = "100") int limit,
+                                            WebRequest request) {
+        //only the project's tasks can match, so other projects changing does not change the result
+        long version = project != null ? taskService.getProjectVersion(project) : taskService.getVersion();
+        if (notModified(request, version)) {
+            return null;
+        }
+        TaskSearch.Filter filter;
+        try {
+            filter = new TaskSearch.Filter(project, done, due != null ? parseDate(due) : null);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw badPage(e);
+        }
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be at least 1: " + limit);
+        }
+        return taskService.searchTasks(q, filter, Math.min(limit, MAX_PAGE_LIMIT));
+    }
+
+    //Server-sent events for every change from now on: project-created, task-created, done-changed and
+    //deadline-changed, with the feed's epoch and the change's sequence number as event id. A client that
+    //reconnects sends the last id it got as Last-Event-ID and gets the changes it missed first
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        //no timeout, the stream ends when the client goes away or the feed drops it
+        SseEmitter emitter = new SseEmitter(0L);
+        ChangeFeed.Subscription subscription = changeFeed.subscribe(lastEventId, new ChangeFeed.EventSink() {
+            @Override
+            public void send(TaskEvent event) throws IOException {
+                SseEmitter.SseEventBuilder sse = SseEmitter.event().name(event.type())
+                        .data(event, MediaType.APPLICATION_JSON);
+                if (event.sequence() > 0) {
+                    sse.id(changeFeed.eventId(event.sequence()));
+                }
+                sendEvent(emitter, sse);
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                sendEvent(emitter, SseEmitter.event().comment("heartbeat"));
+            }
+
+            @Override
+            public void complete() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return emitter;
+    }
+
+    //Runs console commands, one per line of the text/plain body, on virtual threads: commands for
+    //different projects in parallel, commands for the same project in order. Streams back one JSON
+    //object per line ({"line": .., "command": .., "output": ..}) as soon as each command finishes
+    @PostMapping(value = "/commands", consumes = MediaType.TEXT_PLAIN_VALUE, produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> executeCommands(InputStream body) {
+        StreamingResponseBody stream = out -> {
+            BufferedReader commands = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            new CommandStreamRunner(taskService, metrics).run(commands, new CommandStreamRunner.ResultWriter() {
+                @Override
+                public void write(CommandStreamRunner.Result result) throws IOException {
+                    out.write(objectMapper.writeValueAsBytes(result));
+                    out.write('\n');
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    out.flush();
+                }
+            });
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(stream);
+    }
+
+    //input the service refuses, like a reserved project name, is the client's mistake
+    @ExceptionHandler(TaskService.InvalidInputException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ProblemDetail invalidInput(TaskService.InvalidInputException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    //puts the results of the items that were sent to the storage back in the places of those items
+    private static List<TaskBatch.ItemResult> merge(List<TaskBatch.ItemResult> results, List<Integer> positions,
+                                                    List<TaskBatch.ItemResult> applied) {
+        for (int i = 0; i < applied.size(); i++) {
+            results.set(positions.get(i), applied.get(i));
+        }
+        return results;
+    }
+
+    //a garbled cursor (bad base64, numbers or epoch day), a limit below 1 or a bad date or date range in the
+    //query is the client's mistake
+    private static ResponseStatusException badPage(RuntimeException e) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    //Sets the ETag for the given storage version and tells whether the client already has it (If-None-Match),
+    //in which case the response is a 304 and the handler returns null without building anything.
+    //The version is read before the data, so data newer than its ETag can be sent but never data older.
+    //A project that does not exist (version -1) gets no ETag.
+    private boolean notModified(WebRequest request, long version) {
+        return version >= 0 && request.checkNotModified("\"" + etagEpoch + "-" + version + "\"");
+    }
+
+    private static void sendEvent(SseEmitter emitter, SseEmitter.SseEventBuilder event) throws IOException {
+        try {
+            emitter.send(event);
+        } catch (IllegalStateException e) {
+            //the emitter was completed in the meantime
+            throw new IOException(e);
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamJson(JsonBody body) {
+        StreamingResponseBody stream = out -> {
+            JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+            body.write(json);
+            json.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(stream);
+    }
+
+    @FunctionalInterface
+    private interface JsonBody {
+        void write(JsonGenerator json) throws IOException;
+    }
+
+    private static Map<String, Map<String, List<Task>>> withFormattedDates(
+            Map<LocalDate, Map<String, List<Task>>> tasksByDeadline) {
         Map<String, Map<String, List<Task>>> result = new LinkedHashMap<>();
 
         for (Map.Entry<LocalDate, Map<String, List<Task>>> entry : tasksByDeadline.entrySet()) {
@@ -69,8 +432,6 @@ public class TaskController {
         return result;
     }
 
-
-
 }
 
 
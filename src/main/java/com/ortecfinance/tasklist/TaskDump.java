@@ -0,0 +1,351 @@
+package com.ortecfinance.tasklist;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+//Compact, versioned binary dump of all projects and tasks, to back up a task list or move it to another
+//environment. Unlike SnapshotFile it is streamed through a channel with a fixed size buffer, so it can go
+//to and come from a file as well as a network connection, and it is made small rather than fast to map:
+//
+//  int magic, varint format version
+//  varint project count, per project: string (the name)
+//  varint task count, per task, in the order of their ids:
+//    varint project ordinal << 2 | has deadline << 1 | done
+//    zigzag varint id minus the id before it
+//    zigzag varint deadline as epoch day, only if it has one
+//    string (the description)
+//  int crc32 of everything before it
+//
+//A string is a varint reference into the table of strings read so far (project names first): 0 means a
+//new string follows as varint UTF-8 length and bytes and becomes the next entry, n means entry n - 1.
+//Repeated descriptions are written once. Ints are big endian, varints are unsigned LEB128.
+//Both ends only remember the first 65536 strings, so neither holds more than that and a chunk in memory.
+public final class TaskDump {
+    private static final int MAGIC = 0x544C4458; //"TLDX"
+    private static final int FORMAT_VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+    //both ends stop remembering new strings after this many, later repeats are written again
+    private static final int STRING_TABLE_LIMIT = 1 << 16;
+    private static final int MAX_STRING_LENGTH = 1 << 24;
+    private static final long MIN_EPOCH_DAY = LocalDate.MIN.toEpochDay();
+    private static final long MAX_EPOCH_DAY = LocalDate.MAX.toEpochDay();
+
+    //what was exported or imported
+    public record Summary(int projects, int tasks) {
+    }
+
+    //Up to a chunk size of tasks in the order of their ids, taskProjects holds the project ordinal of every
+    //task. projectNames are all projects of the dump, in every chunk
+    record Chunk(List<String> projectNames, List<Task> tasks, int[] taskProjects) {
+    }
+
+    private TaskDump() {
+    }
+
+    //Writes the projects and their tasks. The task lists of the storage are in id order, so they are
+    //merged without collecting or sorting the tasks
+    public static Summary write(WritableByteChannel channel, Map<String, List<Task>> projects) throws IOException {
+        Output out = new Output(channel);
+        out.putInt(MAGIC);
+        out.putVarLong(FORMAT_VERSION);
+
+        out.putVarLong(projects.size());
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>(Math.max(1, projects.size()),
+                Comparator.comparingLong(Cursor::id));
+        int taskCount = 0;
+        int ordinal = 0;
+        for (Map.Entry<String, List<Task>> project : projects.entrySet()) {
+            out.putString(project.getKey());
+            if (!project.getValue().isEmpty()) {
+                cursors.add(new Cursor(ordinal, project.getValue()));
+            }
+            taskCount += project.getValue().size();
+            ordinal++;
+        }
+
+        out.putVarLong(taskCount);
+        long previousId = 0;
+        while (!cursors.isEmpty()) {
+            Cursor cursor = cursors.poll();
+            Task task = cursor.tasks.get(cursor.position);
+            out.putVarLong((long) cursor.project << 2 | (task.getDeadline() != null ? 2 : 0) | (task.isDone() ? 1 : 0));
+            out.putVarLong(zigzag(task.getId() - previousId));
+            if (task.getDeadline() != null) {
+                out.putVarLong(zigzag(task.getDeadline().toEpochDay()));
+            }
+            out.putString(task.getDescription());
+            previousId = task.getId();
+            if (++cursor.position < cursor.tasks.size()) {
+                cursors.add(cursor);
+            }
+        }
+        out.finish();
+        return new Summary(projects.size(), taskCount);
+    }
+
+    //Reads a dump and hands its tasks to the action chunk by chunk, at least one chunk even without tasks.
+    //The checksum is only verified at the end, after the last chunk: read a dump once with an action that
+    //does nothing before acting on it.
+    static Summary read(ReadableByteChannel channel, int chunkSize, Consumer<Chunk> action) throws IOException {
+        Input in = new Input(channel);
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Not a task list dump");
+        }
+        long version = in.getVarLong();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Task list dump has format version " + version + ", only "
+                    + FORMAT_VERSION + " is supported");
+        }
+
+        int projectCount = in.getCount();
+        List<String> projectNames = new ArrayList<>(Math.min(projectCount, BUFFER_SIZE));
+        Set<String> seen = new HashSet<>();
+        for (int p = 0; p < projectCount; p++) {
+            String name = in.getString();
+            if (!seen.add(name)) {
+                throw new IOException("Task list dump has project " + name + " twice");
+            }
+            projectNames.add(name);
+        }
+
+        int taskCount = in.getCount();
+        List<Task> tasks = new ArrayList<>(Math.min(taskCount, chunkSize));
+        int[] taskProjects = new int[chunkSize];
+        long id = 0;
+        for (int t = 0; t < taskCount; t++) {
+            long header = in.getVarLong();
+            long project = header >>> 2;
+            if (project >= projectCount) {
+                throw new IOException("Task list dump refers to project " + project + " of " + projectCount);
+            }
+            id += unzigzag(in.getVarLong());
+            LocalDate deadline = (header & 2) != 0 ? deadline(unzigzag(in.getVarLong()), id) : null;
+            taskProjects[tasks.size()] = (int) project;
+            tasks.add(new Task(id, in.getString(), (header & 1) != 0, deadline));
+            if (tasks.size() == chunkSize && t < taskCount - 1) {
+                action.accept(new Chunk(projectNames, tasks, taskProjects));
+                tasks = new ArrayList<>(chunkSize);
+                taskProjects = new int[chunkSize];
+            }
+        }
+        action.accept(new Chunk(projectNames, tasks, Arrays.copyOf(taskProjects, tasks.size())));
+
+        int actual = in.checksum();
+        if (in.getInt() != actual) {
+            throw new IOException("Task list dump is corrupt, checksum does not match");
+        }
+        return new Summary(projectCount, taskCount);
+    }
+
+    //a corrupt epoch day fails like the rest of a broken dump, before the checksum is reached
+    private static LocalDate deadline(long epochDay, long id) throws IOException {
+        if (epochDay < MIN_EPOCH_DAY || epochDay > MAX_EPOCH_DAY) {
+            throw new IOException("Task list dump has a deadline out of range for task " + id);
+        }
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Cursor {
+        private final int project;
+        private final List<Task> tasks;
+        private int position = 0;
+
+        private Cursor(int project, List<Task> tasks) {
+            this.project = project;
+            this.tasks = tasks;
+        }
+
+        private long id() {
+            return tasks.get(position).getId();
+        }
+    }
+
+    private static final class Output {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CRC32 crc = new CRC32();
+        private final Map<String, Integer> strings = new HashMap<>();
+        private int stringCount = 0;
+
+        private Output(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        private void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        private void putVarLong(long value) throws IOException {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        private void putString(String value) throws IOException {
+            Integer index = strings.get(value);
+            if (index != null) {
+                putVarLong(index + 1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putVarLong(0);
+            putVarLong(bytes.length);
+            for (int offset = 0; offset < bytes.length; ) {
+                ensure(1);
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+            if (strings.size() < STRING_TABLE_LIMIT) {
+                strings.put(value, stringCount);
+            }
+            stringCount++;
+        }
+
+        //writes the checksum of everything so far after it
+        private void finish() throws IOException {
+            flush();
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            writeFully();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            writeFully();
+        }
+
+        private void writeFully() throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    private static final class Input {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).flip();
+        private final CRC32 crc = new CRC32();
+        //start of the bytes that were read but are not in the checksum yet
+        private int unchecked = 0;
+        private final List<String> strings = new ArrayList<>();
+
+        private Input(ReadableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        private int getInt() throws IOException {
+            ensure(4);
+            return buffer.getInt();
+        }
+
+        private long getVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                ensure(1);
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Task list dump has an invalid varint");
+        }
+
+        private int getCount() throws IOException {
+            long count = getVarLong();
+            if (count > Integer.MAX_VALUE - 8) {
+                throw new IOException("Task list dump has an invalid count of " + count);
+            }
+            return (int) count;
+        }
+
+        private String getString() throws IOException {
+            long reference = getVarLong();
+            if (reference > 0) {
+                if (reference > strings.size()) {
+                    throw new IOException("Task list dump refers to string " + reference + " of " + strings.size());
+                }
+                return strings.get((int) reference - 1);
+            }
+            long length = getVarLong();
+            if (length > MAX_STRING_LENGTH) {
+                throw new IOException("Task list dump has a string of " + length + " bytes");
+            }
+            byte[] bytes = new byte[(int) length];
+            for (int offset = 0; offset < bytes.length; ) {
+                ensure(1);
+                int read = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.get(bytes, offset, read);
+                offset += read;
+            }
+            String value = new String(bytes, StandardCharsets.UTF_8);
+            if (strings.size() < STRING_TABLE_LIMIT) {
+                strings.add(value);
+            }
+            return value;
+        }
+
+        //checksum of everything read so far
+        private int checksum() {
+            updateChecksum();
+            return (int) crc.getValue();
+        }
+
+        private void updateChecksum() {
+            crc.update(buffer.duplicate().limit(buffer.position()).position(unchecked));
+            unchecked = buffer.position();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            updateChecksum();
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("Task list dump ends unexpectedly");
+                }
+            }
+            buffer.flip();
+            unchecked = 0;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.ortecfinance.tasklist;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+
+//One change as sent by the ChangeFeed. Only the fields of the event's type are set:
+//project-created: project; task-created: project, taskId, description;
+//done-changed: project, taskId, done; deadline-changed: project, taskId, deadline (null when removed).
+//reset and overflow carry no change: reset tells a reconnecting subscriber that events it missed are no
+//longer kept, overflow that it was dropped for falling too far behind. Both mean: reload and subscribe again.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TaskEvent(long sequence, String type, String project, Long taskId, String description,
+                        Boolean done, LocalDate deadline) {
+    public static final String PROJECT_CREATED = "project-created";
+    public static final String TASK_CREATED = "task-created";
+    public static final String DONE_CHANGED = "done-changed";
+    public static final String DEADLINE_CHANGED = "deadline-changed";
+    public static final String RESET = "reset";
+    public static final String OVERFLOW = "overflow";
+
+    static TaskEvent of(long sequence, LogRecord change, String project) {
+        return switch (change) {
+            case LogRecord.AddProject r -> new TaskEvent(sequence, PROJECT_CREATED, r.name(), null, null, null, null);
+            case LogRecord.AddTask r -> new TaskEvent(sequence, TASK_CREATED, project, r.id(), r.description(), null, null);
+            case LogRecord.MarkTask r -> new TaskEvent(sequence, DONE_CHANGED, project, r.id(), null, r.done(), null);
+            case LogRecord.SetDeadline r -> new TaskEvent(sequence, DEADLINE_CHANGED, project, r.id(), null, null, r.deadline());
+        };
+    }
+}
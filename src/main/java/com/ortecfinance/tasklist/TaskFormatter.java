@@ -1,5 +1,7 @@
 package com.ortecfinance.tasklist;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -10,96 +12,204 @@ public class TaskFormatter {
 
     //Returns date back to string format
     public static String formatDate(LocalDate date) {
-        return String.format("%02d-%02d-%04d",
-                date.getDayOfMonth(),
-                date.getMonthValue(),
-                date.getYear());
+        return format(out -> writeDate(out, date));
     }
 
     //returns task as correct display format
     public static String formatTask(Task task) {
-        return String.format("    [%c] %d: %s",
-                (task.isDone() ? 'x' : ' '),
-                task.getId(),
-                task.getDescription());
+        return format(out -> writeTask(out, task));
     }
 
     public static String formatAllProjects(Map<String, List<Task>> projects) {
-        StringBuilder result = new StringBuilder();
+        return format(out -> writeAllProjects(out, projects));
+    }
+
+    public static String formatTasksByDeadline(Map<LocalDate, Map<String, List<Task>>> tasksByDeadline) {
+        return format(out -> writeTasksByDeadline(out, tasksByDeadline));
+    }
+
+    public static String formatTodaysTasks(TodaysTasks todaysTasks) {
+        return format(out -> writeTodaysTasks(out, todaysTasks));
+    }
+
+    public static String formatSearchResults(List<TaskSearch.Hit> hits) {
+        return format(out -> writeSearchResults(out, hits));
+    }
+
+    public static String formatProjectStats(Map<String, ProjectStats> stats) {
+        return format(out -> writeProjectStats(out, stats));
+    }
+
+    //The write methods produce exactly the same output as the format methods above, but straight into
+    //the sink (the console's PrintWriter), without building a String per task or for the whole output.
+
+    public static void writeAllProjects(Appendable out, Map<String, List<Task>> projects) throws IOException {
         for (Map.Entry<String, List<Task>> project : projects.entrySet()) {
-            result.append(project.getKey()).append(LINE_SEP);
+            out.append(project.getKey()).append(LINE_SEP);
             for (Task task : project.getValue()) {
-                result.append(formatTask(task)).append(LINE_SEP);
+                writeTask(out, task);
+                out.append(LINE_SEP);
             }
-            result.append(LINE_SEP);
+            out.append(LINE_SEP);
         }
-        return result.toString();
     }
 
-    private static String formatProjectsWithIndent(Map<String, List<Task>> projects) {
-        StringBuilder result = new StringBuilder();
+    public static void writeTasksByDeadline(Appendable out, Map<LocalDate, Map<String, List<Task>>> tasksByDeadline)
+            throws IOException {
+        for (Map.Entry<LocalDate, Map<String, List<Task>>> deadlineEntry : tasksByDeadline.entrySet()) {
+            //Check if we are in the no deadline section
+            if (deadlineEntry.getKey() == null) {
+                out.append("No deadline:").append(LINE_SEP);
+            } else {
+                //add deadline at top then format the projects with this deadline
+                writeDate(out, deadlineEntry.getKey());
+                out.append(':').append(LINE_SEP);
+            }
+            writeProjectsWithIndent(out, deadlineEntry.getValue());
+            out.append(LINE_SEP);
+        }
+    }
+
+    public static void writeTodaysTasks(Appendable out, TodaysTasks todaysTasks) throws IOException {
+        //add the date the tasks are due on at top, asking the clock again could give the next day
+        writeDate(out, todaysTasks.date());
+        out.append(LINE_SEP);
+        //loop through projects with tasks that have a deadline for today, same layout as show
+        writeAllProjects(out, todaysTasks.projects());
+    }
+
+    //best match first, every task followed by its project:
+    //    [x] 12: description (project)
+    public static void writeSearchResults(Appendable out, List<TaskSearch.Hit> hits) throws IOException {
+        if (hits.isEmpty()) {
+            out.append("No tasks found.").append(LINE_SEP);
+        }
+        for (TaskSearch.Hit hit : hits) {
+            writeTask(out, hit.task());
+            out.append(" (").append(hit.project()).append(')').append(LINE_SEP);
+        }
+        out.append(LINE_SEP);
+    }
+
+    //one line per project:
+    //project: 3 open, 2 done, 1 overdue, 0 due today
+    public static void writeProjectStats(Appendable out, Map<String, ProjectStats> stats) throws IOException {
+        for (Map.Entry<String, ProjectStats> project : stats.entrySet()) {
+            ProjectStats counts = project.getValue();
+            out.append(project.getKey()).append(": ");
+            writeNumber(out, counts.open());
+            out.append(" open, ");
+            writeNumber(out, counts.done());
+            out.append(" done, ");
+            writeNumber(out, counts.overdue());
+            out.append(" overdue, ");
+            writeNumber(out, counts.dueToday());
+            out.append(" due today").append(LINE_SEP);
+        }
+        out.append(LINE_SEP);
+    }
+
+    //    [x] 12: description
+    public static void writeTask(Appendable out, Task task) throws IOException {
+        out.append("    [").append(task.isDone() ? 'x' : ' ').append("] ");
+        writeNumber(out, task.getId());
+        out.append(": ");
+        task.appendDescriptionTo(out);
+    }
+
+    //dd-mm-yyyy
+    public static void writeDate(Appendable out, LocalDate date) throws IOException {
+        writeTwoDigits(out, date.getDayOfMonth());
+        out.append('-');
+        writeTwoDigits(out, date.getMonthValue());
+        out.append('-');
+        int year = date.getYear();
+        if (year >= 0 && year <= 9999) {
+            writeTwoDigits(out, year / 100);
+            writeTwoDigits(out, year % 100);
+        } else {
+            //rare enough to leave the sign and padding rules to String.format
+            out.append(String.format("%04d", year));
+        }
+    }
+
+    private static void writeProjectsWithIndent(Appendable out, Map<String, List<Task>> projects) throws IOException {
         //loop through projects
         for (Map.Entry<String, List<Task>> projectEntry : projects.entrySet()) {
             //add projects name with two spaces and a :
-            result.append("  ").append(projectEntry.getKey()).append(":").append(LINE_SEP);
+            out.append("  ").append(projectEntry.getKey()).append(':').append(LINE_SEP);
 
             //add each task
             for (Task task : projectEntry.getValue()) {
-                result.append(formatTask(task)).append(LINE_SEP);
+                writeTask(out, task);
+                out.append(LINE_SEP);
             }
         }
-        return result.toString();
     }
 
-    public static String formatTasksByDeadline(Map<LocalDate, Map<String, List<Task>>> tasksByDeadline) {
-        StringBuilder result = new StringBuilder();
+    private static void writeTwoDigits(Appendable out, int value) throws IOException {
+        out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
 
-        for (Map.Entry<LocalDate, Map<String, List<Task>>> deadlineEntry : tasksByDeadline.entrySet()) {
-            //Check if we are in the no deadline section
-            if (deadlineEntry.getKey() == null) {
-                result.append("No deadline:").append(LINE_SEP);
-                result.append(formatProjectsWithIndent(deadlineEntry.getValue()));
-            } else {
-                //add deadline at top then format the projects with this deadline
-                result.append(formatDate(deadlineEntry.getKey())).append(":").append(LINE_SEP);
-                result.append(formatProjectsWithIndent(deadlineEntry.getValue()));
+    //same digits as Long.toString, one char at a time so nothing is allocated
+    private static void writeNumber(Appendable out, long value) throws IOException {
+        if (out instanceof StringBuilder builder) {
+            builder.append(value);
+            return;
+        }
+        if (out instanceof BufferedAppendable buffered && value >= 0) {
+            buffered.appendNumber(value);
+            return;
+        }
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                out.append(Long.toString(value));
+                return;
             }
-            result.append(LINE_SEP);
+            out.append('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
         }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + (value / divisor) % 10));
+        }
+    }
 
-        return result.toString();
+    @FunctionalInterface
+    public interface Output {
+        void writeTo(Appendable out) throws IOException;
     }
 
-    public static String formatTodaysTasks(Map<String, List<Task>> projects) {
+    private static String format(Output output) {
         StringBuilder result = new StringBuilder();
-        //add todays date at top
-        result.append(formatDate(LocalDate.now())).append(LINE_SEP);
-        //loop through projects with tasks that have a deadline for today
-        for (Map.Entry<String, List<Task>> project : projects.entrySet()) {
-            //project name added
-            result.append(project.getKey()).append(LINE_SEP);
-            for (Task task : project.getValue()) {
-                //add the task from this project
-                result.append(formatTask(task)).append(LINE_SEP);
-            }
-            //empty line after every project
-            result.append(LINE_SEP);
+        try {
+            output.writeTo(result);
+        } catch (IOException e) {
+            //a StringBuilder never throws
+            throw new UncheckedIOException(e);
         }
         return result.toString();
-
     }
 
     //Help menu display
     public static String formatHelp() {
         return "Commands:" + LINE_SEP +
-                "  show" + LINE_SEP +
+                "  show [<project name>]" + LINE_SEP +
                 "  today" + LINE_SEP +
                 "  view-by-deadline" + LINE_SEP +
+                "  due <from date> <to date>" + LINE_SEP +
                 "  add project <project name>" + LINE_SEP +
                 "  add task <project name> <task description>" + LINE_SEP +
                 "  check <task ID>" + LINE_SEP +
                 "  uncheck <task ID>" + LINE_SEP +
                 "  deadline <task ID> <date>" + LINE_SEP +
+                "  search <words> [project:<project name>] [done:true|false] [due:<date>]" + LINE_SEP +
+                "  stats" + LINE_SEP +
+                "  export <file>" + LINE_SEP +
+                "  import <file>" + LINE_SEP +
                 "  quit" + LINE_SEP + LINE_SEP;
     }
 
@@ -0,0 +1,97 @@
+package com.ortecfinance.tasklist;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.ortecfinance.tasklist.TaskFormatter.formatDate;
+
+//Writes the read endpoints straight to a JsonGenerator while walking the storage, producing the
+//same JSON Jackson would for the equivalent maps without ever building those maps.
+final class TaskJsonWriter {
+    //tasks grouped per chunk of a DeadlineView, so the maps built while streaming stay small
+    static final int DEADLINE_CHUNK = 1024;
+
+    private TaskJsonWriter() {
+    }
+
+    //project name -> tasks, in the order of the given entries
+    static void writeProjects(JsonGenerator json, Iterable<Map.Entry<String, List<Task>>> projects) throws IOException {
+        json.writeStartObject();
+        for (Map.Entry<String, List<Task>> project : projects) {
+            json.writeArrayFieldStart(project.getKey());
+            for (Task task : project.getValue()) {
+                writeTask(json, task);
+            }
+            json.writeEndArray();
+        }
+        json.writeEndObject();
+    }
+
+    //Formatted deadline -> project name -> tasks of the view, walked in chunks. A deadline or project
+    //split over two chunks is written as one JSON object.
+    static void writeByDeadline(JsonGenerator json, DeadlineView view) throws IOException {
+        writeByDeadline(json, view, DEADLINE_CHUNK);
+    }
+
+    static void writeByDeadline(JsonGenerator json, DeadlineView view, int chunkSize) throws IOException {
+        json.writeStartObject();
+        boolean deadlineOpen = false;
+        LocalDate openDeadline = null;
+        String openProject = null;
+        for (Iterator<Map<LocalDate, Map<String, List<Task>>>> chunks = view.chunks(chunkSize); chunks.hasNext(); ) {
+            for (Map.Entry<LocalDate, Map<String, List<Task>>> deadline : chunks.next().entrySet()) {
+                if (!deadlineOpen || !Objects.equals(deadline.getKey(), openDeadline)) {
+                    if (openProject != null) {
+                        json.writeEndArray();
+                        openProject = null;
+                    }
+                    if (deadlineOpen) {
+                        json.writeEndObject();
+                    }
+                    json.writeObjectFieldStart(deadline.getKey() != null ? formatDate(deadline.getKey()) : "No deadline");
+                    deadlineOpen = true;
+                    openDeadline = deadline.getKey();
+                }
+                for (Map.Entry<String, List<Task>> project : deadline.getValue().entrySet()) {
+                    if (!project.getKey().equals(openProject)) {
+                        if (openProject != null) {
+                            json.writeEndArray();
+                        }
+                        json.writeArrayFieldStart(project.getKey());
+                        openProject = project.getKey();
+                    }
+                    for (Task task : project.getValue()) {
+                        writeTask(json, task);
+                    }
+                }
+            }
+        }
+        if (openProject != null) {
+            json.writeEndArray();
+        }
+        if (deadlineOpen) {
+            json.writeEndObject();
+        }
+        json.writeEndObject();
+    }
+
+    //same fields and order as Jackson uses for Task
+    static void writeTask(JsonGenerator json, Task task) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", task.getId());
+        json.writeStringField("description", task.getDescription());
+        json.writeBooleanField("done", task.isDone());
+        if (task.getDeadline() != null) {
+            json.writeStringField("deadline", task.getDeadline().toString());
+        } else {
+            json.writeNullField("deadline");
+        }
+        json.writeEndObject();
+    }
+}
@@ -3,44 +3,98 @@ package com.ortecfinance.tasklist;
 import org.springframework.boot.SpringApplication;
 import org.springframework.context.ConfigurableApplicationContext;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 
 public final class TaskList implements Runnable {
     private static final String QUIT = "quit";
+    //output is only flushed when this much is buffered, or at the end, in batch mode
+    private static final int BATCH_BUFFER_SIZE = 1 << 16;
 
     private final TaskService taskService;
+    private final TaskMetrics metrics;
     private final ConfigurableApplicationContext context;
     private final BufferedReader in;
     private final PrintWriter out;
+    private final BufferedAppendable formatted;
+    //no welcome message and prompts, and no flush after every command
+    private final boolean batch;
+    private long executedCommands;
 
     public static void startConsole(TaskService ts, ConfigurableApplicationContext context) {
         BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
         PrintWriter out = new PrintWriter(System.out);
 
-        new TaskList(in, out, ts, context).run();
+        new TaskList(in, out, ts, metricsOf(context), context, false).run();
+    }
+
+    //Runs every command of the file (or stdin when commandFile is null) until the end or a quit,
+    //then reports the throughput on stderr so it does not end up in the piped output, and exits.
+    public static void startBatch(TaskService ts, Path commandFile, ConfigurableApplicationContext context) throws IOException {
+        BufferedReader in = commandFile != null
+                ? Files.newBufferedReader(commandFile)
+                : new BufferedReader(new InputStreamReader(System.in), BATCH_BUFFER_SIZE);
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), BATCH_BUFFER_SIZE), false);
+
+        TaskList taskList = new TaskList(in, out, ts, metricsOf(context), context, true);
+        long start = System.nanoTime();
+        try (in) {
+            taskList.run();
+        }
+        //the changes are only logged without waiting for the disk while running, so the throughput
+        //includes waiting for all of them once
+        ts.sync();
+        long elapsedNanos = System.nanoTime() - start;
+        System.err.printf(Locale.ROOT, "Executed %d commands in %d ms (%.0f commands/sec)%n",
+                taskList.executedCommands(), elapsedNanos / 1_000_000,
+                taskList.executedCommands() / Math.max(elapsedNanos / 1e9, 1e-9));
+        if (context != null) {
+            SpringApplication.exit(context, () -> 0);
+        }
     }
 
     public TaskList(BufferedReader reader, PrintWriter writer, TaskService taskService, ConfigurableApplicationContext context) {
+        this(reader, writer, taskService, context, false);
+    }
+
+    public TaskList(BufferedReader reader, PrintWriter writer, TaskService taskService,
+                    ConfigurableApplicationContext context, boolean batch) {
+        this(reader, writer, taskService, TaskMetrics.NONE, context, batch);
+    }
+
+    public TaskList(BufferedReader reader, PrintWriter writer, TaskService taskService, TaskMetrics metrics,
+                    ConfigurableApplicationContext context, boolean batch) {
         this.in = reader;
         this.out = writer;
+        this.formatted = new BufferedAppendable(writer);
         this.taskService = taskService;
+        this.metrics = metrics;
         this.context = context;
+        this.batch = batch;
+    }
+
+    private static TaskMetrics metricsOf(ConfigurableApplicationContext context) {
+        return context != null ? context.getBean(TaskMetrics.class) : TaskMetrics.NONE;
     }
 
     public void run() {
+        if (batch) {
+            runBatch();
+            return;
+        }
         out.println("Welcome to TaskList! Type 'help' for available commands.");
         while (true) {
             out.print("> ");
             out.flush();
-            String command;
-            try {
-                command = in.readLine();
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+            String command = readLine();
+            if (command == null) {
+                //stdin was closed, stop the console but keep the REST API running
+                break;
             }
             if (command.equals(QUIT)) {
                 //no context if we are in a unit test
@@ -53,16 +107,60 @@ public final class TaskList implements Runnable {
         }
     }
 
-    private void handleShow() {
-        out.print(TaskFormatter.formatAllProjects(taskService.getAllProjects()));
+    public long executedCommands() {
+        return executedCommands;
+    }
+
+    private void runBatch() {
+        String command;
+        while ((command = readLine()) != null && !command.equals(QUIT)) {
+            execute(command);
+            executedCommands++;
+        }
+        out.flush();
+    }
+
+    private String readLine() {
+        try {
+            return in.readLine();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void handleShow(CommandParser.ShowCommand command) {
+        if (command.projectName == null) {
+            print(out -> TaskFormatter.writeAllProjects(out, taskService.getAllProjects()));
+            return;
+        }
+        List<Task> tasks = taskService.getProject(command.projectName);
+        if (tasks == null) {
+            out.println("Could not find a project with the name \"" + command.projectName + "\".");
+            out.println();
+            return;
+        }
+        print(out -> TaskFormatter.writeAllProjects(out, Map.of(command.projectName, tasks)));
     }
 
     private void handleToday() {
-        out.print(TaskFormatter.formatTodaysTasks(taskService.getTasksTodaysDeadline()));
+        print(out -> TaskFormatter.writeTodaysTasks(out, taskService.getTodaysTasks()));
     }
 
     private void handleViewByDeadline() {
-        out.print(TaskFormatter.formatTasksByDeadline(taskService.getTasksSortedByDeadline()));
+        print(out -> TaskFormatter.writeTasksByDeadline(out, taskService.getTasksSortedByDeadline()));
+    }
+
+    private void handleDue(CommandParser.DueCommand command) {
+        print(out -> TaskFormatter.writeTasksByDeadline(out, taskService.getTasksWithDeadlineBetween(command.from, command.to)));
+    }
+
+    private void handleSearch(CommandParser.SearchCommand command) {
+        print(out -> TaskFormatter.writeSearchResults(out,
+                taskService.searchTasks(command.query, command.filter, Integer.MAX_VALUE)));
+    }
+
+    private void handleStats() {
+        print(out -> TaskFormatter.writeProjectStats(out, taskService.getProjectStats()));
     }
 
     private void handleHelp() {
@@ -73,7 +171,11 @@ public final class TaskList implements Runnable {
         try {
             taskService.createProject(command.projectName);
         } catch (IllegalArgumentException e) {
-            out.println("A project with the name of " + command.projectName + " already exists.");
+            if (TaskService.isReservedProjectName(command.projectName)) {
+                out.println("A project cannot be called " + command.projectName + ", that name is used by the REST API.");
+            } else {
+                out.println("A project with the name of " + command.projectName + " already exists.");
+            }
             out.println();
         }
     }
@@ -105,6 +207,29 @@ public final class TaskList implements Runnable {
         }
     }
 
+    private void handleExport(CommandParser.ExportCommand command) {
+        try (FileChannel channel = FileChannel.open(Path.of(command.path),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            TaskDump.Summary summary = taskService.exportTasks(channel);
+            out.println("Exported " + summary.projects() + " projects and " + summary.tasks() + " tasks to "
+                    + command.path + ".");
+        } catch (IOException | InvalidPathException e) {
+            out.println("Could not export to " + command.path + ": " + e.getMessage());
+        }
+        out.println();
+    }
+
+    private void handleImport(CommandParser.ImportCommand command) {
+        try {
+            TaskDump.Summary summary = taskService.importTasks(Path.of(command.path));
+            out.println("Imported " + summary.projects() + " projects and " + summary.tasks() + " tasks from "
+                    + command.path + ".");
+        } catch (IOException | InvalidPathException e) {
+            out.println("Could not import " + command.path + ": " + e.getMessage());
+        }
+        out.println();
+    }
+
     private void handleError(CommandParser.ErrorCommand command) {
         out.println(command.message);
     }
@@ -114,14 +239,49 @@ public final class TaskList implements Runnable {
         out.println();
     }
 
+    //formatter output goes straight into the console writer, no String of the whole output is built
+    private void print(TaskFormatter.Output output) {
+        try {
+            output.writeTo(formatted);
+            formatted.writeBuffered();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //Runs a single parsed command and returns what it printed, used to run commands outside the console
+    static String execute(TaskService taskService, TaskMetrics metrics, CommandParser.Command command) {
+        StringWriter output = new StringWriter();
+        new TaskList(null, new PrintWriter(output), taskService, metrics, null, false).execute(command);
+        return output.toString();
+    }
+
     private void execute(String commandLine) {
-        CommandParser.Command command = CommandParser.parse(commandLine);
+        execute(CommandParser.parse(commandLine));
+    }
+
+    private void execute(CommandParser.Command command) {
+        long start = System.nanoTime();
+        try {
+            dispatch(command);
+        } finally {
+            metrics.recordCommand(command, System.nanoTime() - start);
+        }
+    }
+
+    private void dispatch(CommandParser.Command command) {
         if (command instanceof CommandParser.ShowCommand) {
-            handleShow();
+            handleShow((CommandParser.ShowCommand) command);
         } else if (command instanceof CommandParser.TodayCommand) {
             handleToday();
         } else if (command instanceof CommandParser.ViewByDeadlineCommand) {
             handleViewByDeadline();
+        } else if (command instanceof CommandParser.DueCommand) {
+            handleDue((CommandParser.DueCommand) command);
+        } else if (command instanceof CommandParser.SearchCommand) {
+            handleSearch((CommandParser.SearchCommand) command);
+        } else if (command instanceof CommandParser.StatsCommand) {
+            handleStats();
         } else if (command instanceof CommandParser.HelpCommand) {
             handleHelp();
         } else if (command instanceof CommandParser.AddProjectCommand) {
@@ -132,6 +292,10 @@ public final class TaskList implements Runnable {
             handleCheck((CommandParser.CheckCommand) command);
         } else if (command instanceof CommandParser.DeadlineCommand) {
             handleDeadline((CommandParser.DeadlineCommand) command);
+        } else if (command instanceof CommandParser.ExportCommand) {
+            handleExport((CommandParser.ExportCommand) command);
+        } else if (command instanceof CommandParser.ImportCommand) {
+            handleImport((CommandParser.ImportCommand) command);
         } else if (command instanceof CommandParser.ErrorCommand) {
             handleError((CommandParser.ErrorCommand) command);
         } else if (command instanceof CommandParser.UnknownCommand) {
@@ -1,13 +1,37 @@
 package com.ortecfinance.tasklist;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.Banner;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.context.annotation.Bean;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+
 @SpringBootApplication
 public class TaskListApplication {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        //--batch runs the commands piped to stdin, --batch=<file> the commands in that file
+        Optional<String> batch = Arrays.stream(args)
+                .filter(arg -> arg.equals("--batch") || arg.startsWith("--batch="))
+                .findFirst();
+        if (batch.isPresent()) {
+            runBatch(batch.get(), args);
+            return;
+        }
+
         var context = SpringApplication.run(TaskListApplication.class, args);
 
         TaskService sharedService = context.getBean(TaskService.class);
@@ -20,14 +44,103 @@ public class TaskListApplication {
         System.out.println("REST API running at http://localhost:8080/projects");
     }
 
+    //Batch mode only needs the storage, so no web server and nothing but the command output on stdout.
+    //Unless given otherwise on the command line the write-ahead log is async: the commands run on one
+    //thread, so waiting for an fsync per change (batched) would make every command wait for the disk.
+    //TaskList.startBatch waits for all changes to be on disk once at the end instead. Reminders are not
+    //logged, they would end up between the throughput report on stderr.
+    private static void runBatch(String batchArgument, String[] args) throws IOException {
+        String[] batchArgs = withDefault(withDefault(args, "tasklist.wal.durability", "async"),
+                "tasklist.reminders.log", "false");
+        var context = new SpringApplicationBuilder(TaskListApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .properties("logging.level.root=warn")
+                .run(batchArgs);
+        String commandFile = batchArgument.startsWith("--batch=") ? batchArgument.substring("--batch=".length()) : "";
+        TaskList.startBatch(context.getBean(TaskService.class),
+                commandFile.isEmpty() ? null : Path.of(commandFile), context);
+    }
+
+    //adds --property=value unless the property is already given, command line arguments override
+    //application.properties
+    private static String[] withDefault(String[] args, String property, String value) {
+        if (Arrays.stream(args).anyMatch(arg -> arg.startsWith("--" + property + "="))) {
+            return args;
+        }
+        String[] result = Arrays.copyOf(args, args.length + 1);
+        result[args.length] = "--" + property + "=" + value;
+        return result;
+    }
+
+    //What today is for the today view, the stats and the reminders, can be replaced by a fixed clock in tests
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+
+    //TaskStorage is closed together with the context, which writes a last snapshot and flushes the write-ahead log
+    @Bean
+    public TaskStorage taskStorage(Clock clock,
+                                   @Value("${tasklist.wal.enabled:false}") boolean walEnabled,
+                                   @Value("${tasklist.wal.path:data/tasklist.wal}") String walPath,
+                                   @Value("${tasklist.wal.durability:batched}") String durability,
+                                   @Value("${tasklist.wal.flush-interval-ms:1000}") long flushIntervalMillis,
+                                   @Value("${tasklist.snapshot.path:}") String snapshotPath,
+                                   @Value("${tasklist.snapshot.interval-seconds:300}") long snapshotIntervalSeconds) throws IOException {
+        if (!walEnabled) {
+            return new TaskStorage(clock);
+        }
+        WriteAheadLog log = WriteAheadLog.open(Path.of(walPath),
+                WriteAheadLog.Durability.valueOf(durability.toUpperCase(Locale.ROOT)), flushIntervalMillis);
+        if (snapshotPath.isBlank()) {
+            return new TaskStorage(log, null, clock);
+        }
+        TaskStorage taskStorage = new TaskStorage(log, Path.of(snapshotPath), clock);
+        taskStorage.startPeriodicCheckpoints(Duration.ofSeconds(snapshotIntervalSeconds));
+        return taskStorage;
+    }
+
+    //closed together with the context, which ends the open event streams
+    @Bean
+    public ChangeFeed changeFeed() {
+        return new ChangeFeed();
+    }
+
+    @Bean
+    public TaskService taskService(TaskStorage taskStorage, ChangeFeed changeFeed) {
+        return new TaskService(taskStorage, changeFeed);
+    }
+
+    //reminders for consumers in this process
+    @Bean
+    public ReminderListeners.Queue reminderQueue() {
+        return new ReminderListeners.Queue(1024);
+    }
+
+    //closed together with the context, which stops the midnight ticks
     @Bean
-    public TaskStorage taskStorage() {
-        return new TaskStorage();
+    public DeadlineReminders deadlineReminders(TaskStorage taskStorage, Clock clock,
+                                               ReminderListeners.Queue reminderQueue, ObjectMapper objectMapper,
+                                               @Value("${tasklist.reminders.log:true}") boolean log,
+                                               @Value("${tasklist.reminders.webhook-url:}") String webhookUrl) {
+        DeadlineReminders reminders = new DeadlineReminders(clock);
+        reminders.addListener(reminderQueue);
+        if (log) {
+            reminders.addListener(ReminderListeners.logging(System.err));
+        }
+        if (!webhookUrl.isBlank()) {
+            reminders.addListener(new ReminderListeners.Webhook(URI.create(webhookUrl), objectMapper));
+        }
+        reminders.follow(taskStorage);
+        reminders.start();
+        return reminders;
     }
 
     @Bean
-    public TaskService taskService(TaskStorage taskStorage) {
-        return new TaskService(taskStorage);
+    public TaskMetrics taskMetrics(MeterRegistry registry, TaskStorage taskStorage) {
+        return new TaskMetrics(registry, taskStorage);
     }
 
 }
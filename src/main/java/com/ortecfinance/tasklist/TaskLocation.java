@@ -0,0 +1,16 @@
+package com.ortecfinance.tasklist;
+
+//Where a task lives in the storage: its project and its position in that project's list.
+//Projects and tasks are never removed, so a location stays valid for the lifetime of the task.
+//Ordered the same way the projects list them: project insertion order first, then task id.
+record TaskLocation(String project, int projectOrdinal, int position, long id) implements Comparable<TaskLocation> {
+
+    @Override
+    public int compareTo(TaskLocation other) {
+        int byProject = Integer.compare(projectOrdinal, other.projectOrdinal);
+        if (byProject != 0) {
+            return byProject;
+        }
+        return Long.compare(id, other.id);
+    }
+}
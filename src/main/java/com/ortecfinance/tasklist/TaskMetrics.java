@@ -0,0 +1,81 @@
+package com.ortecfinance.tasklist;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//Micrometer meters for the console commands and the storage. The REST endpoints are timed by
+//Spring Boot itself (http.server.requests). Command timers are created up front, so timing a
+//command is a map lookup and a Timer.record, and the storage gauges and counters are only read
+//when the registry is scraped.
+public final class TaskMetrics {
+    //used by the console in tests and wherever no registry is available, records nothing
+    public static final TaskMetrics NONE = new TaskMetrics();
+
+    private final Map<Class<?>, Timer> commandTimers = new HashMap<>();
+
+    private TaskMetrics() {
+    }
+
+    public TaskMetrics(MeterRegistry registry, TaskStorage taskStorage) {
+        commandTimer(registry, CommandParser.ShowCommand.class, "show");
+        commandTimer(registry, CommandParser.TodayCommand.class, "today");
+        commandTimer(registry, CommandParser.ViewByDeadlineCommand.class, "view-by-deadline");
+        commandTimer(registry, CommandParser.DueCommand.class, "due");
+        commandTimer(registry, CommandParser.SearchCommand.class, "search");
+        commandTimer(registry, CommandParser.StatsCommand.class, "stats");
+        commandTimer(registry, CommandParser.HelpCommand.class, "help");
+        commandTimer(registry, CommandParser.ExportCommand.class, "export");
+        commandTimer(registry, CommandParser.ImportCommand.class, "import");
+        commandTimer(registry, CommandParser.AddProjectCommand.class, "add-project");
+        commandTimer(registry, CommandParser.AddTaskCommand.class, "add-task");
+        commandTimer(registry, CommandParser.CheckCommand.class, "check");
+        commandTimer(registry, CommandParser.DeadlineCommand.class, "deadline");
+        commandTimer(registry, CommandParser.ErrorCommand.class, "error");
+        commandTimer(registry, CommandParser.UnknownCommand.class, "unknown");
+
+        Gauge.builder("tasklist.projects", taskStorage, TaskStorage::projectCount)
+                .description("Number of projects")
+                .register(registry);
+        Gauge.builder("tasklist.tasks", taskStorage, TaskStorage::taskCount)
+                .description("Number of tasks")
+                .register(registry);
+        Gauge.builder("tasklist.tasks.with.deadline", taskStorage, TaskStorage::tasksWithDeadlineCount)
+                .description("Number of tasks with a deadline")
+                .register(registry);
+        FunctionCounter.builder("tasklist.lookups.failed", taskStorage, TaskStorage::failedProjectLookups)
+                .description("Lookups of a project or task that does not exist")
+                .tag("kind", "project")
+                .register(registry);
+        FunctionCounter.builder("tasklist.lookups.failed", taskStorage, TaskStorage::failedTaskLookups)
+                .description("Lookups of a project or task that does not exist")
+                .tag("kind", "task")
+                .register(registry);
+    }
+
+    void recordCommand(CommandParser.Command command, long nanos) {
+        Timer timer = commandTimers.get(command.getClass());
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void commandTimer(MeterRegistry registry, Class<? extends CommandParser.Command> type, String name) {
+        commandTimers.put(type, Timer.builder("tasklist.commands")
+                .description("Execution time of console commands")
+                .tag("command", name)
+                //p50/p99/p999 are computed from the buckets by Prometheus (histogram_quantile),
+                //which is cheaper to record than client side percentiles
+                .publishPercentileHistogram()
+                //most commands take microseconds, the default histogram starts at a millisecond
+                .minimumExpectedValue(Duration.ofNanos(1_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry));
+    }
+}
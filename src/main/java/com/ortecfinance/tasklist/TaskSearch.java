@@ -0,0 +1,19 @@
+package com.ortecfinance.tasklist;
+
+import java.time.LocalDate;
+
+//Filter and results of TaskStorage.search
+public final class TaskSearch {
+
+    private TaskSearch() {
+    }
+
+    //only tasks of the project, with the done state and with a deadline on or before dueBy; null matches all
+    public record Filter(String project, Boolean done, LocalDate dueBy) {
+        public static final Filter NONE = new Filter(null, null, null);
+    }
+
+    //matches is the number of distinct search terms found in the task's description
+    public record Hit(String project, Task task, int matches) {
+    }
+}
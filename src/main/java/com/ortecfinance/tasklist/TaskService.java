@@ -1,5 +1,12 @@
 package com.ortecfinance.tasklist;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -7,36 +14,86 @@ import java.util.Map;
 public class TaskService {
     private final TaskStorage taskStorage;
 
+    //Input the service refuses before it gets to the storage, the REST API answers it with 400
+    public static class InvalidInputException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        public InvalidInputException(String message) {
+            super(message);
+        }
+    }
+
     public TaskService(TaskStorage taskStorage) {
         this.taskStorage = taskStorage;
     }
 
+    //every change made through the storage is published to the feed
+    public TaskService(TaskStorage taskStorage, ChangeFeed changeFeed) {
+        this(taskStorage);
+        taskStorage.addChangeListener(changeFeed::publish, false);
+    }
+
     public void createProject(String projectName) {
+        if (projectName == null) {
+            throw new InvalidInputException("Every project needs a name");
+        }
+        if (isReservedProjectName(projectName)) {
+            throw new InvalidInputException("Project name is reserved: " + projectName);
+        }
         taskStorage.addProject(projectName);
     }
 
+    public static boolean isReservedProjectName(String projectName) {
+        return TaskStorage.isReservedProjectName(projectName);
+    }
+
     public boolean doesProjectExist(String projectName) {
         return taskStorage.projectExists(projectName);
     }
 
     public void createTask(String projectName, String taskDescription) {
+        //the storage, its log and its description arena have no place for a missing description
+        if (taskDescription == null) {
+            throw new InvalidInputException("Every task needs a description");
+        }
         taskStorage.addTask(projectName, taskDescription);
     }
 
+    public List<TaskBatch.ItemResult> createTasks(List<TaskBatch.NewTask> tasks) {
+        return taskStorage.addTasks(tasks);
+    }
+
+    public List<TaskBatch.ItemResult> updateTasks(List<TaskBatch.TaskUpdate> updates) {
+        return taskStorage.updateTasks(updates);
+    }
+
+    public List<Task> getProject(String projectName) {
+        return taskStorage.getProjectTasks(projectName);
+    }
+
+    public Task getTask(String projectName, long taskId) {
+        return taskStorage.returnTaskByID(projectName, taskId);
+    }
+
+    public String getProjectOfTask(long taskId) {
+        return taskStorage.projectOfTask(taskId);
+    }
+
     public void markTask(long taskId, boolean done) {
-        Task task = taskStorage.returnTaskByID(taskId);
-        if (task == null) {
-            throw new IllegalArgumentException("Could not find task " + taskId);
-        }
-        task.setDone(done);
+        taskStorage.markTask(taskId, done);
     }
 
     public void setTaskDeadline(long taskId, LocalDate deadline) {
-        Task task = taskStorage.returnTaskByID(taskId);
-        if (task == null) {
-            throw new IllegalArgumentException("Could not find task " + taskId);
-        }
-        task.setDeadline(deadline);
+        //goes through the storage so the deadline index stays in sync
+        taskStorage.setTaskDeadline(taskId, deadline);
+    }
+
+    public long getVersion() {
+        return taskStorage.version();
+    }
+
+    public long getProjectVersion(String projectName) {
+        return taskStorage.projectVersion(projectName);
     }
 
     public Map<String, List<Task>> getAllProjects() {
@@ -47,19 +104,68 @@ public class TaskService {
         return taskStorage.getTasksTodaysDeadline();
     }
 
+    public TodaysTasks getTodaysTasks() {
+        return taskStorage.getTodaysTasks();
+    }
+
     public Map<LocalDate, Map<String, List<Task>>> getTasksSortedByDeadline() {
         return taskStorage.getTasksSortedByDeadline();
     }
 
+    public Map<LocalDate, Map<String, List<Task>>> getTasksWithDeadlineBetween(LocalDate from, LocalDate to) {
+        return taskStorage.getTasksWithDeadlineBetween(from, to);
+    }
 
+    public Page<Map<String, List<Task>>> getProjectsPage(String cursor, int limit) {
+        return taskStorage.getProjectsPage(cursor, limit);
+    }
 
+    public Page<Map<LocalDate, Map<String, List<Task>>>> getTasksByDeadlinePage(String cursor, int limit) {
+        return taskStorage.getTasksByDeadlinePage(cursor, limit);
+    }
 
+    //from and to null for all tasks
+    DeadlineView getDeadlineView(LocalDate from, LocalDate to) {
+        return taskStorage.getDeadlineView(from, to);
+    }
 
+    public Map<String, ProjectStats> getProjectStats() {
+        return taskStorage.getProjectStats();
+    }
 
+    public List<TaskSearch.Hit> searchTasks(String query, TaskSearch.Filter filter, int limit) {
+        return taskStorage.search(query, filter, limit);
+    }
 
+    //waits until every change made so far is on disk
+    public void sync() {
+        taskStorage.sync();
+    }
 
+    //writes all projects and tasks as a TaskDump
+    public TaskDump.Summary exportTasks(WritableByteChannel channel) throws IOException {
+        return TaskDump.write(channel, taskStorage.getAllProjects());
+    }
 
+    //a broken dump changes nothing, see TaskStorage.importDump
+    public TaskDump.Summary importTasks(Path dump) throws IOException {
+        return taskStorage.importDump(dump);
+    }
 
-
-
+    //The dump is read twice, so one that does not come from a file is first copied to a temporary one
+    public TaskDump.Summary importTasks(ReadableByteChannel channel) throws IOException {
+        Path spool = Files.createTempFile("tasklist-import", ".dump");
+        try {
+            try (FileChannel out = FileChannel.open(spool, StandardOpenOption.WRITE)) {
+                long position = 0;
+                long copied;
+                while ((copied = out.transferFrom(channel, position, 1 << 20)) > 0) {
+                    position += copied;
+                }
+            }
+            return importTasks(spool);
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
 }
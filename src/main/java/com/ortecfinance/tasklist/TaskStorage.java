@@ -1,21 +1,163 @@
 package com.ortecfinance.tasklist;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
-public class TaskStorage {
-    private final Map<String, List<Task>> tasks = new LinkedHashMap<>();
+//Shared by the console thread and the REST request threads.
+//Writers take the write lock and publish a new immutable snapshot, so reading all projects
+//needs no lock and no copy. Lookups use optimistic reads and the deadline views take
+//the read lock so they can run in parallel with each other.
+//With a WriteAheadLog every mutation is logged before it is applied, and replayed on construction.
+//With a snapshot path as well, checkpoint() writes all data to a SnapshotFile so startup
+//loads that file and only replays the log records written after it.
+public class TaskStorage implements AutoCloseable {
+    //epoch day used in deadline cursors for the tasks without a deadline
+    private static final long NO_DEADLINE_CURSOR = Long.MIN_VALUE;
+    //tasks of a dump decoded, logged and applied at a time by importDump
+    private static final int IMPORT_CHUNK = 4096;
+    //how long close() waits for a running periodic checkpoint, the final one is serialized after it anyway
+    private static final Duration CHECKPOINT_SHUTDOWN_TIMEOUT = Duration.ofMinutes(1);
+    //single segment paths of the REST API under /projects that a project of that name would be hidden behind
+    private static final Set<String> RESERVED_PROJECT_NAMES =
+            Set.of("stats", "export", "search", "events", "due", "view_by_deadline");
+    private final StampedLock lock = new StampedLock();
+    private volatile StorageSnapshot snapshot = StorageSnapshot.empty();
+    //location of every task by its id, maintained by addTask
+    private final LongObjectMap<TaskLocation> tasksById = new LongObjectMap<>();
+    //location of every task by its deadline, maintained by addTask and setTaskDeadline
+    private final DeadlineIndex deadlineIndex = new DeadlineIndex();
+    //words of every task description, maintained by addTask
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final ProjectStatsIndex projectStats;
+    //decides what today is for the today view and the stats
+    private final Clock clock;
+    //the today view as last built, null after a change that affects it
+    private volatile TodaysTasks todaysTasks;
     private long lastId = 0;
+    //descriptions of all tasks, off-heap and stored once however many tasks share one
+    private final DescriptionArena descriptions = new DescriptionArena();
+    //null when the storage only lives in memory
+    private final WriteAheadLog log;
+    //null when no snapshots are written
+    private final Path snapshotPath;
+    private final Object checkpointMonitor = new Object();
+    //lookups of a project or task that does not exist, read by the metrics
+    private final LongAdder failedProjectLookups = new LongAdder();
+    private final LongAdder failedTaskLookups = new LongAdder();
+    private ScheduledExecutorService checkpointScheduler;
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    //Told about every change made through the storage, not about the replayed ones. Called while the
+    //write lock is held, so changes arrive in the order they were applied; a listener must not block
+    //and must not call back into the storage.
+    interface ChangeListener {
+        //project is the project that was added or the one the task belongs to
+        void changed(LogRecord change, String project);
+
+        //called before (true) and after (false) the current data is handed over, see addChangeListener
+        default void catchUp(boolean started) {
+        }
+    }
+
+    public TaskStorage() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public TaskStorage(Clock clock) {
+        this.log = null;
+        this.snapshotPath = null;
+        this.clock = clock;
+        this.projectStats = new ProjectStatsIndex(LocalDate.now(clock));
+    }
+
+    //Replays everything in the log and logs every mutation from then on
+    public TaskStorage(WriteAheadLog log) throws IOException {
+        this(log, null);
+    }
+
+    //Loads the snapshot if there is one, then replays the log records written after it
+    public TaskStorage(WriteAheadLog log, Path snapshotPath) throws IOException {
+        this(log, snapshotPath, Clock.systemDefaultZone());
+    }
+
+    public TaskStorage(WriteAheadLog log, Path snapshotPath, Clock clock) throws IOException {
+        this.log = log;
+        this.snapshotPath = snapshotPath;
+        this.clock = clock;
+        this.projectStats = new ProjectStatsIndex(LocalDate.now(clock));
+        long snapshotSequence = 0;
+        if (snapshotPath != null && Files.exists(snapshotPath)) {
+            snapshotSequence = load(SnapshotFile.read(snapshotPath));
+        }
+        log.replay(snapshotSequence, this::apply);
+    }
+
+    //Tells the listener about every change from now on. With catchUp it is first told the data the storage
+    //already has as changes: every project and task added, then the done state and the deadline of the tasks
+    //that have one. That happens under the same write lock, so nothing is missed or told twice.
+    void addChangeListener(ChangeListener listener, boolean catchUp) {
+        long stamp = lock.writeLock();
+        try {
+            if (catchUp) {
+                listener.catchUp(true);
+                for (Map.Entry<String, List<Task>> project : snapshot.projects().entrySet()) {
+                    String name = project.getKey();
+                    listener.changed(new LogRecord.AddProject(name), name);
+                    for (Task task : project.getValue()) {
+                        listener.changed(new LogRecord.AddTask(task.getId(), name, task.getDescription()), name);
+                        if (task.isDone()) {
+                            listener.changed(new LogRecord.MarkTask(task.getId(), true), name);
+                        }
+                        if (task.getDeadline() != null) {
+                            listener.changed(new LogRecord.SetDeadline(task.getId(), task.getDeadline()), name);
+                        }
+                    }
+                }
+                listener.catchUp(false);
+            }
+            changeListeners.add(listener);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
 
     public void addProject(String name) {
-        if (tasks.containsKey(name)) {
-            throw new IllegalArgumentException("Project " + name + " already exists: ");
+        long sequence;
+        long stamp = lock.writeLock();
+        try {
+            if (snapshot.ordinalOf(name) >= 0) {
+                throw new IllegalArgumentException("Project " + name + " already exists: ");
+            }
+            LogRecord record = new LogRecord.AddProject(name);
+            sequence = log(record);
+            applyChange(record);
+        } finally {
+            lock.unlockWrite(stamp);
         }
-        tasks.put(name, new ArrayList<Task>());
+        awaitDurable(sequence);
+    }
+
+    //refused by TaskService.createProject and importDump, addProject takes any name
+    static boolean isReservedProjectName(String name) {
+        return name != null && RESERVED_PROJECT_NAMES.contains(name);
     }
 
     public boolean projectExists(String name) {
-        return tasks.containsKey(name);
+        return snapshot.ordinalOf(name) >= 0;
     }
 
     private long nextId() {
@@ -23,87 +165,743 @@ public class TaskStorage {
     }
 
     public void addTask(String project, String description) {
-        List<Task> projectTasks = tasks.get(project);
-        if (projectTasks == null) {
-            throw new IllegalArgumentException("Project not found: " + project);
+        long sequence;
+        long stamp = lock.writeLock();
+        try {
+            if (snapshot.ordinalOf(project) < 0) {
+                failedProjectLookups.increment();
+                throw new IllegalArgumentException("Project not found: " + project);
+            }
+            long id = nextId();
+            LogRecord record = new LogRecord.AddTask(id, project, description);
+            sequence = log(record);
+            applyChange(record);
+        } finally {
+            lock.unlockWrite(stamp);
         }
-        projectTasks.add(new Task(nextId(), description, false));
+        awaitDurable(sequence);
+    }
+
+    //Adds all tasks under one write lock and one log write, tasks for unknown projects are skipped
+    public List<TaskBatch.ItemResult> addTasks(List<TaskBatch.NewTask> tasks) {
+        List<TaskBatch.ItemResult> results = new ArrayList<>(tasks.size());
+        List<LogRecord> records = new ArrayList<>(tasks.size());
+        long sequence;
+        long stamp = lock.writeLock();
+        try {
+            for (TaskBatch.NewTask task : tasks) {
+                if (snapshot.ordinalOf(task.project()) < 0) {
+                    failedProjectLookups.increment();
+                    results.add(TaskBatch.ItemResult.failed(null, "Project not found: " + task.project()));
+                    continue;
+                }
+                long id = nextId();
+                records.add(new LogRecord.AddTask(id, task.project(), task.description()));
+                results.add(TaskBatch.ItemResult.succeeded(id));
+            }
+            sequence = logAll(records);
+            records.forEach(this::applyChange);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        awaitDurable(sequence);
+        return results;
     }
 
     public Task returnTaskByID(long ID) {
+        TaskLocation location = optimisticRead(() -> tasksById.get(ID));
+        if (location == null) {
+            failedTaskLookups.increment();
+            return null;
+        }
+        //the snapshot is read after the index, so it already contains the task
+        return snapshot.task(location);
+    }
+
+    //The tasks of one project from the current snapshot, null if there is no such project
+    public List<Task> getProjectTasks(String project) {
+        List<Task> tasks = snapshot.projects().get(project);
+        if (tasks == null) {
+            failedProjectLookups.increment();
+        }
+        return tasks;
+    }
+
+    //null if there is no such task or it belongs to another project
+    public Task returnTaskByID(String project, long ID) {
+        TaskLocation location = optimisticRead(() -> tasksById.get(ID));
+        if (location == null || !location.project().equals(project)) {
+            failedTaskLookups.increment();
+            return null;
+        }
+        return snapshot.task(location);
+    }
+
+    //name of the project the task belongs to, null if there is no such task
+    public String projectOfTask(long ID) {
+        TaskLocation location = optimisticRead(() -> tasksById.get(ID));
+        return location != null ? location.project() : null;
+    }
+
+    public void markTask(long ID, boolean done) {
+        long sequence;
+        long stamp = lock.writeLock();
+        try {
+            findTask(ID);
+            LogRecord record = new LogRecord.MarkTask(ID, done);
+            sequence = log(record);
+            applyChange(record);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        awaitDurable(sequence);
+    }
+
+    public void setTaskDeadline(long ID, LocalDate deadline) {
+        long sequence;
+        long stamp = lock.writeLock();
+        try {
+            findTask(ID);
+            LogRecord record = new LogRecord.SetDeadline(ID, deadline);
+            sequence = log(record);
+            applyChange(record);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        awaitDurable(sequence);
+    }
+
+    //Checks, unchecks and sets deadlines for many tasks under one write lock and one log write
+    public List<TaskBatch.ItemResult> updateTasks(List<TaskBatch.TaskUpdate> updates) {
+        List<TaskBatch.ItemResult> results = new ArrayList<>(updates.size());
+        List<LogRecord> records = new ArrayList<>(updates.size());
+        long sequence;
+        long stamp = lock.writeLock();
+        try {
+            for (TaskBatch.TaskUpdate update : updates) {
+                if (tasksById.get(update.id()) == null) {
+                    failedTaskLookups.increment();
+                    results.add(TaskBatch.ItemResult.failed(update.id(), "Task not found: " + update.id()));
+                    continue;
+                }
+                if (update.done() != null) {
+                    records.add(new LogRecord.MarkTask(update.id(), update.done()));
+                }
+                if (update.deadline() != null) {
+                    records.add(new LogRecord.SetDeadline(update.id(), update.deadline()));
+                }
+                results.add(TaskBatch.ItemResult.succeeded(update.id()));
+            }
+            sequence = logAll(records);
+            records.forEach(this::applyChange);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        awaitDurable(sequence);
+        return results;
+    }
+
+    //Adds the projects and tasks of a dump file: projects that do not exist yet are created, tasks get new ids
+    //in the order of their old ones (so a dump imported into an empty storage keeps its ids) and keep their
+    //done state and deadline. The file is read twice: once to verify all of it, so a broken dump changes
+    //nothing, then to log and apply it a chunk at a time. Neither pass holds more than a chunk in memory and
+    //the write lock is only held per chunk, so other readers and writers get in between and can see a part
+    //of the import. A dump with a project of a reserved name is refused, like any other broken dump.
+    TaskDump.Summary importDump(Path dump) throws IOException {
+        List<String> projectNames = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(dump)) {
+            TaskDump.read(channel, IMPORT_CHUNK, chunk -> {
+                if (projectNames.isEmpty()) {
+                    projectNames.addAll(chunk.projectNames());
+                }
+            });
+        }
+        for (String name : projectNames) {
+            if (isReservedProjectName(name)) {
+                throw new IOException("Task list dump has project " + name + ", that name is reserved");
+            }
+        }
+        long[] sequence = {0};
+        TaskDump.Summary summary;
+        try (FileChannel channel = FileChannel.open(dump)) {
+            summary = TaskDump.read(channel, IMPORT_CHUNK, chunk -> sequence[0] = importChunk(chunk));
+        }
+        awaitDurable(sequence[0]);
+        return summary;
+    }
 
-        //go through projects and check tasks within, return task if we find a matching id
-        for (List<Task> projectTasks : tasks.values()) {
-            for (Task task : projectTasks) {
-                if (task.getId() == ID) {
-                    return task;
+    //returns the log sequence of the chunk's last record
+    private long importChunk(TaskDump.Chunk chunk) {
+        List<LogRecord> records = new ArrayList<>();
+        long stamp = lock.writeLock();
+        try {
+            for (String name : chunk.projectNames()) {
+                if (snapshot.ordinalOf(name) < 0) {
+                    records.add(new LogRecord.AddProject(name));
+                }
+            }
+            List<Task> tasks = chunk.tasks();
+            for (int i = 0; i < tasks.size(); i++) {
+                Task task = tasks.get(i);
+                long id = nextId();
+                records.add(new LogRecord.AddTask(id, chunk.projectNames().get(chunk.taskProjects()[i]),
+                        task.getDescription()));
+                if (task.isDone()) {
+                    records.add(new LogRecord.MarkTask(id, true));
+                }
+                if (task.getDeadline() != null) {
+                    records.add(new LogRecord.SetDeadline(id, task.getDeadline()));
                 }
             }
+            if (records.isEmpty()) {
+                return 0;
+            }
+            long sequence = logAll(records);
+            records.forEach(this::applyChange);
+            return sequence;
+        } finally {
+            lock.unlockWrite(stamp);
         }
-        return null;
     }
 
+    //The returned map is an immutable point in time view, later changes are not visible in it
     public Map<String, List<Task>> getAllProjects() {
-        //Since we dont want to change anything
-        Map<String, List<Task>> copyOfProjects = new LinkedHashMap<>();
-        for (Map.Entry<String, List<Task>> entry : tasks.entrySet()) {
-            copyOfProjects.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        return snapshot.projects();
+    }
+
+    StorageSnapshot snapshot() {
+        return snapshot;
+    }
+
+    //Grows with every change, so equal versions mean equal data. Starts again from 0 when the storage is
+    //created, including when it is loaded from the log or a snapshot.
+    public long version() {
+        return snapshot.version();
+    }
+
+    //Changes whenever the project or one of its tasks does, -1 if there is no such project
+    public long projectVersion(String project) {
+        return snapshot.projectVersion(project);
+    }
+
+    public int projectCount() {
+        return snapshot.projectCount();
+    }
+
+    public int taskCount() {
+        return optimisticRead(tasksById::size);
+    }
+
+    public int tasksWithDeadlineCount() {
+        long stamp = lock.readLock();
+        try {
+            return tasksById.size() - deadlineIndex.withoutDeadline().size();
+        } finally {
+            lock.unlockRead(stamp);
         }
-        return copyOfProjects;
+    }
+
+    public long failedProjectLookups() {
+        return failedProjectLookups.sum();
+    }
+
+    public long failedTaskLookups() {
+        return failedTaskLookups.sum();
     }
 
     public Map<String, List<Task>> getTasksTodaysDeadline() {
-        LocalDate todaysDate = LocalDate.now();
-        Map<String, List<Task>> resultTasks = new LinkedHashMap<>();
-        for (Map.Entry<String, List<Task>> project : tasks.entrySet()) {
-            //collect all the tasks that have a deadline for today
-            List<Task> todaysTasks = new ArrayList<>();
-            for (Task task : project.getValue()) {
-                if (task.getDeadline() != null && task.getDeadline().equals(todaysDate)) {
-                    todaysTasks.add(task);
+        return getTodaysTasks().projects();
+    }
+
+    //The tasks due today, together with the date they are due on so the caller does not have to ask the
+    //clock again (and get tomorrow right after midnight). Built once and handed out until a change affects
+    //it or the date changes, the maps and lists are unmodifiable.
+    public TodaysTasks getTodaysTasks() {
+        LocalDate today = LocalDate.now(clock);
+        TodaysTasks cached = todaysTasks;
+        if (cached != null && cached.date().equals(today)) {
+            return cached;
+        }
+        long stamp = lock.readLock();
+        try {
+            Map<String, List<Task>> projects = groupByProject(deadlineIndex.dueOn(today), snapshot);
+            projects.replaceAll((project, tasks) -> Collections.unmodifiableList(tasks));
+            TodaysTasks view = new TodaysTasks(today, Collections.unmodifiableMap(projects));
+            //published under the read lock, so no writer can invalidate it in between
+            todaysTasks = view;
+            return view;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public Map<LocalDate, Map<String, List<Task>>> getTasksSortedByDeadline(){
+        long stamp = lock.readLock();
+        try {
+            StorageSnapshot current = snapshot;
+            //the index is already sorted chronologically, so we only have to walk it
+            Map<LocalDate, Map<String, List<Task>>> sortedTasks = groupByDeadline(deadlineIndex.byDeadline(), current);
+
+            //add tasks without a deadline at the end
+            if (!deadlineIndex.withoutDeadline().isEmpty()) {
+                sortedTasks.put(null, groupByProject(deadlineIndex.withoutDeadline(), current));
+            }
+
+            return sortedTasks;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public Map<LocalDate, Map<String, List<Task>>> getTasksWithDeadlineBetween(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date " + from + " is after end date " + to);
+        }
+        long stamp = lock.readLock();
+        try {
+            return groupByDeadline(deadlineIndex.between(from, to), snapshot);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    //Project name -> task counts, with overdue and due today as of today
+    public Map<String, ProjectStats> getProjectStats() {
+        LocalDate today = LocalDate.now(clock);
+        long stamp = lock.readLock();
+        try {
+            if (projectStats.today().equals(today)) {
+                return collectProjectStats();
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        //first read on a new day
+        stamp = lock.writeLock();
+        try {
+            projectStats.rollTo(today);
+            return collectProjectStats();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    //caller must hold a lock
+    private Map<String, ProjectStats> collectProjectStats() {
+        List<String> names = snapshot.projectNames();
+        Map<String, ProjectStats> result = new LinkedHashMap<>();
+        for (int ordinal = 0; ordinal < names.size(); ordinal++) {
+            result.put(names.get(ordinal), projectStats.stats(ordinal));
+        }
+        return result;
+    }
+
+    //Up to limit tasks whose description contains any of the words of the query (case insensitive)
+    //and that pass the filter, the tasks containing the most of the words first and then by id
+    public List<TaskSearch.Hit> search(String query, TaskSearch.Filter filter, int limit) {
+        checkLimit(limit);
+        long stamp = lock.readLock();
+        try {
+            StorageSnapshot current = snapshot;
+            boolean filtered = filter.project() != null || filter.done() != null || filter.dueBy() != null;
+            List<SearchIndex.Match> matches = searchIndex.search(query,
+                    filtered ? id -> accepts(filter, tasksById.get(id), current) : id -> true, limit);
+            List<TaskSearch.Hit> hits = new ArrayList<>(matches.size());
+            for (SearchIndex.Match match : matches) {
+                TaskLocation location = tasksById.get(match.id());
+                hits.add(new TaskSearch.Hit(location.project(), current.task(location), match.matches()));
+            }
+            return hits;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static boolean accepts(TaskSearch.Filter filter, TaskLocation location, StorageSnapshot snapshot) {
+        if (filter.project() != null && !filter.project().equals(location.project())) {
+            return false;
+        }
+        if (filter.done() == null && filter.dueBy() == null) {
+            return true;
+        }
+        Task task = snapshot.task(location);
+        if (filter.done() != null && task.isDone() != filter.done()) {
+            return false;
+        }
+        return filter.dueBy() == null || (task.getDeadline() != null && !task.getDeadline().isAfter(filter.dueBy()));
+    }
+
+    //Returns up to limit tasks in project insertion order, starting where the cursor of the
+    //previous page left off (null for the first page). A project with more tasks than fit on
+    //one page continues under the same name on the next page. Projects and tasks are only
+    //ever appended, so a cursor stays valid while other requests keep adding to the storage.
+    public Page<Map<String, List<Task>>> getProjectsPage(String cursor, int limit) {
+        checkLimit(limit);
+        StorageSnapshot current = snapshot;
+        int ordinal = 0;
+        int position = 0;
+        if (cursor != null) {
+            long[] parts = PageCursor.decode(cursor, 2);
+            if (parts[0] < 0 || parts[0] >= current.projectCount()
+                    || parts[1] < 0 || parts[1] > current.tasksOf((int) parts[0]).size()) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            ordinal = (int) parts[0];
+            position = (int) parts[1];
+        }
+
+        Map<String, List<Task>> page = new LinkedHashMap<>();
+        List<String> names = current.projectNames();
+        int remaining = limit;
+        while (ordinal < current.projectCount() && remaining > 0) {
+            List<Task> tasks = current.tasksOf(ordinal);
+            int end = Math.min(tasks.size(), position + remaining);
+            //views on the immutable snapshot, nothing is copied
+            page.put(names.get(ordinal), tasks.subList(position, end));
+            remaining -= end - position;
+            if (end < tasks.size()) {
+                position = end;
+                break;
+            }
+            ordinal++;
+            position = 0;
+        }
+        String next = ordinal < current.projectCount() ? PageCursor.encode(ordinal, position) : null;
+        return new Page<>(page, next);
+    }
+
+    //Returns up to limit tasks ordered by deadline, then project, then id, with the tasks
+    //without a deadline last. The cursor points at the last task of the previous page, so a
+    //deadline changed between two requests can move a task but never repeats or skips the others.
+    public Page<Map<LocalDate, Map<String, List<Task>>>> getTasksByDeadlinePage(String cursor, int limit) {
+        checkLimit(limit);
+        LocalDate afterDeadline = null;
+        TaskLocation after = null;
+        if (cursor != null) {
+            long[] parts = PageCursor.decode(cursor, 3);
+            if (parts[1] < 0 || parts[1] > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            afterDeadline = parts[0] != NO_DEADLINE_CURSOR ? LocalDate.ofEpochDay(parts[0]) : null;
+            //locations compare by project ordinal and id only
+            after = new TaskLocation(null, (int) parts[1], 0, parts[2]);
+        }
+
+        long stamp = lock.readLock();
+        try {
+            StorageSnapshot current = snapshot;
+            NavigableMap<LocalDate, NavigableSet<TaskLocation>> dated = deadlineIndex.byDeadline();
+            if (after != null) {
+                dated = afterDeadline != null ? dated.tailMap(afterDeadline, true) : Collections.emptyNavigableMap();
+            }
+            Iterator<Map.Entry<LocalDate, NavigableSet<TaskLocation>>> buckets = Stream.concat(
+                    dated.entrySet().stream(),
+                    Stream.of(new AbstractMap.SimpleImmutableEntry<>((LocalDate) null,
+                            deadlineIndex.withoutDeadline()))).iterator();
+
+            Map<LocalDate, Map<String, List<Task>>> page = new LinkedHashMap<>();
+            int remaining = limit;
+            TaskLocation last = null;
+            LocalDate lastDeadline = null;
+            boolean more = false;
+            while (buckets.hasNext() && !more) {
+                Map.Entry<LocalDate, NavigableSet<TaskLocation>> bucket = buckets.next();
+                NavigableSet<TaskLocation> locations = bucket.getValue();
+                if (after != null && Objects.equals(bucket.getKey(), afterDeadline)) {
+                    locations = locations.tailSet(after, false);
                 }
+                if (locations.isEmpty()) {
+                    continue;
+                }
+                if (remaining == 0) {
+                    more = true;
+                    break;
+                }
+                List<TaskLocation> taken = new ArrayList<>(Math.min(remaining, locations.size()));
+                Iterator<TaskLocation> iterator = locations.iterator();
+                while (iterator.hasNext() && remaining > 0) {
+                    taken.add(iterator.next());
+                    remaining--;
+                }
+                page.put(bucket.getKey(), groupByProject(taken, current));
+                last = taken.getLast();
+                lastDeadline = bucket.getKey();
+                more = iterator.hasNext();
             }
+            String next = more ? PageCursor.encode(
+                    lastDeadline != null ? lastDeadline.toEpochDay() : NO_DEADLINE_CURSOR,
+                    last.projectOrdinal(), last.id()) : null;
+            return new Page<>(page, next);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    //The whole deadline index (from and to null) or the deadlines between from and to, as one point in time
+    //view. Only reads the current snapshot, the view walks the snapshot's deadline order itself.
+    DeadlineView getDeadlineView(LocalDate from, LocalDate to) {
+        if (from != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date " + from + " is after end date " + to);
+        }
+        return new DeadlineView(snapshot, from, to);
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be at least 1: " + limit);
+        }
+    }
 
-            //check if there even are any tasks with deadlines for today
-            if (!todaysTasks.isEmpty()) {
-                resultTasks.put(project.getKey(), todaysTasks);
+    //Writes all projects and tasks to the snapshot file, after which the older log records are dropped.
+    //Writers are only blocked while the current state is captured and the log is rotated,
+    //the snapshot itself is written from the immutable StorageSnapshot without holding the lock.
+    public void checkpoint() throws IOException {
+        if (log == null || snapshotPath == null) {
+            throw new IllegalStateException("Checkpoints need a write-ahead log and a snapshot path");
+        }
+        synchronized (checkpointMonitor) {
+            StorageSnapshot captured;
+            long capturedLastId;
+            long sequence;
+            long stamp = lock.writeLock();
+            try {
+                captured = snapshot;
+                capturedLastId = lastId;
+                sequence = log.lastSequence();
+                log.rotate();
+            } finally {
+                lock.unlockWrite(stamp);
             }
+            SnapshotFile.write(snapshotPath, captured, sequence, capturedLastId);
+            log.deleteRotated();
         }
-        return resultTasks;
     }
 
-    public Map<LocalDate, Map<String, List<Task>>> getTasksSortedByDeadline(){
-        //TreeMap to automatically sort added tasks chronologically
-        Map<LocalDate, Map<String, List<Task>>> tasksDeadlineSorted = new TreeMap<>();
-        //LinkedHashMap for guaranteed reproducibility
-        Map<String, List<Task>> tasksWithoutDeadline = new LinkedHashMap<>();
-
-        for (Map.Entry<String, List<Task>> project : tasks.entrySet()) {
-            String projName = project.getKey();
-            for (Task task : project.getValue()) {
-                //Add to the correct mapping depending on if tasks has a set deadline or not
-                if (task.getDeadline() != null) {
-                    tasksDeadlineSorted
-                            .computeIfAbsent(task.getDeadline(), k -> new LinkedHashMap<>())
-                            .computeIfAbsent(projName, k -> new ArrayList<>())
-                            .add(task);
-                } else {
-                    tasksWithoutDeadline
-                            .computeIfAbsent(projName, k -> new ArrayList<>())
-                            .add(task);
+    //Waits until every change made so far is on disk, see WriteAheadLog.sync
+    public void sync() {
+        if (log != null) {
+            log.sync();
+        }
+    }
+
+    //Takes a checkpoint every interval and a last one when the storage is closed
+    public synchronized void startPeriodicCheckpoints(Duration interval) {
+        if (checkpointScheduler != null) {
+            return;
+        }
+        checkpointScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tasklist-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checkpointScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (IOException | RuntimeException e) {
+                //the log still has everything, so try again next time
+                System.err.println("Could not write a task list snapshot: " + e.getMessage());
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            synchronized (this) {
+                if (checkpointScheduler != null) {
+                    //no interrupt, a FileChannel interrupted in a checkpoint closes itself under the log's feet
+                    checkpointScheduler.shutdown();
+                    try {
+                        checkpointScheduler.awaitTermination(CHECKPOINT_SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while waiting for the last periodic checkpoint", e);
+                    }
+                    checkpointScheduler = null;
+                    checkpoint();
                 }
             }
+        } finally {
+            if (log != null) {
+                log.close();
+            }
+        }
+    }
+
+    //Fills the empty storage from a snapshot file, returns the log sequence it was written at
+    private long load(SnapshotFile.Contents contents) {
+        for (int ordinal = 0; ordinal < contents.projectNames().size(); ordinal++) {
+            String project = contents.projectNames().get(ordinal);
+            List<Task> tasks = contents.projectTasks().get(ordinal);
+            projectStats.addProject();
+            for (int position = 0; position < tasks.size(); position++) {
+                Task task = tasks.get(position);
+                searchIndex.add(task.getId(), task.getDescription());
+                //the description moves into the arena, the String read from the file is dropped
+                task = new Task(task.getId(), descriptions, descriptions.intern(task.getDescription()),
+                        task.isDone(), task.getDeadline());
+                tasks.set(position, task);
+                TaskLocation location = new TaskLocation(project, ordinal, position, task.getId());
+                tasksById.put(task.getId(), location);
+                deadlineIndex.add(location, task.getDeadline());
+                projectStats.addTask(ordinal, task.isDone(), task.getDeadline());
+            }
         }
+        //the snapshot lists tasks by project, so the ids reached the search index out of order
+        searchIndex.sort();
+        snapshot = StorageSnapshot.of(contents.projectNames(), contents.projectTasks());
+        lastId = contents.lastId();
+        return contents.walSequence();
+    }
 
-        Map<LocalDate, Map<String, List<Task>>> sortedTasks = new LinkedHashMap<>(tasksDeadlineSorted);
+    //Applies a logged mutation without logging it again, used when replaying the log
+    private void apply(LogRecord record) {
+        switch (record) {
+            case LogRecord.AddProject r -> applyAddProject(r.name());
+            case LogRecord.AddTask r -> applyAddTask(r.id(), r.project(), r.description());
+            case LogRecord.MarkTask r -> applyMarkTask(r.id(), r.done());
+            case LogRecord.SetDeadline r -> applySetDeadline(r.id(), r.deadline());
+        }
+    }
 
-        //add tasks without a deadline at the end
-        if (!tasksWithoutDeadline.isEmpty()) {
-            sortedTasks.put(null, tasksWithoutDeadline);
+    //Applies a change made through this storage and tells the change listeners about it
+    private void applyChange(LogRecord record) {
+        apply(record);
+        if (!changeListeners.isEmpty()) {
+            String project = switch (record) {
+                case LogRecord.AddProject r -> r.name();
+                case LogRecord.AddTask r -> r.project();
+                case LogRecord.MarkTask r -> tasksById.get(r.id()).project();
+                case LogRecord.SetDeadline r -> tasksById.get(r.id()).project();
+            };
+            for (ChangeListener listener : changeListeners) {
+                listener.changed(record, project);
+            }
         }
+    }
+
+    //the apply methods expect the caller to hold the write lock and to have validated the change
+
+    private void applyAddProject(String name) {
+        snapshot = snapshot.withProject(name);
+        projectStats.addProject();
+    }
+
+    private void applyAddTask(long id, String project, String description) {
+        StorageSnapshot current = snapshot;
+        int ordinal = current.ordinalOf(project);
+        Task task = new Task(id, descriptions, descriptions.intern(description), false, null);
+        TaskLocation location = new TaskLocation(project, ordinal, current.tasksOf(ordinal).size(), id);
+        snapshot = current.withAddedTask(ordinal, task);
+
+        tasksById.put(id, location);
+        deadlineIndex.add(location, task.getDeadline());
+        searchIndex.add(id, description);
+        projectStats.addTask(ordinal, false, null);
+        lastId = Math.max(lastId, id);
+    }
+
+    private void applyMarkTask(long id, boolean done) {
+        TaskLocation location = findTask(id);
+        StorageSnapshot current = snapshot;
+        Task task = current.task(location);
+        projectStats.markTask(location.projectOrdinal(), task.isDone(), done, task.getDeadline());
+        invalidateTodaysTasks(task.getDeadline(), null);
+        snapshot = current.withReplacedTask(location, task.withDone(done));
+    }
 
-        return sortedTasks;
+    private void applySetDeadline(long id, LocalDate deadline) {
+        TaskLocation location = findTask(id);
+        StorageSnapshot current = snapshot;
+        Task task = current.task(location);
+        deadlineIndex.move(location, task.getDeadline(), deadline);
+        projectStats.setDeadline(location.projectOrdinal(), task.isDone(), task.getDeadline(), deadline);
+        invalidateTodaysTasks(task.getDeadline(), deadline);
+        snapshot = current.withReplacedTask(location, task.withDeadline(deadline));
+    }
 
+    //drops the cached today view if a task due on its date was changed, was moved to it or away from it
+    private void invalidateTodaysTasks(LocalDate oldDeadline, LocalDate newDeadline) {
+        TodaysTasks cached = todaysTasks;
+        if (cached != null && (cached.date().equals(oldDeadline) || cached.date().equals(newDeadline))) {
+            todaysTasks = null;
+        }
+    }
+
+    private long log(LogRecord record) {
+        return log != null ? log.append(record) : 0;
+    }
+
+    private long logAll(List<LogRecord> records) {
+        return log != null ? log.appendAll(records) : 0;
+    }
+
+    //waits outside the write lock, so concurrent writers end up in the same group commit
+    private void awaitDurable(long sequence) {
+        if (log != null) {
+            log.awaitDurable(sequence);
+        }
+    }
+
+    //caller must hold the write lock
+    private TaskLocation findTask(long ID) {
+        TaskLocation location = tasksById.get(ID);
+        if (location == null) {
+            failedTaskLookups.increment();
+            throw new IllegalArgumentException("Task not found: " + ID);
+        }
+        return location;
+    }
+
+    //Runs a cheap read without blocking, and only falls back to the read lock if a writer
+    //got in between. The reader may see a half updated structure and fail or return garbage,
+    //both are discarded when the stamp turns out to be invalid.
+    private <T> T optimisticRead(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static Map<LocalDate, Map<String, List<Task>>> groupByDeadline(
+            NavigableMap<LocalDate, NavigableSet<TaskLocation>> deadlines, StorageSnapshot snapshot) {
+        //LinkedHashMap keeps the chronological order of the index
+        Map<LocalDate, Map<String, List<Task>>> result = new LinkedHashMap<>();
+        for (Map.Entry<LocalDate, NavigableSet<TaskLocation>> entry : deadlines.entrySet()) {
+            result.put(entry.getKey(), groupByProject(entry.getValue(), snapshot));
+        }
+        return result;
+    }
+
+    //index entries are ordered by project first, so tasks of one project are next to each other
+    private static Map<String, List<Task>> groupByProject(Collection<TaskLocation> locations, StorageSnapshot snapshot) {
+        Map<String, List<Task>> result = new LinkedHashMap<>();
+        List<Task> current = null;
+        String currentProject = null;
+        for (TaskLocation location : locations) {
+            if (!location.project().equals(currentProject)) {
+                currentProject = location.project();
+                current = new ArrayList<>();
+                result.put(currentProject, current);
+            }
+            current.add(snapshot.task(location));
+        }
+        return result;
     }
 
 }
@@ -0,0 +1,9 @@
+package com.ortecfinance.tasklist;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+//The tasks due on date grouped by project, date is the day the view was made for
+public record TodaysTasks(LocalDate date, Map<String, List<Task>> projects) {
+}
@@ -0,0 +1,513 @@
+package com.ortecfinance.tasklist;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+//Append-only log of every TaskStorage mutation, replayed on startup so nothing is lost on a restart.
+//
+//Every record is written as [int length][int crc32][long sequence number][byte type][payload],
+//a torn record at the end of the file (crash during a write) is cut off on replay. A corrupt record with
+//more data after it fails the replay instead, so the records behind it are never thrown away.
+//
+//How long a write waits for the disk depends on the durability mode:
+// SYNC    - every append is written and fsynced before it returns
+// BATCHED - group commit, a flusher thread writes everything that is pending with one fsync
+//           and the writers wait until their record is part of a finished batch
+// ASYNC   - like BATCHED but writers do not wait, the flusher fsyncs every flush interval
+//
+//When TaskStorage writes a snapshot the log is rotated: the current file is renamed to <path>.prev
+//and deleted once the snapshot is on disk. Replay reads <path>.prev (if a crash left it behind)
+//and then <path>, skipping every record the snapshot already contains.
+//
+//Writers wait on a ReentrantLock condition rather than a monitor: the command stream runs its writers on
+//virtual threads, and one blocked in Object.wait would pin its carrier thread for the whole fsync.
+public final class WriteAheadLog implements AutoCloseable {
+
+    public enum Durability { SYNC, BATCHED, ASYNC }
+
+    private static final int HEADER_SIZE = 8;
+    //upper bound for the body of a record, so a corrupt length never makes replay allocate gigabytes
+    private static final int MAX_RECORD_LENGTH = 1 << 26;
+    private static final byte ADD_PROJECT = 1;
+    private static final byte ADD_TASK = 2;
+    private static final byte MARK_TASK = 3;
+    private static final byte SET_DEADLINE = 4;
+
+    private final Path path;
+    private final Path rotatedPath;
+    private FileChannel channel;
+    private final Durability durability;
+    private final long flushIntervalMillis;
+    private final Thread flusher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    //signalled when there is work for the flusher: records queued, a sync asked for or the log closed
+    private final Condition queued = lock.newCondition();
+    //signalled when durableSequence moved, a flush failed or a flush finished
+    private final Condition flushed = lock.newCondition();
+    private List<ByteBuffer> pending = new ArrayList<>();
+    private long lastSequence;
+    private long durableSequence;
+    private IOException failure;
+    private boolean closed;
+    //true while the flusher writes a batch outside the lock
+    private boolean flushing;
+    //highest sequence a sync() waits for, the ASYNC flusher does not sleep while it is not durable
+    private long syncSequence;
+
+    private WriteAheadLog(Path path, FileChannel channel, Durability durability, long flushIntervalMillis) {
+        this.path = path;
+        this.rotatedPath = path.resolveSibling(path.getFileName() + ".prev");
+        this.channel = channel;
+        this.durability = durability;
+        this.flushIntervalMillis = flushIntervalMillis;
+        if (durability == Durability.SYNC) {
+            flusher = null;
+        } else {
+            flusher = new Thread(this::flushLoop, "tasklist-wal-flusher");
+            flusher.setDaemon(true);
+        }
+    }
+
+    public static WriteAheadLog open(Path path, Durability durability, long flushIntervalMillis) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return new WriteAheadLog(path, openChannel(path), durability, flushIntervalMillis);
+    }
+
+    private static FileChannel openChannel(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    public Durability durability() {
+        return durability;
+    }
+
+    //Reads every complete record from the start of the file. Has to be called once, before the first append.
+    public void replay(Consumer<LogRecord> consumer) throws IOException {
+        replay(0, consumer);
+    }
+
+    //Same as above, but skips the records up to and including afterSequence since a snapshot already has them.
+    public void replay(long afterSequence, Consumer<LogRecord> consumer) throws IOException {
+        lastSequence = afterSequence;
+        if (Files.exists(rotatedPath)) {
+            try (FileChannel rotated = FileChannel.open(rotatedPath, StandardOpenOption.READ)) {
+                readRecords(rotatedPath, rotated, afterSequence, consumer);
+            }
+        }
+        long position = readRecords(path, channel, afterSequence, consumer);
+        //drop a torn record at the end, so new records are appended right after the last good one
+        channel.truncate(position);
+        channel.position(position);
+        durableSequence = lastSequence;
+        if (flusher != null) {
+            flusher.start();
+        }
+    }
+
+    //Returns the position right after the last complete record. A bad record only ends the file when it looks
+    //like a torn write: its header or body runs past the end of the file, its checksum fails on the very last
+    //bytes, or nothing but zeros follows. Any other bad record has good records behind it, which are kept
+    //by failing with an IOException and leaving the file as it is.
+    private long readRecords(Path name, FileChannel file, long afterSequence, Consumer<LogRecord> consumer)
+            throws IOException {
+        long size = file.size();
+        long position = 0;
+        file.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(file), 1 << 16));
+        while (size - position >= HEADER_SIZE) {
+            int length = in.readInt();
+            int crc = in.readInt();
+            if (length <= 0 || length > MAX_RECORD_LENGTH) {
+                if (onlyZerosFrom(file, position)) {
+                    break;
+                }
+                throw corrupt(name, position, "has a record length of " + length);
+            }
+            long end = position + HEADER_SIZE + length;
+            if (end > size) {
+                break;
+            }
+            byte[] body;
+            try {
+                body = in.readNBytes(length);
+            } catch (EOFException e) {
+                break;
+            }
+            if (body.length < length) {
+                break;
+            }
+            if (crc != checksum(body)) {
+                if (end == size) {
+                    break;
+                }
+                throw corrupt(name, position, "has a record with a wrong checksum");
+            }
+            DataInputStream record = new DataInputStream(new ByteArrayInputStream(body));
+            long sequence = record.readLong();
+            if (sequence > afterSequence) {
+                lastSequence = Math.max(lastSequence, sequence);
+                consumer.accept(decode(record));
+            }
+            position = end;
+        }
+        return position;
+    }
+
+    private static boolean onlyZerosFrom(FileChannel file, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        while (file.read(buffer.clear(), position) > 0) {
+            buffer.flip();
+            position += buffer.remaining();
+            while (buffer.hasRemaining()) {
+                if (buffer.get() != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static IOException corrupt(Path name, long position, String problem) {
+        return new IOException("Write-ahead log " + name + " " + problem + " at byte " + position
+                + " and more data after it. It was left as it is: restore it from a backup, or truncate it at"
+                + " that byte to drop everything from there on");
+    }
+
+    //Moves the current file aside and continues in a fresh one. Returns false if an older rotated file
+    //is still there, then the current file is kept so no records are lost.
+    //The caller has to make sure no append runs at the same time (TaskStorage holds its write lock).
+    public boolean rotate() throws IOException {
+        lock.lock();
+        try {
+            checkUsable();
+            //write out whatever is still pending, the flusher may be sleeping in ASYNC mode
+            while (flushing) {
+                try {
+                    flushed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while rotating the write-ahead log", e);
+                }
+            }
+            writeFully(pending);
+            pending = new ArrayList<>();
+            channel.force(false);
+            durableSequence = lastSequence;
+            flushed.signalAll();
+
+            if (Files.exists(rotatedPath)) {
+                return false;
+            }
+            channel.close();
+            Files.move(path, rotatedPath, StandardCopyOption.ATOMIC_MOVE);
+            channel = openChannel(path);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Called once a snapshot containing everything in the rotated file is safely on disk
+    public void deleteRotated() throws IOException {
+        Files.deleteIfExists(rotatedPath);
+    }
+
+    //Writes the record (SYNC) or queues it for the flusher, returns its sequence number.
+    //TaskStorage calls this while holding its write lock, so records are in the same order as the changes.
+    public long append(LogRecord record) {
+        return appendAll(List.of(record));
+    }
+
+    //Appends the records as one write (and one fsync in SYNC mode), returns the sequence of the last one
+    public long appendAll(List<LogRecord> records) {
+        lock.lock();
+        try {
+            checkUsable();
+            if (records.isEmpty()) {
+                return lastSequence;
+            }
+            List<ByteBuffer> buffers = new ArrayList<>(records.size());
+            for (LogRecord record : records) {
+                buffers.add(encode(lastSequence + buffers.size() + 1, record));
+            }
+            //only taken once every record could be encoded
+            lastSequence += buffers.size();
+            if (durability == Durability.SYNC) {
+                try {
+                    writeFully(buffers);
+                    channel.force(false);
+                } catch (IOException e) {
+                    failure = e;
+                    throw new UncheckedIOException("Could not write to the write-ahead log", e);
+                }
+                durableSequence = lastSequence;
+            } else {
+                pending.addAll(buffers);
+                queued.signal();
+            }
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void awaitDurable(long sequence) {
+        if (durability != Durability.BATCHED) {
+            return;
+        }
+        waitUntilDurable(sequence);
+    }
+
+    //Waits until every record appended so far is on disk, whatever the durability mode. In ASYNC mode the
+    //flusher is woken up instead of waiting for its interval, so a bulk load can skip waiting per change
+    //and wait once at the end
+    public void sync() {
+        long sequence;
+        lock.lock();
+        try {
+            sequence = lastSequence;
+            syncSequence = Math.max(syncSequence, sequence);
+            queued.signal();
+        } finally {
+            lock.unlock();
+        }
+        waitUntilDurable(sequence);
+    }
+
+    private void waitUntilDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durableSequence < sequence && failure == null) {
+                try {
+                    flushed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the write-ahead log", e);
+                }
+            }
+            if (durableSequence < sequence) {
+                throw new UncheckedIOException("Could not write to the write-ahead log", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queued.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (flusher != null && flusher.isAlive()) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            if (channel.isOpen()) {
+                channel.force(false);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            List<ByteBuffer> batch;
+            long batchSequence;
+            lock.lock();
+            try {
+                while (pending.isEmpty() && !closed) {
+                    try {
+                        queued.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                //everything queued while the previous fsync was running goes into this batch
+                batch = pending;
+                pending = new ArrayList<>();
+                batchSequence = lastSequence;
+                flushing = true;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                writeFully(batch);
+                channel.force(false);
+            } catch (IOException e) {
+                lock.lock();
+                try {
+                    failure = e;
+                    flushing = false;
+                    flushed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+            lock.lock();
+            try {
+                durableSequence = Math.max(durableSequence, batchSequence);
+                flushing = false;
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (durability == Durability.ASYNC) {
+                sleepUntilNextFlush();
+            }
+        }
+    }
+
+    private void sleepUntilNextFlush() {
+        lock.lock();
+        try {
+            if (closed || syncSequence > durableSequence) {
+                return;
+            }
+            queued.await(flushIntervalMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void writeFully(List<ByteBuffer> buffers) throws IOException {
+        ByteBuffer[] array = buffers.toArray(new ByteBuffer[0]);
+        long remaining = 0;
+        for (ByteBuffer buffer : array) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(array);
+        }
+    }
+
+    private void checkUsable() {
+        if (closed) {
+            throw new IllegalStateException("The write-ahead log is closed");
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("The write-ahead log failed earlier", failure);
+        }
+    }
+
+    private static ByteBuffer encode(long sequence, LogRecord record) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(sequence);
+            switch (record) {
+                case LogRecord.AddProject r -> {
+                    out.writeByte(ADD_PROJECT);
+                    writeString(out, r.name());
+                }
+                case LogRecord.AddTask r -> {
+                    out.writeByte(ADD_TASK);
+                    out.writeLong(r.id());
+                    writeString(out, r.project());
+                    writeString(out, r.description());
+                }
+                case LogRecord.MarkTask r -> {
+                    out.writeByte(MARK_TASK);
+                    out.writeLong(r.id());
+                    out.writeBoolean(r.done());
+                }
+                case LogRecord.SetDeadline r -> {
+                    out.writeByte(SET_DEADLINE);
+                    out.writeLong(r.id());
+                    out.writeBoolean(r.deadline() != null);
+                    out.writeLong(r.deadline() != null ? r.deadline().toEpochDay() : 0);
+                }
+            }
+        } catch (IOException e) {
+            //cannot happen when writing to a byte array
+            throw new UncheckedIOException(e);
+        }
+        byte[] body = bytes.toByteArray();
+        if (body.length > MAX_RECORD_LENGTH) {
+            throw new IllegalArgumentException("Change of " + body.length + " bytes is too large for the write-ahead log");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + body.length);
+        buffer.putInt(body.length).putInt(checksum(body)).put(body).flip();
+        return buffer;
+    }
+
+    private static LogRecord decode(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case ADD_PROJECT:
+                return new LogRecord.AddProject(readString(in));
+            case ADD_TASK:
+                return new LogRecord.AddTask(in.readLong(), readString(in), readString(in));
+            case MARK_TASK:
+                return new LogRecord.MarkTask(in.readLong(), in.readBoolean());
+            case SET_DEADLINE:
+                long id = in.readLong();
+                boolean hasDeadline = in.readBoolean();
+                long epochDay = in.readLong();
+                return new LogRecord.SetDeadline(id, hasDeadline ? LocalDate.ofEpochDay(epochDay) : null);
+            default:
+                throw new IOException("Unknown record type in write-ahead log: " + type);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = in.readNBytes(in.readInt());
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int checksum(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+}
@@ -174,6 +174,108 @@ public final class ApplicationTest {
         execute("quit");
     }
 
+    @Test
+    void dueBetweenTest() throws IOException {
+        execute("add project Secrets");
+        execute("add task Secrets Eat more donuts.");
+        execute("add task Secrets Destroy all humans.");
+        execute("add task Secrets Take over the world.");
+
+        execute("deadline 1 11-11-2021");
+        execute("deadline 2 20-11-2021");
+        execute("deadline 3 01-12-2021");
+
+        execute("due 10-11-2021 30-11-2021");
+        readLines(
+                "11-11-2021:",
+                "  Secrets:",
+                "    [ ] 1: Eat more donuts.",
+                "",
+                "20-11-2021:",
+                "  Secrets:",
+                "    [ ] 2: Destroy all humans.",
+                ""
+        );
+
+        execute("due 30-11-2021 10-11-2021");
+        readLines("The start date cannot be after the end date.");
+
+        execute("quit");
+    }
+
+    @Test
+    void searchTest() throws IOException {
+        execute("add project Secrets");
+        execute("add task Secrets Write tests for the donut detector");
+        execute("add task Secrets Eat more donuts.");
+        execute("add project Training");
+        execute("add task Training Write more tests");
+
+        execute("check 3");
+        execute("deadline 2 11-11-2021");
+
+        execute("search write tests");
+        readLines(
+                "    [ ] 1: Write tests for the donut detector (Secrets)",
+                "    [x] 3: Write more tests (Training)",
+                ""
+        );
+
+        execute("search donuts tests done:false due:30-11-2021");
+        readLines(
+                "    [ ] 2: Eat more donuts. (Secrets)",
+                ""
+        );
+
+        execute("search tests project:Nothing");
+        readLines("No tasks found.", "");
+
+        execute("search project:Training");
+        readLines("Please provide the words to search for.");
+
+        execute("quit");
+    }
+
+    @Test
+    void showProjectTest() throws IOException {
+        execute("add project secrets");
+        execute("add task secrets Eat more donuts.");
+        execute("add project training");
+        execute("add task training SOLID");
+
+        execute("show training");
+        readLines(
+                "training",
+                "    [ ] 2: SOLID",
+                ""
+        );
+
+        execute("show nothing");
+        readLines("Could not find a project with the name \"nothing\".", "");
+
+        execute("quit");
+    }
+
+    @Test
+    void statsTest() throws IOException {
+        execute("add project secrets");
+        execute("add task secrets Eat more donuts.");
+        execute("add task secrets Destroy all humans.");
+        execute("add project training");
+        execute("add task training SOLID");
+        execute("check 2");
+        execute("deadline 1 01-01-2021");
+
+        execute("stats");
+        readLines(
+                "secrets: 1 open, 1 done, 1 overdue, 0 due today",
+                "training: 1 open, 0 done, 0 overdue, 0 due today",
+                ""
+        );
+
+        execute("quit");
+    }
+
     private void execute(String command) throws IOException {
         read(PROMPT);
         write(command);
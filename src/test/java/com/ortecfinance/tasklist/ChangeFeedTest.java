@@ -0,0 +1,219 @@
+package com.ortecfinance.tasklist;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+public class ChangeFeedTest {
+    private final ChangeFeed feed = new ChangeFeed(8, 8, Duration.ofSeconds(15));
+    private final TaskService taskService = new TaskService(new TaskStorage(), feed);
+
+    @AfterEach
+    void closeFeed() {
+        feed.close();
+    }
+
+    @Test
+    void testPublishesEveryChangeInOrder() throws InterruptedException {
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(null, sink);
+
+        taskService.createProject("secrets");
+        taskService.createTask("secrets", "Eat more donuts.");
+        taskService.markTask(1, true);
+        taskService.setTaskDeadline(1, LocalDate.of(2026, 1, 15));
+        taskService.setTaskDeadline(1, null);
+
+        assertThat(sink.next(), is(new TaskEvent(1, TaskEvent.PROJECT_CREATED, "secrets", null, null, null, null)));
+        assertThat(sink.next(), is(new TaskEvent(2, TaskEvent.TASK_CREATED, "secrets", 1L, "Eat more donuts.", null, null)));
+        assertThat(sink.next(), is(new TaskEvent(3, TaskEvent.DONE_CHANGED, "secrets", 1L, null, true, null)));
+        assertThat(sink.next(), is(new TaskEvent(4, TaskEvent.DEADLINE_CHANGED, "secrets", 1L, null, null,
+                LocalDate.of(2026, 1, 15))));
+        assertThat(sink.next(), is(new TaskEvent(5, TaskEvent.DEADLINE_CHANGED, "secrets", 1L, null, null, null)));
+        assertThat(feed.sequence(), is(5L));
+    }
+
+    @Test
+    void testPublishesTheAppliedItemsOfBatches() throws InterruptedException {
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(null, sink);
+        taskService.createProject("secrets");
+
+        taskService.createTasks(List.of(new TaskBatch.NewTask("secrets", "Eat more donuts."),
+                new TaskBatch.NewTask("training", "SOLID")));
+
+        assertThat(sink.next().type(), is(TaskEvent.PROJECT_CREATED));
+        assertThat(sink.next(), is(new TaskEvent(2, TaskEvent.TASK_CREATED, "secrets", 1L, "Eat more donuts.", null, null)));
+        assertThat(sink.events.poll(100, TimeUnit.MILLISECONDS), is(nullValue()));
+    }
+
+    @Test
+    void testFailedChangesAreNotPublished() throws InterruptedException {
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(null, sink);
+        taskService.createProject("secrets");
+
+        try {
+            taskService.markTask(7, true);
+        } catch (IllegalArgumentException expected) {
+        }
+
+        assertThat(sink.next().sequence(), is(1L));
+        assertThat(sink.events.poll(100, TimeUnit.MILLISECONDS), is(nullValue()));
+        assertThat(feed.sequence(), is(1L));
+    }
+
+    @Test
+    void testReconnectGetsTheMissedChanges() throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            taskService.createProject("project" + i);
+        }
+
+        RecordingSink sink = new RecordingSink();
+        feed.subscribe(feed.eventId(3), sink);
+        taskService.createProject("project5");
+
+        assertThat(sink.next().project(), is("project3"));
+        assertThat(sink.next().project(), is("project4"));
+        assertThat(sink.next().project(), is("project5"));
+    }
+
+    @Test
+    void testReconnectAfterTheHistoryGetsReset() throws InterruptedException {
+        for (int i = 0; i < 20; i++) {
+            taskService.createProject("project" + i);
+        }
+
+        RecordingSink tooOld = new RecordingSink();
+        feed.subscribe(feed.eventId(11), tooOld);
+        RecordingSink oldestKept = new RecordingSink();
+        feed.subscribe(feed.eventId(12), oldestKept);
+        RecordingSink unknown = new RecordingSink();
+        feed.subscribe(feed.eventId(21), unknown);
+
+        assertThat(tooOld.next(), is(new TaskEvent(20, TaskEvent.RESET, null, null, null, null, null)));
+        assertThat(oldestKept.next().sequence(), is(13L));
+        assertThat(unknown.next().type(), is(TaskEvent.RESET));
+    }
+
+    @Test
+    void testIdsOfAnEarlierProcessGetReset() throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            taskService.createProject("project" + i);
+        }
+
+        //the sequence starts over with every process, an id without this feed's epoch means nothing
+        RecordingSink earlierProcess = new RecordingSink();
+        feed.subscribe("0-3", earlierProcess);
+        RecordingSink bare = new RecordingSink();
+        feed.subscribe("3", bare);
+        RecordingSink garbled = new RecordingSink();
+        feed.subscribe(feed.eventId(3) + "x", garbled);
+
+        for (RecordingSink sink : List.of(earlierProcess, bare, garbled)) {
+            assertThat(sink.next(), is(new TaskEvent(5, TaskEvent.RESET, null, null, null, null, null)));
+        }
+        assertThat(feed.eventId(5), matchesPattern("[0-9a-z]+-5"));
+    }
+
+    @Test
+    void testSlowSubscriberIsDroppedWithoutBlockingWriters() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink slow = new RecordingSink() {
+            @Override
+            public void send(TaskEvent event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(event);
+            }
+        };
+        RecordingSink fast = new RecordingSink();
+        feed.subscribe(null, slow);
+        feed.subscribe(null, fast);
+
+        //the slow subscriber's queue holds 8 events, the writer must not wait for it
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < 100; i++) {
+                taskService.createProject("project" + i);
+                fast.next();
+            }
+        });
+        assertThat(feed.subscriberCount(), is(1));
+
+        release.countDown();
+        assertThat(slow.next().sequence(), is(1L));
+        assertThat(slow.next(), is(new TaskEvent(0, TaskEvent.OVERFLOW, null, null, null, null, null)));
+        assertThat(slow.completed.await(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    void testCancelAndClose() throws InterruptedException {
+        RecordingSink cancelled = new RecordingSink();
+        RecordingSink closed = new RecordingSink();
+        feed.subscribe(null, cancelled).cancel();
+        feed.subscribe(null, closed);
+        assertThat(feed.subscriberCount(), is(1));
+
+        feed.close();
+        taskService.createProject("secrets");
+
+        assertThat(closed.completed.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(cancelled.completed.getCount(), is(1L));
+        assertThat(closed.events, is(empty()));
+        assertThat(feed.subscriberCount(), is(0));
+    }
+
+    @Test
+    void testSendsHeartbeatsWhenIdle() throws InterruptedException {
+        ChangeFeed idleFeed = new ChangeFeed(8, 8, Duration.ofMillis(10));
+        CountDownLatch heartbeats = new CountDownLatch(3);
+        idleFeed.subscribe(null, new RecordingSink() {
+            @Override
+            public void heartbeat() {
+                heartbeats.countDown();
+            }
+        });
+
+        assertThat(heartbeats.await(5, TimeUnit.SECONDS), is(true));
+        idleFeed.close();
+    }
+
+    private static class RecordingSink implements ChangeFeed.EventSink {
+        final BlockingQueue<TaskEvent> events = new LinkedBlockingQueue<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void send(TaskEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        TaskEvent next() throws InterruptedException {
+            TaskEvent event = events.poll(5, TimeUnit.SECONDS);
+            assertThat(event, is(notNullValue()));
+            return event;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.ortecfinance.tasklist;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ColumnarTaskStorageTest {
+
+    @Test
+    void testSameViewsAsTaskStorage() {
+        TaskStorage rows = new TaskStorage();
+        ColumnarTaskStorage columns = new ColumnarTaskStorage();
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+
+        for (int p = 0; p < 20; p++) {
+            rows.addProject("project" + p);
+            columns.addProject("project" + p);
+        }
+        for (int i = 0; i < 3000; i++) {
+            String project = "project" + random.nextInt(20);
+            rows.addTask(project, "Task " + i);
+            columns.addTask(project, "Task " + i);
+
+            long id = 1 + random.nextInt(i + 1);
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    rows.markTask(id, random.nextBoolean());
+                    columns.markTask(id, rows.returnTaskByID(id).isDone());
+                }
+                case 1 -> {
+                    LocalDate deadline = today.plusDays(random.nextInt(21) - 10);
+                    rows.setTaskDeadline(id, deadline);
+                    columns.setTaskDeadline(id, deadline);
+                }
+                case 2 -> {
+                    rows.setTaskDeadline(id, null);
+                    columns.setTaskDeadline(id, null);
+                }
+                default -> {
+                }
+            }
+        }
+
+        assertThat(describe(columns.getAllProjects()), is(describe(rows.getAllProjects())));
+        assertThat(describe(columns.getTasksSortedByDeadline()), is(describe(rows.getTasksSortedByDeadline())));
+        assertThat(describe(columns.getTasksTodaysDeadline()), is(describe(rows.getTasksTodaysDeadline())));
+        assertThat(describe(columns.getTasksWithDeadlineBetween(today.minusDays(3), today.plusDays(2))),
+                is(describe(rows.getTasksWithDeadlineBetween(today.minusDays(3), today.plusDays(2)))));
+        assertThat(describe(columns.getTasksWithDeadlineBetween(LocalDate.MIN, LocalDate.MAX)),
+                is(describe(rows.getTasksWithDeadlineBetween(LocalDate.MIN, LocalDate.MAX))));
+        assertThat(columns.taskCount(), is(rows.taskCount()));
+        assertThat(columns.projectCount(), is(rows.projectCount()));
+        assertThat(columns.tasksWithDeadlineCount(), is(rows.tasksWithDeadlineCount()));
+        for (long id = 1; id <= 3000; id += 97) {
+            assertThat(describe(columns.returnTaskByID(id)), is(describe(rows.returnTaskByID(id))));
+            assertThat(columns.projectOfTask(id), is(rows.projectOfTask(id)));
+        }
+    }
+
+    @Test
+    void testUnknownProjectsAndTasksFailLikeTaskStorage() {
+        ColumnarTaskStorage columns = new ColumnarTaskStorage();
+        columns.addProject("secrets");
+
+        assertThrows(IllegalArgumentException.class, () -> columns.addProject("secrets"));
+        IllegalArgumentException project = assertThrows(IllegalArgumentException.class,
+                () -> columns.addTask("training", "Learn Java"));
+        assertThat(project.getMessage(), is("Project not found: training"));
+        IllegalArgumentException task = assertThrows(IllegalArgumentException.class, () -> columns.markTask(1, true));
+        assertThat(task.getMessage(), is("Task not found: 1"));
+        assertThrows(IllegalArgumentException.class,
+                () -> columns.getTasksWithDeadlineBetween(LocalDate.of(2026, 2, 1), LocalDate.of(2026, 1, 1)));
+        assertThat(columns.returnTaskByID(1), is(nullValue()));
+        assertThat(columns.projectOfTask(1), is(nullValue()));
+    }
+
+    @Test
+    void testHandedOutTasksDoNotChange() {
+        ColumnarTaskStorage columns = new ColumnarTaskStorage();
+        columns.addProject("secrets");
+        columns.addTask("secrets", "Eat more donuts.");
+        Map<String, List<Task>> before = columns.getAllProjects();
+
+        columns.markTask(1, true);
+        columns.setTaskDeadline(1, LocalDate.of(2026, 1, 15));
+
+        assertThat(before.get("secrets").getFirst().isDone(), is(false));
+        assertThat(before.get("secrets").getFirst().getDeadline(), is(nullValue()));
+        assertThat(columns.returnTaskByID(1).isDone(), is(true));
+        assertThat(columns.returnTaskByID(1).getDeadline(), is(LocalDate.of(2026, 1, 15)));
+    }
+
+    private static String describe(Map<?, ?> view) {
+        List<String> entries = new ArrayList<>();
+        view.forEach((key, value) -> entries.add(key + "=" + (value instanceof Map<?, ?> map ? describe(map)
+                : ((List<?>) value).stream().map(task -> describe((Task) task)).toList())));
+        return entries.toString();
+    }
+
+    private static String describe(Task task) {
+        return task.getId() + " " + task.getDescription() + " " + task.isDone() + " " + task.getDeadline();
+    }
+}
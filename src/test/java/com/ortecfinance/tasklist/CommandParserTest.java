@@ -0,0 +1,98 @@
+package com.ortecfinance.tasklist;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public class CommandParserTest {
+
+    private static final String[] COMMANDS = {
+            "show", "today", "view-by-deadline", "help", "add", "check", "uncheck", "deadline", "due", "nonsense", ""
+    };
+
+    private static final String[] ARGUMENTS = {
+            "", " ", "  ", "12", "+12", "-12", "0012", "abc", "12 ", " 12", "9223372036854775807",
+            "9223372036854775808", "١٢", "project", "project ", "project secrets", "project  secrets",
+            "project träining 🚀", "task", "task ", "task secrets", "task secrets ", "task secrets Eat more donuts.",
+            "task  secrets Eat", "tasks secrets", "12 15-01-2026", "12 5-1-2026", "12 015-001-02026",
+            "12 15-01-2026-", "12 15-01-2026--", "12 15-01-2026-7", "12 15-01", "12 15-01-", "12 15", "12 15--",
+            "12 -", "12 --", "12 ", "12 ab-01-2026", "12 15/01/2026", "12 32-01-2026", "12 29-02-2025",
+            "12 15--01-2026", "12 15-01-2026 extra", "12 +15-01-2026", "12 15-01-+2026", "12 15-01-99999999999",
+            "abc 15-01-2026", "01-01-2026 31-01-2026", "31-01-2026 01-01-2026", "01-01-2026", "01-01-2026 ",
+            "01-01-2026 31-01", "01-01-2026  31-01-2026", "1-1-2026 1-1-2026"
+    };
+
+    @Test
+    void testParsesLikeSplittingTheLine() {
+        List<String> lines = new ArrayList<>(List.of("", " ", "\t", " show", "show ", "SHOW", "shows"));
+        for (String command : COMMANDS) {
+            lines.add(command);
+            for (String arguments : ARGUMENTS) {
+                lines.add(command + " " + arguments);
+            }
+        }
+
+        for (String line : lines) {
+            assertThat(line, describe(CommandParser.parse(line)), is(describe(SplitCommandParser.parse(line))));
+        }
+        assertThat(describe(CommandParser.parse(null)), is(describe(SplitCommandParser.parse(null))));
+    }
+
+    @Test
+    void testParseDateFailsLikeSplittingTheDate() {
+        String[] dates = {"15-01-2026", "", "-", "15", "15-01", "15-01-", "ab-01-2026", "15-ab", "32-01-2026",
+                "15-01-2026-", "15-01-2026-x", "1-2-3", "+1-+2-+3"};
+        for (String date : dates) {
+            assertThat(date, parseDate(true, date), is(parseDate(false, date)));
+        }
+    }
+
+    @Test
+    void testParsesShowCommand() {
+        assertThat(((CommandParser.ShowCommand) CommandParser.parse("show")).projectName, is((String) null));
+        assertThat(((CommandParser.ShowCommand) CommandParser.parse("show  ")).projectName, is((String) null));
+        assertThat(((CommandParser.ShowCommand) CommandParser.parse("show my project")).projectName, is("my project"));
+    }
+
+    @Test
+    void testParsesDeadlineCommand() {
+        CommandParser.Command command = CommandParser.parse("deadline 42 05-03-2026");
+
+        assertThat(command, instanceOf(CommandParser.DeadlineCommand.class));
+        CommandParser.DeadlineCommand deadline = (CommandParser.DeadlineCommand) command;
+        assertThat(deadline.taskId, is(42L));
+        assertThat(deadline.deadline, is(LocalDate.of(2026, 3, 5)));
+    }
+
+    //the parsed date, or the kind of failure since only that decides the error message
+    private static String parseDate(boolean tokenizer, String date) {
+        try {
+            return (tokenizer ? CommandParser.parseDate(date) : SplitCommandParser.parseDate(date)).toString();
+        } catch (NumberFormatException e) {
+            return "NumberFormatException";
+        } catch (RuntimeException e) {
+            return "other failure";
+        }
+    }
+
+    //the command's type and public fields, the commands have no equals
+    private static String describe(CommandParser.Command command) {
+        StringJoiner description = new StringJoiner(", ", command.getClass().getSimpleName() + "[", "]");
+        for (Field field : command.getClass().getFields()) {
+            try {
+                description.add(field.getName() + "=" + field.get(command));
+            } catch (IllegalAccessException e) {
+                throw new AssertionError(e);
+            }
+        }
+        return description.toString();
+    }
+}
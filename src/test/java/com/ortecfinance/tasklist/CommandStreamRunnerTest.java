@@ -0,0 +1,141 @@
+package com.ortecfinance.tasklist;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.System.lineSeparator;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+public class CommandStreamRunnerTest {
+
+    private final TaskService taskService = new TaskService(new TaskStorage());
+    private final List<CommandStreamRunner.Result> results = new ArrayList<>();
+
+    private long run(List<String> commands) throws IOException {
+        return run(taskService, commands);
+    }
+
+    private long run(TaskService taskService, List<String> commands) throws IOException {
+        BufferedReader in = new BufferedReader(new StringReader(String.join("\n", commands)));
+        return new CommandStreamRunner(taskService, TaskMetrics.NONE).run(in, new CommandStreamRunner.ResultWriter() {
+            @Override
+            public void write(CommandStreamRunner.Result result) {
+                results.add(result);
+            }
+
+            @Override
+            public void flush() {
+            }
+        });
+    }
+
+    @Test
+    void testCommandsOfOneProjectKeepTheirOrder() throws IOException {
+        List<String> commands = new ArrayList<>();
+        for (int p = 0; p < 20; p++) {
+            commands.add("add project project" + p);
+        }
+        //more commands than fit in flight at once, interleaved over the projects
+        for (int i = 0; i < 2000; i++) {
+            commands.add("add task project" + (i % 20) + " Task " + i);
+        }
+
+        assertThat(run(commands), is(2020L));
+        assertThat(results, hasSize(2020));
+
+        for (Map.Entry<String, List<Task>> project : taskService.getAllProjects().entrySet()) {
+            List<Integer> numbers = project.getValue().stream()
+                    .map(task -> Integer.parseInt(task.getDescription().substring("Task ".length())))
+                    .toList();
+            assertThat(project.getKey(), numbers, hasSize(100));
+            assertThat(project.getKey(), numbers, is(numbers.stream().sorted().toList()));
+        }
+    }
+
+    @Test
+    void testCommandFailingWithAnErrorDoesNotHangTheStream() {
+        TaskService failing = new TaskService(new TaskStorage()) {
+            @Override
+            public void createTask(String projectName, String taskDescription) {
+                if (taskDescription.equals("Overflow")) {
+                    throw new StackOverflowError("Too deep");
+                }
+                super.createTask(projectName, taskDescription);
+            }
+        };
+
+        long executed = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> run(failing, List.of(
+                "add project secrets",
+                "add task secrets Overflow",
+                "add task secrets Eat more donuts.",
+                "show")));
+
+        assertThat(executed, is(4L));
+        results.sort(Comparator.comparingLong(CommandStreamRunner.Result::line));
+        assertThat(results, hasSize(4));
+        assertThat(results.get(1).output(), startsWith("Could not execute the command: java.lang.StackOverflowError"));
+        assertThat(results.get(3).output(), containsString("Eat more donuts."));
+    }
+
+    @Test
+    void testOutputIsTheConsoleOutput() throws IOException {
+        List<String> commands = new ArrayList<>();
+        for (int p = 0; p < 8; p++) {
+            commands.add("add project project" + p);
+        }
+        //adds of different projects with checks and deadlines of the ids they will get in between
+        for (int i = 1; i <= 1000; i++) {
+            commands.add("add task project" + (i * 7 % 8) + " Task " + i);
+            if (i % 3 == 0) {
+                commands.add("check " + (i - 1));
+            }
+            if (i % 5 == 0) {
+                commands.add("deadline " + (i - 2) + " 0" + (1 + i % 9) + "-01-2026");
+            }
+        }
+        commands.add("show");
+
+        run(commands);
+
+        TaskService console = new TaskService(new TaskStorage());
+        results.sort(Comparator.comparingLong(CommandStreamRunner.Result::line));
+        for (CommandStreamRunner.Result result : results) {
+            String expected = TaskList.execute(console, TaskMetrics.NONE, CommandParser.parse(result.command()));
+            assertThat(result.command(), result.output(), is(expected));
+        }
+        for (Task task : taskService.getAllProjects().get("project7")) {
+            assertThat(task.getDescription(), is("Task " + task.getId()));
+        }
+    }
+
+    @Test
+    void testCommandsWithoutProjectSeeEverythingBeforeThem() throws IOException {
+        run(List.of(
+                "add project secrets",
+                "add task secrets Eat more donuts.",
+                //the task does not exist yet when this is read, so it waits for the commands above
+                "check 1",
+                "",
+                "show",
+                "nonsense"));
+
+        results.sort(Comparator.comparingLong(CommandStreamRunner.Result::line));
+        assertThat(results.stream().map(CommandStreamRunner.Result::line).toList(), contains(1L, 2L, 3L, 5L, 6L));
+        assertThat(results.get(3).output(), is(String.join(lineSeparator(),
+                "secrets",
+                "    [x] 1: Eat more donuts.",
+                "",
+                "")));
+        assertThat(results.get(4).output(), startsWith("I don't know what the command \"nonsense\" is."));
+    }
+}
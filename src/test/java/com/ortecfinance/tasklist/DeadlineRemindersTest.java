@@ -0,0 +1,190 @@
+package com.ortecfinance.tasklist;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.ortecfinance.tasklist.DeadlineReminders.Kind.DUE;
+import static com.ortecfinance.tasklist.DeadlineReminders.Kind.OVERDUE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class DeadlineRemindersTest {
+    private static final LocalDate MONDAY = LocalDate.of(2026, 1, 12);
+
+    private final TaskStorage taskStorage = new TaskStorage();
+    private final DeadlineReminders reminders = new DeadlineReminders(
+            Clock.fixed(MONDAY.atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()));
+    private final List<DeadlineReminders.Reminder> received = new ArrayList<>();
+
+    @AfterEach
+    void close() {
+        reminders.close();
+    }
+
+    @Test
+    void testRemindsWhenTheDayComes() {
+        follow();
+        taskStorage.addProject("secrets");
+        taskStorage.addTask("secrets", "Eat more donuts.");
+        taskStorage.addTask("secrets", "Destroy all humans.");
+        taskStorage.setTaskDeadline(1, MONDAY.plusDays(1));
+        taskStorage.setTaskDeadline(2, MONDAY.plusDays(100));
+
+        reminders.advanceTo(MONDAY);
+        assertThat(received, is(empty()));
+        reminders.advanceTo(MONDAY.plusDays(1));
+        assertThat(received, contains(reminder(DUE, 1, MONDAY.plusDays(1))));
+        reminders.advanceTo(MONDAY.plusDays(2));
+        assertThat(received, contains(reminder(DUE, 1, MONDAY.plusDays(1)), reminder(OVERDUE, 1, MONDAY.plusDays(1))));
+
+        received.clear();
+        reminders.advanceTo(MONDAY.plusDays(1000));
+        assertThat(received, contains(reminder(DUE, 2, MONDAY.plusDays(100)), reminder(OVERDUE, 2, MONDAY.plusDays(100))));
+        assertThat(reminders.pending(), is(0));
+    }
+
+    @Test
+    void testChangesMoveAndCancelReminders() {
+        follow();
+        taskStorage.addProject("secrets");
+        taskStorage.addTask("secrets", "Eat more donuts.");
+        taskStorage.addTask("secrets", "Destroy all humans.");
+        taskStorage.setTaskDeadline(1, MONDAY.plusDays(1));
+        taskStorage.setTaskDeadline(2, MONDAY.plusDays(1));
+
+        taskStorage.setTaskDeadline(1, MONDAY.plusDays(3));
+        taskStorage.markTask(2, true);
+        assertThat(reminders.pending(), is(2));
+        reminders.advanceTo(MONDAY.plusDays(2));
+        assertThat(received, is(empty()));
+
+        taskStorage.setTaskDeadline(1, null);
+        //unchecking a task that is overdue by now reminds right away
+        taskStorage.markTask(2, false);
+        reminders.advanceTo(MONDAY.plusDays(2));
+        assertThat(received, contains(reminder(OVERDUE, 2, MONDAY.plusDays(1))));
+        assertThat(reminders.pending(), is(0));
+
+        received.clear();
+        taskStorage.setTaskDeadline(1, MONDAY.plusDays(2));
+        reminders.advanceTo(MONDAY.plusDays(2));
+        assertThat(received, contains(reminder(DUE, 1, MONDAY.plusDays(2))));
+        assertThat(reminders.pending(), is(1));
+    }
+
+    @Test
+    void testCatchesUpWithoutRemindingOfThePast() {
+        taskStorage.addProject("secrets");
+        for (int i = 1; i <= 4; i++) {
+            taskStorage.addTask("secrets", "Task " + i);
+        }
+        taskStorage.setTaskDeadline(1, MONDAY.minusDays(3));
+        taskStorage.setTaskDeadline(2, MONDAY);
+        taskStorage.setTaskDeadline(3, MONDAY.plusDays(1));
+        taskStorage.setTaskDeadline(4, MONDAY.plusDays(1));
+        taskStorage.markTask(4, true);
+
+        follow();
+        reminders.advanceTo(MONDAY);
+        assertThat(received, is(empty()));
+
+        reminders.advanceTo(MONDAY.plusDays(1));
+        assertThat(received, containsInAnyOrder(reminder(OVERDUE, 2, MONDAY), reminder(DUE, 3, MONDAY.plusDays(1))));
+    }
+
+    @Test
+    void testDeliversChangesThatRemindRightAwayOnItsOwnThread() throws InterruptedException {
+        BlockingQueue<DeadlineReminders.Reminder> delivered = new LinkedBlockingQueue<>();
+        reminders.addListener(delivered::add);
+        reminders.follow(taskStorage);
+        reminders.start();
+        taskStorage.addProject("secrets");
+        taskStorage.addTask("secrets", "Eat more donuts.");
+
+        taskStorage.setTaskDeadline(1, LocalDate.now(Clock.systemDefaultZone()).minusYears(1));
+
+        assertThat(delivered.poll(5, TimeUnit.SECONDS), is(reminder(OVERDUE, 1,
+                LocalDate.now(Clock.systemDefaultZone()).minusYears(1))));
+    }
+
+    @Test
+    void testBrokenListenerDoesNotStopTheOthers() {
+        reminders.addListener(reminder -> {
+            throw new IllegalStateException("broken");
+        });
+        follow();
+        taskStorage.addProject("secrets");
+        taskStorage.addTask("secrets", "Eat more donuts.");
+        taskStorage.setTaskDeadline(1, MONDAY);
+
+        reminders.advanceTo(MONDAY);
+        assertThat(received, contains(reminder(DUE, 1, MONDAY)));
+    }
+
+    @Test
+    void testListeners() throws InterruptedException, IOException {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        reminders.addListener(ReminderListeners.logging(new PrintStream(log, true, StandardCharsets.UTF_8)));
+        ReminderListeners.Queue queue = new ReminderListeners.Queue(1);
+        reminders.addListener(queue);
+
+        BlockingQueue<String> posted = new LinkedBlockingQueue<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/hook", exchange -> {
+            posted.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            reminders.addListener(new ReminderListeners.Webhook(
+                    URI.create("http://localhost:" + server.getAddress().getPort() + "/hook"),
+                    new ObjectMapper().registerModule(new JavaTimeModule())));
+            follow();
+            taskStorage.addProject("secrets");
+            taskStorage.addTask("secrets", "Eat more donuts.");
+            taskStorage.setTaskDeadline(1, MONDAY.plusDays(1));
+            reminders.advanceTo(MONDAY.plusDays(2));
+
+            assertThat(log.toString(StandardCharsets.UTF_8), is(
+                    "Task 1 (secrets) is due today, 13-01-2026." + System.lineSeparator() +
+                    "Task 1 (secrets) is overdue, its deadline was 13-01-2026." + System.lineSeparator()));
+            assertThat(queue.poll(0, TimeUnit.SECONDS), is(reminder(DUE, 1, MONDAY.plusDays(1))));
+            assertThat(queue.poll(0, TimeUnit.SECONDS), is(nullValue()));
+            assertThat(queue.dropped(), is(1L));
+            //the posts are sent concurrently
+            List<String> bodies = List.of(posted.poll(5, TimeUnit.SECONDS), posted.poll(5, TimeUnit.SECONDS));
+            assertThat(bodies, containsInAnyOrder(containsString("\"kind\":\"DUE\""),
+                    containsString("\"kind\":\"OVERDUE\"")));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private void follow() {
+        reminders.addListener(received::add);
+        reminders.follow(taskStorage);
+    }
+
+    private static DeadlineReminders.Reminder reminder(DeadlineReminders.Kind kind, long taskId, LocalDate deadline) {
+        return new DeadlineReminders.Reminder(kind, taskId, "secrets", deadline);
+    }
+}
@@ -0,0 +1,120 @@
+package com.ortecfinance.tasklist;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DeadlineTreeTest {
+    private static final LocalDate START = LocalDate.of(2026, 1, 1);
+
+    @Test
+    void testWalksByDeadlineThenLocationWithoutDeadlineLast() {
+        DeadlineTree tree = DeadlineTree.empty()
+                .with(null, location(0, 1))
+                .with(START.plusDays(1), location(1, 2))
+                .with(START, location(1, 3))
+                .with(START, location(0, 4));
+
+        assertThat(ids(tree.iterator(null, null)), contains(4L, 3L, 2L, 1L));
+    }
+
+    @Test
+    void testRangeIncludesBothEndsAndNoTaskWithoutDeadline() {
+        DeadlineTree tree = DeadlineTree.empty();
+        for (int day = 0; day < 10; day++) {
+            tree = tree.with(START.plusDays(day), location(0, day + 1));
+        }
+        tree = tree.with(null, location(0, 11));
+
+        assertThat(ids(tree.iterator(START.plusDays(3), START.plusDays(5))), contains(4L, 5L, 6L));
+        assertThat(ids(tree.iterator(START.minusDays(5), START.minusDays(1))), is(empty()));
+    }
+
+    @Test
+    void testMatchesSortedSetUnderRandomChanges() {
+        Random random = new Random(42);
+        DeadlineTree tree = DeadlineTree.empty();
+        //id -> deadline of the reference, ids stand in for whole locations
+        TreeMap<Long, LocalDate> deadlines = new TreeMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            long id = 1 + random.nextInt(2_000);
+            LocalDate deadline = random.nextInt(5) == 0 ? null : START.plusDays(random.nextInt(60));
+            if (deadlines.containsKey(id)) {
+                tree = tree.without(deadlines.get(id), location(0, id));
+            }
+            tree = tree.with(deadline, location(0, id));
+            deadlines.put(id, deadline);
+        }
+
+        TreeSet<long[]> expected = new TreeSet<>(
+                Comparator.<long[]>comparingLong(entry -> entry[0]).thenComparingLong(entry -> entry[1]));
+        deadlines.forEach((id, deadline) ->
+                expected.add(new long[]{deadline != null ? deadline.toEpochDay() : Long.MAX_VALUE, id}));
+        List<Long> expectedIds = new ArrayList<>();
+        expected.forEach(entry -> expectedIds.add(entry[1]));
+
+        assertThat(tree.size(), is(deadlines.size()));
+        assertThat(ids(tree.iterator(null, null)), is(expectedIds));
+    }
+
+    @Test
+    void testOlderVersionsAreNotChanged() {
+        DeadlineTree first = DeadlineTree.empty().with(START, location(0, 1)).with(null, location(0, 2));
+        DeadlineTree second = first.without(START, location(0, 1)).with(START.plusDays(1), location(0, 1));
+
+        assertThat(ids(first.iterator(START, START)), contains(1L));
+        assertThat(ids(second.iterator(START, START)), is(empty()));
+        assertThat(ids(second.iterator(null, null)), contains(1L, 2L));
+    }
+
+    @Test
+    void testCopyOfMatchesAddingOneByOne() {
+        List<TaskLocation> locations = new ArrayList<>();
+        List<LocalDate> deadlines = new ArrayList<>();
+        DeadlineTree added = DeadlineTree.empty();
+        for (int i = 0; i < 1_000; i++) {
+            TaskLocation location = location(i % 3, i + 1);
+            LocalDate deadline = i % 4 == 0 ? null : START.plusDays(i % 17);
+            locations.add(location);
+            deadlines.add(deadline);
+            added = added.with(deadline, location);
+        }
+
+        DeadlineTree copied = DeadlineTree.copyOf(locations, deadlines);
+
+        assertThat(copied.size(), is(1_000));
+        assertThat(ids(copied.iterator(null, null)), is(ids(added.iterator(null, null))));
+        //the bulk built tree can be changed like any other
+        assertThat(ids(copied.without(deadlines.get(1), locations.get(1)).iterator(null, null)), hasSize(999));
+    }
+
+    @Test
+    void testExhaustedIteratorThrows() {
+        Iterator<TaskLocation> iterator = DeadlineTree.empty().iterator(null, null);
+
+        assertThat(iterator.hasNext(), is(false));
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    private static TaskLocation location(int projectOrdinal, long id) {
+        return new TaskLocation("project" + projectOrdinal, projectOrdinal, 0, id);
+    }
+
+    private static List<Long> ids(Iterator<TaskLocation> locations) {
+        List<Long> ids = new ArrayList<>();
+        locations.forEachRemaining(location -> ids.add(location.id()));
+        return ids;
+    }
+}
@@ -0,0 +1,83 @@
+package com.ortecfinance.tasklist;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class DeadlineWheelTest {
+
+    @Test
+    void testExpiresLikeASortedMap() {
+        Random random = new Random(11);
+        long start = 20_000;
+        DeadlineWheel<Integer> wheel = new DeadlineWheel<>(start);
+        //day -> values still pending, the reference
+        NavigableMap<Long, Set<Integer>> pending = new TreeMap<>();
+        List<DeadlineWheel.Timer<Integer>> timers = new ArrayList<>();
+        List<Long> filedUnder = new ArrayList<>();
+        long today = start;
+
+        for (int round = 0; round < 2000; round++) {
+            for (int i = 0; i < 20; i++) {
+                int value = timers.size();
+                //mostly near days, some on every level and some beyond the wheel
+                long day = today + switch (random.nextInt(5)) {
+                    case 0 -> random.nextInt(64);
+                    case 1 -> random.nextInt(4096);
+                    case 2 -> random.nextInt(300_000);
+                    case 3 -> random.nextInt(10) - 5;
+                    default -> 250_000 + random.nextInt(100_000);
+                };
+                timers.add(wheel.add(value, day));
+                filedUnder.add(Math.max(day, today));
+                pending.computeIfAbsent(Math.max(day, today), d -> new HashSet<>()).add(value);
+            }
+            for (int i = 0; i < 5; i++) {
+                DeadlineWheel.Timer<Integer> timer = timers.get(random.nextInt(timers.size()));
+                if (timer.isPending()) {
+                    wheel.cancel(timer);
+                    pending.get(filedUnder.get(timer.value())).remove(timer.value());
+                }
+            }
+
+            today += random.nextInt(10) == 0 ? random.nextInt(5000) : random.nextInt(3);
+            wheel.advanceTo(today);
+            Set<Integer> expected = new HashSet<>();
+            pending.headMap(today, true).values().forEach(expected::addAll);
+            pending.headMap(today, true).clear();
+            Set<Integer> expired = new HashSet<>();
+            wheel.takeExpired(timer -> {
+                assertThat(timer.day(), is(lessThanOrEqualTo(wheel.today())));
+                expired.add(timer.value());
+            });
+
+            assertThat("round " + round, expired, is(expected));
+            assertThat(wheel.size(), is(pending.values().stream().mapToInt(Set::size).sum()));
+        }
+
+        wheel.advanceTo(today + 400_000);
+        List<Integer> rest = new ArrayList<>();
+        wheel.takeExpired(timer -> rest.add(timer.value()));
+        assertThat(rest, hasSize(pending.values().stream().mapToInt(Set::size).sum()));
+        assertThat(wheel.size(), is(0));
+    }
+
+    @Test
+    void testCancelledTimersNeverExpire() {
+        DeadlineWheel<String> wheel = new DeadlineWheel<>(0);
+        DeadlineWheel.Timer<String> kept = wheel.add("kept", 100);
+        DeadlineWheel.Timer<String> cancelled = wheel.add("cancelled", 100);
+        wheel.cancel(cancelled);
+        wheel.cancel(cancelled);
+
+        wheel.advanceTo(100);
+        List<String> expired = new ArrayList<>();
+        wheel.takeExpired(timer -> expired.add(timer.value()));
+        assertThat(expired, contains("kept"));
+        assertThat(kept.isPending(), is(false));
+        assertThat(wheel.size(), is(0));
+    }
+}
@@ -0,0 +1,74 @@
+package com.ortecfinance.tasklist;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class DescriptionArenaTest {
+
+    @Test
+    void testIdenticalDescriptionsAreStoredOnce() {
+        DescriptionArena arena = new DescriptionArena();
+        long first = arena.intern("Write tests");
+        long other = arena.intern("Code review");
+        long again = arena.intern(new String("Write tests"));
+
+        assertThat(again, is(first));
+        assertThat(other, is(not(first)));
+        assertThat(arena.size(), is(2));
+        assertThat(arena.byteSize(), is((long) (4 + "Write tests".length() + 4 + "Code review".length())));
+    }
+
+    @Test
+    void testDescriptionsDecodeToTheSameText() throws IOException {
+        DescriptionArena arena = new DescriptionArena();
+        String[] descriptions = {"", "Eat more donuts.", "träining 🚀", "Zweiundvierzig – ∑", "x".repeat(3_000_000)};
+        List<Long> handles = new ArrayList<>();
+        for (String description : descriptions) {
+            handles.add(arena.intern(description));
+        }
+
+        for (int i = 0; i < descriptions.length; i++) {
+            assertThat(arena.decode(handles.get(i)), is(descriptions[i]));
+            StringBuilder appended = new StringBuilder("> ");
+            arena.appendTo(handles.get(i), appended);
+            assertThat(appended.toString(), is("> " + descriptions[i]));
+        }
+    }
+
+    @Test
+    void testManyDescriptionsOverSeveralChunks() {
+        DescriptionArena arena = new DescriptionArena();
+        long[] handles = new long[200_000];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = arena.intern("Task number " + i);
+        }
+        for (int i = 0; i < handles.length; i++) {
+            assertThat(arena.intern("Task number " + i), is(handles[i]));
+        }
+
+        assertThat(arena.size(), is(handles.length));
+        assertThat(arena.decode(handles[0]), is("Task number 0"));
+        assertThat(arena.decode(handles[handles.length - 1]), is("Task number 199999"));
+        assertThat(handles[handles.length - 1] >>> 32, is(greaterThan(0L)));
+    }
+
+    @Test
+    void testStoredTasksKeepTheirDescriptionWhenChanged() {
+        TaskStorage taskStorage = new TaskStorage();
+        taskStorage.addProject("secrets");
+        taskStorage.addProject("training");
+        taskStorage.addTask("secrets", "Write tests");
+        taskStorage.addTask("training", "Write tests");
+        taskStorage.markTask(2, true);
+
+        assertThat(taskStorage.returnTaskByID(1).getDescription(), is("Write tests"));
+        assertThat(taskStorage.returnTaskByID(2).getDescription(), is("Write tests"));
+        assertThat(taskStorage.returnTaskByID(2).isDone(), is(true));
+    }
+}
@@ -0,0 +1,60 @@
+package com.ortecfinance.tasklist;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LongObjectMapTest {
+
+    @Test
+    void testPutAndGet() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(1, "one");
+        map.put(2, "two");
+
+        assertThat(map.get(1), is("one"));
+        assertThat(map.get(2), is("two"));
+        assertThat(map.size(), is(2));
+    }
+
+    @Test
+    void testGetMissingKeyReturnsNull() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(1, "one");
+
+        assertThat(map.get(999), is(nullValue()));
+        assertThat(map.get(0), is(nullValue()));
+        assertThat(map.get(-1), is(nullValue()));
+    }
+
+    @Test
+    void testPutReplacesExistingValue() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(7, "old");
+
+        assertThat(map.put(7, "new"), is("old"));
+        assertThat(map.get(7), is("new"));
+        assertThat(map.size(), is(1));
+    }
+
+    @Test
+    void testGrowsBeyondInitialCapacity() {
+        LongObjectMap<Long> map = new LongObjectMap<>(4);
+        for (long i = 1; i <= 100_000; i++) {
+            map.put(i, i * 10);
+        }
+
+        assertThat(map.size(), is(100_000));
+        for (long i = 1; i <= 100_000; i++) {
+            assertThat(map.get(i), is(i * 10));
+        }
+    }
+
+    @Test
+    void testZeroKeyIsRejected() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        assertThrows(IllegalArgumentException.class, () -> map.put(0, "zero"));
+    }
+}
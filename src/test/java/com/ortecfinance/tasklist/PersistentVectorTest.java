@@ -0,0 +1,65 @@
+package com.ortecfinance.tasklist;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PersistentVectorTest {
+
+    @Test
+    void testAppendAndGetAcrossTrieLevels() {
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        for (int i = 0; i < 40_000; i++) {
+            vector = vector.append(i);
+        }
+
+        assertThat(vector.size(), is(40_000));
+        for (int i = 0; i < 40_000; i++) {
+            assertThat(vector.get(i), is(i));
+        }
+    }
+
+    @Test
+    void testOlderVersionsAreNotChanged() {
+        PersistentVector<String> first = PersistentVector.<String>empty().append("a").append("b");
+        PersistentVector<String> second = first.append("c");
+        PersistentVector<String> third = second.with(0, "z");
+
+        assertThat(first, contains("a", "b"));
+        assertThat(second, contains("a", "b", "c"));
+        assertThat(third, contains("z", "b", "c"));
+    }
+
+    @Test
+    void testIteratorVisitsEveryElementInOrder() {
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 1_100; i++) {
+            vector = vector.append(i);
+            expected.add(i);
+        }
+
+        assertThat(new ArrayList<>(vector), is(expected));
+    }
+
+    @Test
+    void testOutOfBoundsThrows() {
+        PersistentVector<String> vector = PersistentVector.<String>empty().append("a");
+
+        assertThrows(IndexOutOfBoundsException.class, () -> vector.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> vector.with(-1, "b"));
+    }
+
+    @Test
+    void testIsUnmodifiable() {
+        PersistentVector<String> vector = PersistentVector.<String>empty().append("a");
+
+        assertThrows(UnsupportedOperationException.class, () -> vector.add("b"));
+        assertThrows(UnsupportedOperationException.class, () -> vector.set(0, "b"));
+    }
+}
@@ -0,0 +1,98 @@
+package com.ortecfinance.tasklist;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class ProjectStatsIndexTest {
+    private static final LocalDate MONDAY = LocalDate.of(2026, 1, 12);
+
+    @Test
+    void testCountsTasksRelativeToToday() {
+        ProjectStatsIndex index = new ProjectStatsIndex(MONDAY);
+        index.addProject();
+        index.addTask(0, false, null);
+        index.addTask(0, false, null);
+        index.addTask(0, false, null);
+        index.addTask(0, true, MONDAY.minusDays(3));
+
+        index.setDeadline(0, false, null, MONDAY.minusDays(1));
+        index.setDeadline(0, false, null, MONDAY);
+        assertThat(index.stats(0), is(new ProjectStats(3, 1, 1, 1)));
+
+        //done tasks are neither overdue nor due
+        index.markTask(0, false, true, MONDAY);
+        assertThat(index.stats(0), is(new ProjectStats(2, 2, 1, 0)));
+        index.markTask(0, true, true, MONDAY);
+        assertThat(index.stats(0), is(new ProjectStats(2, 2, 1, 0)));
+        index.setDeadline(0, true, MONDAY, MONDAY.minusDays(5));
+        assertThat(index.stats(0), is(new ProjectStats(2, 2, 1, 0)));
+        index.markTask(0, true, false, MONDAY.minusDays(5));
+        assertThat(index.stats(0), is(new ProjectStats(3, 1, 2, 0)));
+    }
+
+    @Test
+    void testRollsOverToAnyDay() {
+        ProjectStatsIndex index = new ProjectStatsIndex(MONDAY);
+        index.addProject();
+        index.addProject();
+        for (int day = 0; day < 5; day++) {
+            index.addTask(1, false, MONDAY.plusDays(day));
+        }
+        index.addTask(1, false, MONDAY.plusDays(2));
+        assertThat(index.stats(1), is(new ProjectStats(6, 0, 0, 1)));
+
+        index.rollTo(MONDAY.plusDays(1));
+        assertThat(index.stats(1), is(new ProjectStats(6, 0, 1, 1)));
+        index.rollTo(MONDAY.plusDays(2));
+        assertThat(index.stats(1), is(new ProjectStats(6, 0, 2, 2)));
+        index.rollTo(MONDAY.plusDays(30));
+        assertThat(index.stats(1), is(new ProjectStats(6, 0, 6, 0)));
+        index.rollTo(MONDAY.minusDays(1));
+        assertThat(index.stats(1), is(new ProjectStats(6, 0, 0, 0)));
+        assertThat(index.stats(0), is(new ProjectStats(0, 0, 0, 0)));
+    }
+
+    @Test
+    void testMatchesCountingEveryTask() {
+        TaskStorage taskStorage = new TaskStorage();
+        Random random = new Random(7);
+        LocalDate today = LocalDate.now();
+        for (int p = 0; p < 10; p++) {
+            taskStorage.addProject("project" + p);
+        }
+        for (int i = 1; i <= 2000; i++) {
+            taskStorage.addTask("project" + random.nextInt(10), "Task " + i);
+            long id = 1 + random.nextInt(i);
+            switch (random.nextInt(3)) {
+                case 0 -> taskStorage.markTask(id, random.nextBoolean());
+                case 1 -> taskStorage.setTaskDeadline(id, today.plusDays(random.nextInt(7) - 3));
+                default -> taskStorage.setTaskDeadline(id, null);
+            }
+        }
+
+        Map<String, ProjectStats> stats = taskStorage.getProjectStats();
+        for (Map.Entry<String, List<Task>> project : taskStorage.getAllProjects().entrySet()) {
+            int open = 0, done = 0, overdue = 0, dueToday = 0;
+            for (Task task : project.getValue()) {
+                if (task.isDone()) {
+                    done++;
+                    continue;
+                }
+                open++;
+                if (task.getDeadline() != null && task.getDeadline().isBefore(today)) {
+                    overdue++;
+                } else if (today.equals(task.getDeadline())) {
+                    dueToday++;
+                }
+            }
+            assertThat(project.getKey(), stats.get(project.getKey()), is(new ProjectStats(open, done, overdue, dueToday)));
+        }
+    }
+}
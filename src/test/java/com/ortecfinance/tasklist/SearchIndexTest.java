@@ -0,0 +1,70 @@
+package com.ortecfinance.tasklist;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class SearchIndexTest {
+
+    private static final String[] WORDS = {"write", "tests", "code", "review", "deploy", "fix", "bug", "rare"};
+
+    @Test
+    void testSearchRanksLikeCountingEveryTask() {
+        Random random = new Random(7);
+        SearchIndex index = new SearchIndex();
+        Map<Long, Set<String>> descriptions = new HashMap<>();
+        for (long id = 1; id <= 2000; id++) {
+            StringBuilder description = new StringBuilder();
+            for (String word : WORDS) {
+                //the words get rarer along the list, "rare" is in one task out of a few hundred
+                if (random.nextInt(WORDS.length * 40) < (WORDS.length - Arrays.asList(WORDS).indexOf(word)) * 30) {
+                    description.append(word.toUpperCase(Locale.ROOT)).append(", ");
+                }
+            }
+            index.add(id, description.toString());
+            descriptions.put(id, SearchIndex.words(description.toString()));
+        }
+
+        String[] queries = {"write", "write tests", "rare write", "bug fix rare", "code review deploy fix bug", "nothing"};
+        for (String query : queries) {
+            for (int limit : new int[]{1, 5, 100, 5000}) {
+                for (int modulo : new int[]{1, 3}) {
+                    List<SearchIndex.Match> expected = bruteForce(descriptions, query, modulo, limit);
+                    List<SearchIndex.Match> actual = index.search(query, id -> id % modulo == 0, limit);
+                    assertThat(query + " " + limit + " " + modulo, actual, is(expected));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testIdsAddedOutOfOrderAreSorted() {
+        SearchIndex index = new SearchIndex();
+        index.add(3, "Write tests");
+        index.add(1, "write code");
+        index.add(2, "tests");
+        index.sort();
+
+        assertThat(index.search("tests write", id -> true, 10).stream().map(SearchIndex.Match::id).toList(),
+                contains(3L, 1L, 2L));
+    }
+
+    private static List<SearchIndex.Match> bruteForce(Map<Long, Set<String>> descriptions, String query,
+                                                      int modulo, int limit) {
+        Set<String> words = SearchIndex.words(query);
+        List<SearchIndex.Match> matches = new ArrayList<>();
+        for (Map.Entry<Long, Set<String>> task : descriptions.entrySet()) {
+            int count = (int) words.stream().filter(task.getValue()::contains).count();
+            if (count > 0 && task.getKey() % modulo == 0) {
+                matches.add(new SearchIndex.Match(task.getKey(), count));
+            }
+        }
+        matches.sort(Comparator.comparingInt(SearchIndex.Match::matches).reversed()
+                .thenComparingLong(SearchIndex.Match::id));
+        return matches.subList(0, Math.min(limit, matches.size()));
+    }
+}
@@ -0,0 +1,189 @@
+package com.ortecfinance.tasklist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SnapshotFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWriteAndReadRoundTrip() throws IOException {
+        TaskStorage taskStorage = new TaskStorage();
+        taskStorage.addProject("secrets");
+        taskStorage.addProject("träining 🚀");
+        taskStorage.addTask("secrets", "Eat more donuts.");
+        taskStorage.addTask("träining 🚀", "Zweiundvierzig – ∑ and \uD83D");
+        taskStorage.markTask(1, true);
+        taskStorage.setTaskDeadline(2, LocalDate.of(2026, 1, 15));
+
+        Path path = directory.resolve("tasklist.snapshot");
+        SnapshotFile.write(path, taskStorage.snapshot(), 42, 2);
+        SnapshotFile.Contents contents = SnapshotFile.read(path);
+
+        assertThat(contents.walSequence(), is(42L));
+        assertThat(contents.lastId(), is(2L));
+        assertThat(contents.projectNames(), contains("secrets", "träining 🚀"));
+        Task first = contents.projectTasks().get(0).getFirst();
+        assertThat(first.getId(), is(1L));
+        assertThat(first.isDone(), is(true));
+        assertThat(first.getDeadline(), is(nullValue()));
+        Task second = contents.projectTasks().get(1).getFirst();
+        //the lone surrogate is replaced, like String.getBytes does
+        assertThat(second.getDescription(), is("Zweiundvierzig – ∑ and ?"));
+        assertThat(second.getDeadline(), is(LocalDate.of(2026, 1, 15)));
+    }
+
+    @Test
+    void testDeadlinesOutsideTheIntRangeRoundTrip() throws IOException {
+        TaskStorage taskStorage = new TaskStorage();
+        taskStorage.addProject("secrets");
+        taskStorage.addTask("secrets", "Eat more donuts.");
+        taskStorage.addTask("secrets", "Destroy all humans.");
+        taskStorage.addTask("secrets", "Take over the world.");
+        //epoch day 2^31 used to wrap to Integer.MIN_VALUE and read back as no deadline
+        LocalDate wrapsToNoDeadline = LocalDate.ofEpochDay(1L << 31);
+        taskStorage.setTaskDeadline(1, wrapsToNoDeadline);
+        taskStorage.setTaskDeadline(2, LocalDate.MAX);
+        taskStorage.setTaskDeadline(3, LocalDate.MIN);
+
+        Path path = directory.resolve("tasklist.snapshot");
+        SnapshotFile.write(path, taskStorage.snapshot(), 1, 3);
+        List<Task> tasks = SnapshotFile.read(path).projectTasks().getFirst();
+
+        assertThat(tasks.get(0).getDeadline(), is(wrapsToNoDeadline));
+        assertThat(tasks.get(1).getDeadline(), is(LocalDate.MAX));
+        assertThat(tasks.get(2).getDeadline(), is(LocalDate.MIN));
+    }
+
+    @Test
+    void testCorruptSnapshotIsRejected() throws IOException {
+        TaskStorage taskStorage = new TaskStorage();
+        taskStorage.addProject("secrets");
+        Path path = directory.resolve("tasklist.snapshot");
+        SnapshotFile.write(path, taskStorage.snapshot(), 1, 0);
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 0x7F;
+        Files.write(path, bytes);
+
+        assertThrows(IOException.class, () -> SnapshotFile.read(path));
+    }
+
+    @Test
+    void testRestartLoadsSnapshotAndReplaysOnlyNewerRecords() throws IOException {
+        Path walPath = directory.resolve("tasklist.wal");
+        Path snapshotPath = directory.resolve("tasklist.snapshot");
+
+        try (TaskStorage taskStorage = open(walPath, snapshotPath)) {
+            taskStorage.addProject("secrets");
+            taskStorage.addTask("secrets", "Eat more donuts.");
+            taskStorage.addTask("secrets", "Destroy all humans.");
+            taskStorage.setTaskDeadline(1, LocalDate.of(2021, 1, 1));
+            taskStorage.checkpoint();
+
+            taskStorage.markTask(2, true);
+            taskStorage.addTask("secrets", "Take over the world.");
+        }
+
+        //only the two changes after the checkpoint are left in the log
+        List<LogRecord> records = new ArrayList<>();
+        try (WriteAheadLog log = WriteAheadLog.open(walPath, WriteAheadLog.Durability.SYNC, 10)) {
+            log.replay(records::add);
+        }
+        assertThat(records, contains(
+                new LogRecord.MarkTask(2, true),
+                new LogRecord.AddTask(3, "secrets", "Take over the world.")));
+
+        try (TaskStorage restored = open(walPath, snapshotPath)) {
+            Map<String, List<Task>> projects = restored.getAllProjects();
+            assertThat(projects.get("secrets"), hasSize(3));
+            assertThat(restored.returnTaskByID(2).isDone(), is(true));
+
+            restored.addTask("secrets", "Write more tests.");
+            assertThat(restored.returnTaskByID(4).getDescription(), is("Write more tests."));
+            //the search index is rebuilt from the snapshot and the replayed records
+            assertThat(restored.search("donuts world tests", TaskSearch.Filter.NONE, 10).stream()
+                    .map(hit -> hit.task().getId()).toList(), contains(1L, 3L, 4L));
+            assertThat(restored.getProjectStats().get("secrets"), is(new ProjectStats(3, 1, 1, 0)));
+        }
+    }
+
+    @Test
+    void testCrashBetweenRotationAndSnapshotKeepsAllRecords() throws IOException {
+        Path walPath = directory.resolve("tasklist.wal");
+        Path snapshotPath = directory.resolve("tasklist.snapshot");
+
+        try (TaskStorage taskStorage = open(walPath, snapshotPath)) {
+            taskStorage.addProject("secrets");
+            taskStorage.addTask("secrets", "Eat more donuts.");
+        }
+        //the log was rotated but the snapshot never made it to disk
+        Files.move(walPath, walPath.resolveSibling("tasklist.wal.prev"));
+
+        try (TaskStorage restored = open(walPath, snapshotPath)) {
+            assertThat(restored.getAllProjects().get("secrets"), hasSize(1));
+            restored.addTask("secrets", "Destroy all humans.");
+            restored.checkpoint();
+        }
+        assertThat(Files.exists(walPath.resolveSibling("tasklist.wal.prev")), is(false));
+
+        try (TaskStorage restored = open(walPath, snapshotPath)) {
+            assertThat(restored.getAllProjects().get("secrets"), hasSize(2));
+        }
+    }
+
+    @Test
+    void testCloseWritesFinalSnapshotWhenCheckpointsAreScheduled() throws IOException {
+        Path walPath = directory.resolve("tasklist.wal");
+        Path snapshotPath = directory.resolve("tasklist.snapshot");
+
+        try (TaskStorage taskStorage = open(walPath, snapshotPath)) {
+            taskStorage.startPeriodicCheckpoints(java.time.Duration.ofHours(1));
+            taskStorage.addProject("secrets");
+        }
+
+        assertThat(SnapshotFile.read(snapshotPath).projectNames(), contains("secrets"));
+        assertThat(Files.size(walPath), is(0L));
+    }
+
+    @Test
+    void testCloseDuringAPeriodicCheckpointKeepsEverything() throws IOException {
+        Path walPath = directory.resolve("tasklist.wal");
+        Path snapshotPath = directory.resolve("tasklist.snapshot");
+
+        //checkpoints run back to back, so close() almost always meets one in the middle of its IO
+        for (int round = 0; round < 20; round++) {
+            try (TaskStorage taskStorage = open(walPath, snapshotPath)) {
+                taskStorage.startPeriodicCheckpoints(java.time.Duration.ofMillis(1));
+                if (round == 0) {
+                    taskStorage.addProject("secrets");
+                }
+                for (int i = 0; i < 50; i++) {
+                    taskStorage.addTask("secrets", "Task number " + i);
+                }
+            }
+        }
+
+        try (TaskStorage restored = open(walPath, snapshotPath)) {
+            assertThat(restored.getAllProjects().get("secrets"), hasSize(20 * 50));
+        }
+    }
+
+    private static TaskStorage open(Path walPath, Path snapshotPath) throws IOException {
+        return new TaskStorage(WriteAheadLog.open(walPath, WriteAheadLog.Durability.SYNC, 10), snapshotPath);
+    }
+}
@@ -0,0 +1,143 @@
+package com.ortecfinance.tasklist;
+
+import java.time.LocalDate;
+
+import static com.ortecfinance.tasklist.CommandParser.*;
+
+//The String.split based parser CommandParser replaced, kept as the reference its results are
+//compared with in CommandParserTest and as the baseline of CommandParserBenchmark
+final class SplitCommandParser {
+
+    private SplitCommandParser() {
+    }
+
+    //subfunction to parse the date given dd-mm-yyyy format
+    static LocalDate parseDate(String dateString) {
+        String[] parts = dateString.split("-");
+        int day = Integer.parseInt(parts[0]);
+        int month = Integer.parseInt(parts[1]);
+        int year = Integer.parseInt(parts[2]);
+        return LocalDate.of(year, month, day);
+    }
+
+    static Command parse(String commandLine) {
+        if (commandLine == null || commandLine.trim().isEmpty()) {
+            return new UnknownCommand("");
+        }
+
+        String[] commandRest = commandLine.split(" ", 2);
+        String command = commandRest[0];
+
+        switch (command) {
+            case "show":
+                if (commandRest.length < 2 || commandRest[1].trim().isEmpty()) {
+                    return new ShowCommand(null);
+                }
+                return new ShowCommand(commandRest[1]);
+            case "add":
+                if (commandRest.length < 2) {
+                    return new ErrorCommand("Please specify what to add (project/task).");
+                }
+                return parseAddCommand(commandRest[1]);
+            case "check":
+                if (commandRest.length < 2) {
+                    return new ErrorCommand("Please provide a task ID");
+                }
+                return parseCheckCommand(commandRest[1], true);
+            case "uncheck":
+                if (commandRest.length < 2) {
+                    return new ErrorCommand("Please provide a task ID");
+                }
+                return parseCheckCommand(commandRest[1], false);
+            case "deadline":
+                if (commandRest.length < 2) {
+                    return new ErrorCommand("Please provide a task ID");
+                }
+                return parseDeadlineCommand(commandRest[1]);
+            case "today":
+                return new TodayCommand();
+            case "view-by-deadline":
+                return new ViewByDeadlineCommand();
+            case "due":
+                if (commandRest.length < 2) {
+                    return new ErrorCommand("Please provide a start and an end date.");
+                }
+                return parseDueCommand(commandRest[1]);
+            case "help":
+                return new HelpCommand();
+            default:
+                return new UnknownCommand(command);
+        }
+    }
+
+    //Command to add projects/tasks
+    private static Command parseAddCommand(String arguments) {
+        String[] subcommandRest = arguments.split(" ", 2);
+        String subcommand = subcommandRest[0];
+
+        if (subcommand.equals("project")) {
+            if (subcommandRest.length < 2) {
+                return new ErrorCommand("Please provide a project name.");
+            }
+            return new AddProjectCommand(subcommandRest[1]);
+        }
+        else if (subcommand.equals("task")) {
+            if (subcommandRest.length < 2) {
+                return new ErrorCommand("Please provide a project name and task description.");
+            }
+            String[] projectTask = subcommandRest[1].split(" ", 2);
+            if (projectTask.length < 2) {
+                return new ErrorCommand("Please provide both the project name and task description.");
+            }
+            return new AddTaskCommand(projectTask[0], projectTask[1]);
+        }
+        else {
+            return new ErrorCommand("Unknown add subcommand. Use 'add project' or 'add task'.");
+        }
+    }
+
+    // Command for (un)checking a given task
+    private static Command parseCheckCommand(String idString, boolean done) {
+        try {
+            long id = Long.parseLong(idString);
+            return new CheckCommand(id, done);
+        } catch (NumberFormatException e) {
+            return new ErrorCommand("Invalid task ID: " + idString);
+        }
+    }
+
+    // Command for adding a deadline to a task
+    private static Command parseDeadlineCommand(String arguments) {
+        try {
+            String[] parts = arguments.split(" ", 2);
+            if (parts.length < 2) {
+                return new ErrorCommand("Please provide both an ID and a deadline.");
+            }
+            long taskId = Long.parseLong(parts[0]);
+            LocalDate deadline = parseDate(parts[1]);
+            return new DeadlineCommand(taskId, deadline);
+        } catch (NumberFormatException e) {
+            return new ErrorCommand("Invalid task ID");
+        } catch (Exception e) {
+            return new ErrorCommand("Please use the format: deadline <task ID> <dd-mm-yyyy>");
+        }
+    }
+
+    // Command for viewing the tasks with a deadline between two dates
+    private static Command parseDueCommand(String arguments) {
+        try {
+            String[] parts = arguments.split(" ", 2);
+            if (parts.length < 2) {
+                return new ErrorCommand("Please provide a start and an end date.");
+            }
+            LocalDate from = parseDate(parts[0]);
+            LocalDate to = parseDate(parts[1]);
+            if (from.isAfter(to)) {
+                return new ErrorCommand("The start date cannot be after the end date.");
+            }
+            return new DueCommand(from, to);
+        } catch (Exception e) {
+            return new ErrorCommand("Please use the format: due <dd-mm-yyyy> <dd-mm-yyyy>");
+        }
+    }
+}
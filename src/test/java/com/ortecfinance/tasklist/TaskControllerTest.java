@@ -0,0 +1,145 @@
+package com.ortecfinance.tasklist;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class TaskControllerTest {
+    private final TaskStorage taskStorage = new TaskStorage();
+    private final TaskController controller = new TaskController(new TaskService(taskStorage), new ObjectMapper(),
+            TaskMetrics.NONE, new ChangeFeed());
+    private final MockMvc mvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+    @Test
+    void testBadBatchItemsFailOnTheirOwn() {
+        taskStorage.addProject("secrets");
+
+        List<TaskBatch.ItemResult> created = controller.createTasks(Arrays.asList(
+                Map.of("project", "secrets", "description", "Eat more donuts."),
+                Map.of("project", "secrets"),
+                null,
+                Map.of("project", "secrets", "description", "Destroy all humans.")));
+
+        assertThat(created, contains(
+                TaskBatch.ItemResult.succeeded(1),
+                TaskBatch.ItemResult.failed(null, "Every item needs a project and a description"),
+                TaskBatch.ItemResult.failed(null, "Every item needs a project and a description"),
+                TaskBatch.ItemResult.succeeded(2)));
+
+        List<TaskBatch.ItemResult> updated = controller.updateTasks(List.of(
+                Map.of("id", "1", "done", "true"),
+                Map.of("id", "one", "done", "true"),
+                Map.of("id", "2", "deadline", "31-02-2026"),
+                Map.of("id", "2", "done", "yes"),
+                Map.of("done", "true"),
+                Map.of("id", "7", "done", "true"),
+                Map.of("id", "2", "deadline", "15-01-2026")));
+
+        assertThat(updated, contains(
+                TaskBatch.ItemResult.succeeded(1),
+                TaskBatch.ItemResult.failed(null, "Invalid task ID: one"),
+                TaskBatch.ItemResult.failed(2L, "Invalid deadline: 31-02-2026"),
+                TaskBatch.ItemResult.failed(2L, "done must be true or false: yes"),
+                TaskBatch.ItemResult.failed(null, "Every item needs an id"),
+                TaskBatch.ItemResult.failed(7L, "Task not found: 7"),
+                TaskBatch.ItemResult.succeeded(2)));
+        assertThat(taskStorage.returnTaskByID(1).isDone(), is(true));
+        assertThat(taskStorage.returnTaskByID(2).isDone(), is(false));
+        assertThat(taskStorage.returnTaskByID(2).getDeadline(), is(LocalDate.of(2026, 1, 15)));
+    }
+
+    @Test
+    void testBadCursorsAndLimitsAreBadRequests() {
+        taskStorage.addProject("secrets");
+        taskStorage.addTask("secrets", "Eat more donuts.");
+        taskStorage.setTaskDeadline(1, LocalDate.of(2026, 1, 15));
+
+        String[] badCursors = {"not a cursor!", PageCursor.encode(1, 2), PageCursor.encode(7, 0),
+                PageCursor.encode(Long.MAX_VALUE, 0, 0), "MS4y"};
+        for (String cursor : badCursors) {
+            assertBadRequest(() -> controller.getProjectsPage(10, cursor, request()));
+            assertBadRequest(() -> controller.getTasksByDeadlinePage(10, cursor, request()));
+        }
+        for (int limit : new int[]{0, -1}) {
+            assertBadRequest(() -> controller.getProjectsPage(limit, null, request()));
+            assertBadRequest(() -> controller.getTasksByDeadlinePage(limit, null, request()));
+            assertBadRequest(() -> controller.searchTasks("donuts", null, null, null, limit, request()));
+        }
+        for (String due : List.of("15-13-2026", "31-02-2026", "fifteen-01-2026", "---")) {
+            assertBadRequest(() -> controller.searchTasks("donuts", null, null, due, 10, request()));
+        }
+        assertThat(controller.searchTasks("donuts", null, null, "31-01-2026", 10, request()), hasSize(1));
+        assertThat(controller.getProjectsPage(10, null, request()).items().keySet(), contains("secrets"));
+    }
+
+    @Test
+    void testBadDueDatesAndRangesAreBadRequests() {
+        taskStorage.addProject("secrets");
+        taskStorage.addTask("secrets", "Eat more donuts.");
+        taskStorage.setTaskDeadline(1, LocalDate.of(2026, 1, 15));
+
+        for (String bad : List.of("15-13-2026", "31-02-2026", "fifteen-01-2026", "---")) {
+            assertBadRequest(() -> controller.getTasksDueBetween(bad, "31-01-2026", request()));
+            assertBadRequest(() -> controller.getTasksDueBetween("01-01-2026", bad, request()));
+        }
+        //from after to
+        assertBadRequest(() -> controller.getTasksDueBetween("31-01-2026", "01-01-2026", request()));
+
+        assertThat(controller.getTasksDueBetween("01-01-2026", "31-01-2026", request()).getStatusCode(),
+                is(HttpStatus.OK));
+    }
+
+    @Test
+    void testReservedProjectNamesAreBadRequests() throws Exception {
+        for (String name : List.of("stats", "view_by_deadline")) {
+            mvc.perform(post("/projects").contentType(MediaType.APPLICATION_JSON).content("{\"name\": \"" + name + "\"}"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.detail").value("Project name is reserved: " + name));
+        }
+        mvc.perform(post("/projects").contentType(MediaType.APPLICATION_JSON).content("{\"name\": \"statistics\"}"))
+                .andExpect(status().isOk());
+        assertThat(taskStorage.getAllProjects().keySet(), contains("statistics"));
+    }
+
+    @Test
+    void testMissingNameOrDescriptionIsBadRequest() throws Exception {
+        mvc.perform(post("/projects").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Every project needs a name"));
+        taskStorage.addProject("secrets");
+        mvc.perform(post("/projects/secrets/tasks").contentType(MediaType.APPLICATION_JSON).content("{\"done\": \"true\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Every task needs a description"));
+
+        assertThat(taskStorage.getAllProjects().keySet(), contains("secrets"));
+        assertThat(taskStorage.getAllProjects().get("secrets"), is(empty()));
+    }
+
+    private static void assertBadRequest(Runnable call) {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, call::run);
+        assertThat(e.getStatusCode(), is(HttpStatus.BAD_REQUEST));
+    }
+
+    private static WebRequest request() {
+        return new ServletWebRequest(new MockHttpServletRequest());
+    }
+}
@@ -0,0 +1,275 @@
+package com.ortecfinance.tasklist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TaskDumpTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testExportAndImportRoundTrip() throws IOException {
+        TaskStorage source = new TaskStorage();
+        source.addProject("secrets");
+        source.addProject("träining 🚀");
+        source.addProject("empty");
+        source.addTask("secrets", "Eat more donuts.");
+        source.addTask("träining 🚀", "Zweiundvierzig – ∑");
+        source.addTask("secrets", "Destroy all humans.");
+        source.markTask(1, true);
+        source.setTaskDeadline(2, LocalDate.of(2026, 1, 15));
+        source.setTaskDeadline(3, LocalDate.of(1960, 3, 1));
+
+        byte[] dump = export(source);
+        TaskStorage target = new TaskStorage();
+        TaskDump.Summary summary = new TaskService(target).importTasks(Channels.newChannel(new ByteArrayInputStream(dump)));
+
+        assertThat(summary, is(new TaskDump.Summary(3, 3)));
+        //imported into an empty storage, the tasks keep their ids
+        assertThat(target.getAllProjects().keySet(), contains("secrets", "träining 🚀", "empty"));
+        assertThat(describe(target), is(describe(source)));
+        assertThat(target.getTasksSortedByDeadline().keySet(), is(source.getTasksSortedByDeadline().keySet()));
+    }
+
+    @Test
+    void testImportAddsToExistingProjectsWithNewIds() throws IOException {
+        TaskStorage source = new TaskStorage();
+        source.addProject("secrets");
+        source.addTask("secrets", "Eat more donuts.");
+        source.markTask(1, true);
+
+        TaskStorage target = new TaskStorage();
+        target.addProject("secrets");
+        target.addTask("secrets", "Destroy all humans.");
+        target.addProject("training");
+        importInto(target, export(source));
+
+        assertThat(target.getAllProjects().keySet(), contains("secrets", "training"));
+        assertThat(describe(target), contains("secrets 1 Destroy all humans. false null",
+                "secrets 2 Eat more donuts. true null"));
+        target.addTask("training", "SOLID");
+        assertThat(target.returnTaskByID(3).getDescription(), is("SOLID"));
+    }
+
+    @Test
+    void testRepeatedDescriptionsAreWrittenOnce() throws IOException {
+        TaskStorage taskStorage = new TaskStorage();
+        taskStorage.addProject("chores");
+        String description = "Water the plants, all of them, also the ones on the balcony.";
+        for (int i = 1; i <= 1000; i++) {
+            taskStorage.addTask("chores", description);
+            taskStorage.setTaskDeadline(i, LocalDate.of(2026, 1, 1).plusDays(i % 7));
+        }
+
+        byte[] dump = export(taskStorage);
+        //header, project and the description once, then a few bytes per task
+        assertThat(dump.length, is(lessThan(100 + description.length() + 1000 * 6)));
+        TaskStorage restored = new TaskStorage();
+        importInto(restored, dump);
+        assertThat(describe(restored), is(describe(taskStorage)));
+    }
+
+    @Test
+    void testLargeDumpThroughAFile() throws IOException {
+        TaskStorage source = new TaskStorage();
+        for (int p = 0; p < 10; p++) {
+            source.addProject("project " + p);
+        }
+        //tasks of different projects interleave, more than the buffer holds
+        for (int i = 0; i < 20_000; i++) {
+            source.addTask("project " + (i % 10), "Task number " + i);
+        }
+        source.markTask(12_345, true);
+
+        Path file = directory.resolve("tasklist.dump");
+        assertThat(TaskList.execute(new TaskService(source), TaskMetrics.NONE, new CommandParser.ExportCommand(file.toString())),
+                is("Exported 10 projects and 20000 tasks to " + file + "." + System.lineSeparator() + System.lineSeparator()));
+        TaskStorage target = new TaskStorage();
+        assertThat(TaskList.execute(new TaskService(target), TaskMetrics.NONE, new CommandParser.ImportCommand(file.toString())),
+                is("Imported 10 projects and 20000 tasks from " + file + "." + System.lineSeparator() + System.lineSeparator()));
+
+        assertThat(describe(target), is(describe(source)));
+        assertThat(target.returnTaskByID(12_345).isDone(), is(true));
+    }
+
+    @Test
+    void testBrokenDumpsAreRejectedWithoutChanges() throws IOException {
+        TaskStorage source = new TaskStorage();
+        source.addProject("secrets");
+        source.addTask("secrets", "Eat more donuts.");
+        byte[] dump = export(source);
+
+        byte[] corrupt = dump.clone();
+        corrupt[corrupt.length / 2] ^= 0x7F;
+        byte[] truncated = Arrays.copyOf(dump, dump.length - 1);
+        byte[] newerVersion = dump.clone();
+        newerVersion[4] = 2;
+        byte[] notADump = "{\"secrets\": []}".getBytes();
+
+        TaskStorage target = new TaskStorage();
+        for (byte[] broken : List.of(corrupt, truncated, newerVersion, notADump)) {
+            assertThrows(IOException.class, () -> importInto(target, broken));
+        }
+        assertThat(target.getAllProjects(), is(Map.of()));
+        assertThat(target.version(), is(0L));
+    }
+
+    @Test
+    void testDumpWithADeadlineOutOfRangeIsRejected() throws IOException {
+        TaskStorage source = new TaskStorage();
+        source.addProject("secrets");
+        source.addTask("secrets", "Eat more donuts.");
+        source.setTaskDeadline(1, LocalDate.of(2026, 1, 15));
+        byte[] dump = export(source);
+
+        //magic, version, project count, new string "secrets", task count, header, id: the deadline follows
+        int deadline = 4 + 1 + 1 + 1 + 1 + "secrets".length() + 1 + 1 + 1;
+        int deadlineEnd = deadline;
+        while ((dump[deadlineEnd] & 0x80) != 0) {
+            deadlineEnd++;
+        }
+        ByteArrayOutputStream corrupt = new ByteArrayOutputStream();
+        corrupt.write(dump, 0, deadline);
+        //varint of zigzag(Long.MAX_VALUE), far beyond LocalDate.MAX
+        corrupt.write(0xFE);
+        for (int i = 0; i < 8; i++) {
+            corrupt.write(0xFF);
+        }
+        corrupt.write(0x01);
+        corrupt.write(dump, deadlineEnd + 1, dump.length - deadlineEnd - 1);
+
+        TaskStorage target = new TaskStorage();
+        IOException e = assertThrows(IOException.class, () -> importInto(target, corrupt.toByteArray()));
+        assertThat(e.getMessage(), containsString("deadline out of range"));
+        assertThat(target.getAllProjects(), is(Map.of()));
+
+        Path file = directory.resolve("corrupt.dump");
+        Files.write(file, corrupt.toByteArray());
+        String output = TaskList.execute(new TaskService(target), TaskMetrics.NONE,
+                CommandParser.parse("import " + file));
+        assertThat(output, startsWith("Could not import " + file + ": "));
+        assertThat(target.version(), is(0L));
+    }
+
+    @Test
+    void testDumpWithAReservedProjectNameIsRejected() throws IOException {
+        //the storage itself takes any name, only the service refuses it
+        TaskStorage source = new TaskStorage();
+        source.addProject("secrets");
+        source.addProject("stats");
+        source.addTask("stats", "Eat more donuts.");
+        byte[] dump = export(source);
+
+        TaskStorage target = new TaskStorage();
+        IOException e = assertThrows(IOException.class, () -> importInto(target, dump));
+        assertThat(e.getMessage(), containsString("stats"));
+        assertThat(target.getAllProjects(), is(Map.of()));
+        assertThat(target.version(), is(0L));
+    }
+
+    @Test
+    void testDumpIsReadInChunks() throws IOException {
+        TaskStorage source = new TaskStorage();
+        source.addProject("secrets");
+        source.addProject("training");
+        for (int i = 0; i < 2500; i++) {
+            source.addTask(i % 3 == 0 ? "training" : "secrets", "Task number " + i);
+        }
+        byte[] dump = export(source);
+
+        for (int chunkSize : new int[]{1, 1000, 2500, 4096}) {
+            List<TaskDump.Chunk> chunks = new ArrayList<>();
+            TaskDump.Summary summary = TaskDump.read(Channels.newChannel(new ByteArrayInputStream(dump)), chunkSize,
+                    chunks::add);
+
+            assertThat(summary, is(new TaskDump.Summary(2, 2500)));
+            assertThat(chunks, hasSize((2500 + chunkSize - 1) / chunkSize));
+            long id = 0;
+            for (TaskDump.Chunk chunk : chunks) {
+                assertThat(chunk.tasks().size(), is(lessThanOrEqualTo(chunkSize)));
+                assertThat(chunk.taskProjects().length, is(chunk.tasks().size()));
+                for (int i = 0; i < chunk.tasks().size(); i++) {
+                    Task task = chunk.tasks().get(i);
+                    assertThat(task.getId(), is(++id));
+                    assertThat(chunk.projectNames().get(chunk.taskProjects()[i]),
+                            is((id - 1) % 3 == 0 ? "training" : "secrets"));
+                }
+            }
+        }
+
+        //projects without tasks still come in a chunk
+        List<TaskDump.Chunk> chunks = new ArrayList<>();
+        TaskStorage empty = new TaskStorage();
+        empty.addProject("empty");
+        TaskDump.read(Channels.newChannel(new ByteArrayInputStream(export(empty))), 10, chunks::add);
+        assertThat(chunks, hasSize(1));
+        assertThat(chunks.get(0).projectNames(), contains("empty"));
+        assertThat(chunks.get(0).tasks(), is(empty()));
+    }
+
+    @Test
+    void testDumpBrokenAfterSeveralChunksChangesNothing() throws IOException {
+        TaskStorage source = new TaskStorage();
+        source.addProject("secrets");
+        for (int i = 0; i < 10_000; i++) {
+            source.addTask("secrets", "Task number " + i);
+        }
+        byte[] dump = export(source);
+        //only the checksum at the very end is wrong, every chunk decodes fine
+        dump[dump.length - 1] ^= 1;
+
+        TaskStorage target = new TaskStorage();
+        IOException e = assertThrows(IOException.class, () -> importInto(target, dump));
+        assertThat(e.getMessage(), containsString("checksum"));
+        assertThat(target.getAllProjects(), is(Map.of()));
+        assertThat(target.version(), is(0L));
+    }
+
+    @Test
+    void testMissingFileIsReported() {
+        Path missing = directory.resolve("missing.dump");
+        String output = TaskList.execute(new TaskService(new TaskStorage()), TaskMetrics.NONE,
+                CommandParser.parse("import " + missing));
+        assertThat(output, startsWith("Could not import " + missing + ": "));
+        assertThat(Files.exists(missing), is(false));
+    }
+
+    //one line per task, with the project
+    private static List<String> describe(TaskStorage taskStorage) {
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, List<Task>> project : taskStorage.getAllProjects().entrySet()) {
+            for (Task task : project.getValue()) {
+                lines.add(project.getKey() + " " + task.getId() + " " + task.getDescription() + " " + task.isDone()
+                        + " " + task.getDeadline());
+            }
+        }
+        return lines;
+    }
+
+    private static byte[] export(TaskStorage taskStorage) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new TaskService(taskStorage).exportTasks(Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    private static void importInto(TaskStorage taskStorage, byte[] dump) throws IOException {
+        new TaskService(taskStorage).importTasks(Channels.newChannel(new ByteArrayInputStream(dump)));
+    }
+}
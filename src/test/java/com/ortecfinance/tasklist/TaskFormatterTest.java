@@ -0,0 +1,96 @@
+package com.ortecfinance.tasklist;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class TaskFormatterTest {
+
+    @Test
+    void testFormatDateMatchesStringFormat() {
+        LocalDate[] dates = {
+                LocalDate.of(2026, 1, 5),
+                LocalDate.of(2026, 12, 31),
+                LocalDate.of(987, 3, 9),
+                LocalDate.of(5, 10, 10),
+                LocalDate.of(12345, 6, 7),
+                LocalDate.of(-44, 3, 15)
+        };
+        for (LocalDate date : dates) {
+            String expected = String.format("%02d-%02d-%04d", date.getDayOfMonth(), date.getMonthValue(), date.getYear());
+            assertThat(TaskFormatter.formatDate(date), is(expected));
+        }
+    }
+
+    @Test
+    void testWriteTaskToAWriterMatchesStringFormat() throws IOException {
+        long[] ids = {1, 9, 10, 99, 100, 123456789, 999999999999999999L, 1000000000000000000L, Long.MAX_VALUE, -42, Long.MIN_VALUE};
+        for (long id : ids) {
+            Task task = new Task(id, "Eat more donuts.", id % 2 == 0);
+            String expected = String.format("    [%c] %d: %s", task.isDone() ? 'x' : ' ', id, task.getDescription());
+
+            //a Writer takes the char by char path, a StringBuilder and the console's buffer their own
+            StringWriter writer = new StringWriter();
+            TaskFormatter.writeTask(writer, task);
+            assertThat(writer.toString(), is(expected));
+            assertThat(TaskFormatter.formatTask(task), is(expected));
+
+            StringWriter buffered = new StringWriter();
+            BufferedAppendable console = new BufferedAppendable(buffered);
+            TaskFormatter.writeTask(console, task);
+            console.writeBuffered();
+            assertThat(buffered.toString(), is(expected));
+        }
+    }
+
+    @Test
+    void testBufferedAppendableSpillsLongOutputInOrder() throws IOException {
+        StringWriter writer = new StringWriter();
+        BufferedAppendable buffered = new BufferedAppendable(writer);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            buffered.append("task ").append((char) ('a' + i % 26));
+            buffered.appendNumber(i);
+            expected.append("task ").append((char) ('a' + i % 26)).append(i);
+        }
+        buffered.writeBuffered();
+
+        assertThat(writer.toString(), is(expected.toString()));
+    }
+
+    @Test
+    void testWriteTasksByDeadlineMatchesFormat() throws IOException {
+        TaskStorage taskStorage = new TaskStorage();
+        taskStorage.addProject("secrets");
+        taskStorage.addProject("training");
+        taskStorage.addTask("secrets", "Eat more donuts.");
+        taskStorage.addTask("training", "SOLID");
+        taskStorage.addTask("training", "Outside-In TDD");
+        taskStorage.markTask(2, true);
+        taskStorage.setTaskDeadline(1, LocalDate.of(2026, 1, 15));
+        taskStorage.setTaskDeadline(2, LocalDate.of(2026, 1, 15));
+
+        StringWriter writer = new StringWriter();
+        TaskFormatter.writeTasksByDeadline(writer, taskStorage.getTasksSortedByDeadline());
+
+        String lineSeparator = System.lineSeparator();
+        assertThat(writer.toString(), is(String.join(lineSeparator,
+                "15-01-2026:",
+                "  secrets:",
+                "    [ ] 1: Eat more donuts.",
+                "  training:",
+                "    [x] 2: SOLID",
+                "",
+                "No deadline:",
+                "  training:",
+                "    [ ] 3: Outside-In TDD",
+                "",
+                "")));
+        assertThat(TaskFormatter.formatTasksByDeadline(taskStorage.getTasksSortedByDeadline()), is(writer.toString()));
+    }
+}
@@ -0,0 +1,107 @@
+package com.ortecfinance.tasklist;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.ortecfinance.tasklist.TaskFormatter.formatDate;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class TaskJsonWriterTest {
+
+    //configured like the Spring Boot ObjectMapper, which the endpoints used before streaming
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private TaskStorage taskStorage;
+
+    @BeforeEach
+    public void setup() {
+        taskStorage = new TaskStorage();
+        taskStorage.addProject("secrets");
+        taskStorage.addProject("empty");
+        taskStorage.addProject("training");
+        taskStorage.addTask("secrets", "Eat more donuts.");
+        taskStorage.addTask("training", "SOLID \"quoted\"");
+        taskStorage.addTask("secrets", "Destroy all humans.");
+        taskStorage.addTask("training", "Outside-In TDD");
+        taskStorage.addTask("training", "Primitive Obsession");
+        taskStorage.markTask(2, true);
+        taskStorage.setTaskDeadline(1, LocalDate.of(2026, 1, 15));
+        taskStorage.setTaskDeadline(2, LocalDate.of(2026, 1, 15));
+        taskStorage.setTaskDeadline(4, LocalDate.of(2026, 1, 15));
+        taskStorage.setTaskDeadline(3, LocalDate.of(2026, 2, 1));
+    }
+
+    @Test
+    void testProjectsMatchJacksonOutput() throws IOException {
+        Map<String, List<Task>> projects = taskStorage.getAllProjects();
+
+        String streamed = write(json -> TaskJsonWriter.writeProjects(json, projects.entrySet()));
+
+        assertThat(streamed, is(objectMapper.writeValueAsString(projects)));
+    }
+
+    @Test
+    void testDeadlineViewMatchesJacksonOutputForAnyChunkSize() throws IOException {
+        Map<String, Map<String, List<Task>>> expected = new LinkedHashMap<>();
+        taskStorage.getTasksSortedByDeadline().forEach((deadline, projects) ->
+                expected.put(deadline != null ? formatDate(deadline) : "No deadline", projects));
+        String expectedJson = objectMapper.writeValueAsString(expected);
+
+        for (int chunkSize = 1; chunkSize <= 6; chunkSize++) {
+            int size = chunkSize;
+            String streamed = write(json -> TaskJsonWriter.writeByDeadline(json,
+                    taskStorage.getDeadlineView(null, null), size));
+            assertThat("chunk size " + size, streamed, is(expectedJson));
+        }
+    }
+
+    @Test
+    void testDeadlineViewIsAPointInTime() throws IOException {
+        Map<String, Map<String, List<Task>>> expected = new LinkedHashMap<>();
+        taskStorage.getTasksSortedByDeadline().forEach((deadline, projects) ->
+                expected.put(deadline != null ? formatDate(deadline) : "No deadline", projects));
+        DeadlineView view = taskStorage.getDeadlineView(null, null);
+
+        //moves task 1 from the first chunk to the last one and task 5 the other way
+        taskStorage.setTaskDeadline(1, LocalDate.of(2026, 3, 1));
+        taskStorage.setTaskDeadline(5, LocalDate.of(2026, 1, 1));
+        taskStorage.addTask("training", "Outside-In TDD");
+
+        String streamed = write(json -> TaskJsonWriter.writeByDeadline(json, view, 2));
+        assertThat(streamed, is(objectMapper.writeValueAsString(expected)));
+    }
+
+    @Test
+    void testEmptyDeadlineRange() throws IOException {
+        LocalDate date = LocalDate.of(2030, 1, 1);
+        String streamed = write(json -> TaskJsonWriter.writeByDeadline(json, taskStorage.getDeadlineView(date, date)));
+
+        assertThat(streamed, is("{}"));
+    }
+
+    private interface JsonBody {
+        void write(JsonGenerator json) throws IOException;
+    }
+
+    private String write(JsonBody body) throws IOException {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            body.write(json);
+        }
+        return out.toString();
+    }
+}
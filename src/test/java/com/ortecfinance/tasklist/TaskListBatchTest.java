@@ -0,0 +1,65 @@
+package com.ortecfinance.tasklist;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static java.lang.System.lineSeparator;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class TaskListBatchTest {
+
+    private final StringWriter output = new StringWriter();
+
+    private TaskList taskList(String... commands) {
+        BufferedReader in = new BufferedReader(new StringReader(String.join(lineSeparator(), commands)));
+        PrintWriter out = new PrintWriter(output, false);
+        return new TaskList(in, out, new TaskService(new TaskStorage()), null, true);
+    }
+
+    @Test
+    void testBatchModeRunsUntilEndOfInputWithoutPrompts() {
+        TaskList taskList = taskList(
+                "add project secrets",
+                "add task secrets Eat more donuts.",
+                "check 1",
+                "show");
+
+        taskList.run();
+
+        assertThat(output.toString(), is(String.join(lineSeparator(),
+                "secrets",
+                "    [x] 1: Eat more donuts.",
+                "",
+                "")));
+        assertThat(taskList.executedCommands(), is(4L));
+    }
+
+    @Test
+    void testBatchModeStopsAtQuit() {
+        TaskList taskList = taskList(
+                "add project secrets",
+                "quit",
+                "show");
+
+        taskList.run();
+
+        assertThat(output.toString(), is(""));
+        assertThat(taskList.executedCommands(), is(1L));
+    }
+
+    @Test
+    void testInteractiveModeStopsAtEndOfInput() {
+        BufferedReader in = new BufferedReader(new StringReader("add project secrets"));
+        TaskList taskList = new TaskList(in, new PrintWriter(output), new TaskService(new TaskStorage()), null);
+
+        taskList.run();
+
+        assertThat(output.toString(), is("Welcome to TaskList! Type 'help' for available commands."
+                + lineSeparator() + "> > "));
+    }
+}
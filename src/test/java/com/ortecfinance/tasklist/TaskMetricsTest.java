@@ -0,0 +1,69 @@
+package com.ortecfinance.tasklist;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class TaskMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private TaskStorage taskStorage;
+    private TaskService taskService;
+    private TaskMetrics metrics;
+
+    @BeforeEach
+    public void setup() {
+        taskStorage = new TaskStorage();
+        taskService = new TaskService(taskStorage);
+        metrics = new TaskMetrics(registry, taskStorage);
+    }
+
+    private void execute(String commandLine) {
+        TaskList.execute(taskService, metrics, CommandParser.parse(commandLine));
+    }
+
+    @Test
+    void testCommandsAreTimedPerType() {
+        execute("add project secrets");
+        execute("add task secrets Eat more donuts.");
+        execute("add task secrets Destroy all humans.");
+        execute("show");
+        execute("nonsense");
+
+        assertThat(registry.get("tasklist.commands").tag("command", "add-project").timer().count(), is(1L));
+        assertThat(registry.get("tasklist.commands").tag("command", "add-task").timer().count(), is(2L));
+        assertThat(registry.get("tasklist.commands").tag("command", "show").timer().count(), is(1L));
+        assertThat(registry.get("tasklist.commands").tag("command", "unknown").timer().count(), is(1L));
+        assertThat(registry.get("tasklist.commands").tag("command", "check").timer().count(), is(0L));
+    }
+
+    @Test
+    void testGaugesFollowTheStorage() {
+        taskStorage.addProject("secrets");
+        taskStorage.addProject("training");
+        taskStorage.addTask("secrets", "Eat more donuts.");
+        taskStorage.addTask("training", "SOLID");
+        taskStorage.setTaskDeadline(2, LocalDate.of(2026, 1, 15));
+
+        assertThat(registry.get("tasklist.projects").gauge().value(), is(2.0));
+        assertThat(registry.get("tasklist.tasks").gauge().value(), is(2.0));
+        assertThat(registry.get("tasklist.tasks.with.deadline").gauge().value(), is(1.0));
+    }
+
+    @Test
+    void testFailedLookupsAreCounted() {
+        taskStorage.addProject("secrets");
+        execute("add task nonexistent Some task");
+        execute("check 42");
+        execute("deadline 43 15-01-2026");
+        taskStorage.returnTaskByID(44);
+
+        assertThat(registry.get("tasklist.lookups.failed").tag("kind", "project").functionCounter().count(), is(1.0));
+        assertThat(registry.get("tasklist.lookups.failed").tag("kind", "task").functionCounter().count(), is(3.0));
+    }
+}
@@ -35,6 +35,16 @@ public class TaskServiceTest {
         });
     }
 
+    @Test
+    void testCreateProjectWithAReservedNameThrowsException() {
+        for (String name : List.of("stats", "export", "search", "events", "due", "view_by_deadline")) {
+            assertThrows(IllegalArgumentException.class, () -> taskService.createProject(name));
+            assertThat(taskService.doesProjectExist(name), is(false));
+        }
+        taskService.createProject("Stats");
+        assertThat(taskService.doesProjectExist("Stats"), is(true));
+    }
+
     @Test
     void testProjectExistsReturnsFalseForNonExistent() {
         assertThat(taskService.doesProjectExist("nonexistent"), is(false));
@@ -0,0 +1,173 @@
+package com.ortecfinance.tasklist;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+//Stress tests that hammer a single TaskStorage from many threads at once,
+//like the console thread and the Tomcat request threads do in the application.
+public class TaskStorageConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int TASKS_PER_THREAD = 5_000;
+
+    private TaskStorage taskStorage;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        taskStorage = new TaskStorage();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentAddTaskLosesNoTasksAndKeepsIdsUnique() throws Exception {
+        taskStorage.addProject("shared");
+        taskStorage.addProject("other");
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < TASKS_PER_THREAD; i++) {
+                taskStorage.addTask(i % 2 == 0 ? "shared" : "other", "Task " + thread + "-" + i);
+            }
+        });
+
+        Map<String, List<Task>> projects = taskStorage.getAllProjects();
+        Set<Long> ids = new HashSet<>();
+        for (List<Task> projectTasks : projects.values()) {
+            for (Task task : projectTasks) {
+                ids.add(task.getId());
+            }
+        }
+        assertThat(ids.size(), is(THREADS * TASKS_PER_THREAD));
+        assertThat(Collections.max(ids), is((long) THREADS * TASKS_PER_THREAD));
+        for (long id = 1; id <= THREADS * TASKS_PER_THREAD; id++) {
+            assertThat(taskStorage.returnTaskByID(id), is(notNullValue()));
+        }
+    }
+
+    @Test
+    void testConcurrentProjectCreationAllowsOnlyOneWinner() throws Exception {
+        ConcurrentLinkedQueue<Integer> winners = new ConcurrentLinkedQueue<>();
+
+        runConcurrently(thread -> {
+            try {
+                taskStorage.addProject("contested");
+                winners.add(thread);
+            } catch (IllegalArgumentException e) {
+                //expected for every thread but one
+            }
+        });
+
+        assertThat(winners, hasSize(1));
+        assertThat(taskStorage.getAllProjects().size(), is(1));
+    }
+
+    @Test
+    void testLookupsWhileTasksAreAddedAlwaysSeeExistingTasks() throws Exception {
+        taskStorage.addProject("work");
+        AtomicLong highestAddedId = new AtomicLong();
+        ConcurrentLinkedQueue<Long> missing = new ConcurrentLinkedQueue<>();
+
+        runConcurrently(thread -> {
+            if (thread == 0) {
+                for (int i = 0; i < THREADS * TASKS_PER_THREAD; i++) {
+                    taskStorage.addTask("work", "Task " + i);
+                    highestAddedId.set(i + 1);
+                }
+                return;
+            }
+            Random random = new Random(thread);
+            for (int i = 0; i < TASKS_PER_THREAD * 4; i++) {
+                //every id up to the highest added one must be found
+                long highest = highestAddedId.get();
+                if (highest == 0) {
+                    continue;
+                }
+                long id = 1 + random.nextLong(highest);
+                if (taskStorage.returnTaskByID(id) == null) {
+                    missing.add(id);
+                }
+            }
+        });
+
+        assertThat(missing, is(empty()));
+    }
+
+    @Test
+    void testDeadlineViewStaysConsistentWhileDeadlinesMove() throws Exception {
+        int taskCount = 1_000;
+        taskStorage.addProject("work");
+        for (int i = 0; i < taskCount; i++) {
+            taskStorage.addTask("work", "Task " + i);
+        }
+        LocalDate start = LocalDate.of(2026, 1, 1);
+        ConcurrentLinkedQueue<String> problems = new ConcurrentLinkedQueue<>();
+
+        runConcurrently(thread -> {
+            Random random = new Random(thread);
+            if (thread % 2 == 0) {
+                for (int i = 0; i < TASKS_PER_THREAD; i++) {
+                    long id = 1 + random.nextInt(taskCount);
+                    taskStorage.setTaskDeadline(id, start.plusDays(random.nextInt(30)));
+                    taskStorage.markTask(id, random.nextBoolean());
+                }
+                return;
+            }
+            for (int i = 0; i < 200; i++) {
+                //every task has to show up exactly once in a consistent view
+                int seen = 0;
+                for (Map<String, List<Task>> projects : taskStorage.getTasksSortedByDeadline().values()) {
+                    for (List<Task> tasks : projects.values()) {
+                        seen += tasks.size();
+                    }
+                }
+                if (seen != taskCount) {
+                    problems.add("saw " + seen + " tasks");
+                }
+            }
+        });
+
+        assertThat(problems, is(empty()));
+
+        //the index must agree with the deadline stored on every task
+        for (Map.Entry<LocalDate, Map<String, List<Task>>> entry : taskStorage.getTasksSortedByDeadline().entrySet()) {
+            for (Task task : entry.getValue().get("work")) {
+                assertThat(task.getDeadline(), is(entry.getKey()));
+            }
+        }
+    }
+
+    private void runConcurrently(ThreadBody body) throws Exception {
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                startSignal.await();
+                body.run(thread);
+                return null;
+            }));
+        }
+        startSignal.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    private interface ThreadBody {
+        void run(int thread);
+    }
+}
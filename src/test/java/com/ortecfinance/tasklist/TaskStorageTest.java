@@ -3,7 +3,11 @@ package com.ortecfinance.tasklist;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -91,14 +95,44 @@ public class TaskStorageTest {
     }
 
     @Test
-    void testGetAllProjectsReturnsCopy() {
+    void testGetAllProjectsReturnsSnapshot() {
         taskStorage.addProject("secrets");
         taskStorage.addTask("secrets", "Task 1");
 
         Map<String, List<Task>> projects1 = taskStorage.getAllProjects();
+        taskStorage.addTask("secrets", "Task 2");
+        taskStorage.markTask(1, true);
+        taskStorage.addProject("training");
         Map<String, List<Task>> projects2 = taskStorage.getAllProjects();
 
+        //the first snapshot does not see any of the later changes
         assertThat(projects1, is(not(sameInstance(projects2))));
+        assertThat(projects1.size(), is(1));
+        assertThat(projects1.containsKey("training"), is(false));
+        assertThat(projects1.get("secrets"), hasSize(1));
+        assertThat(projects1.get("secrets").getFirst().isDone(), is(false));
+
+        assertThat(projects2.size(), is(2));
+        assertThat(projects2.get("secrets"), hasSize(2));
+        assertThat(projects2.get("secrets").getFirst().isDone(), is(true));
+    }
+
+    @Test
+    void testGetAllProjectsIsUnmodifiable() {
+        taskStorage.addProject("secrets");
+        taskStorage.addTask("secrets", "Task 1");
+
+        Map<String, List<Task>> projects = taskStorage.getAllProjects();
+
+        assertThrows(UnsupportedOperationException.class, () -> projects.put("other", List.of()));
+        assertThrows(UnsupportedOperationException.class, () -> projects.get("secrets").add(new Task(99, "x", false)));
+    }
+
+    @Test
+    void testGetAllProjectsWithoutChangesReturnsSameSnapshot() {
+        taskStorage.addProject("secrets");
+
+        assertThat(taskStorage.getAllProjects(), is(sameInstance(taskStorage.getAllProjects())));
     }
 
     @Test
@@ -111,9 +145,9 @@ public class TaskStorageTest {
         taskStorage.addTask("work", "Task 2");
         taskStorage.addTask("work", "Task 3");
 
-        taskStorage.returnTaskByID(1).setDeadline(today);
-        taskStorage.returnTaskByID(2).setDeadline(tomorrow);
-        taskStorage.returnTaskByID(3).setDeadline(today);
+        taskStorage.setTaskDeadline(1, today);
+        taskStorage.setTaskDeadline(2, tomorrow);
+        taskStorage.setTaskDeadline(3, today);
 
         Map<String, List<Task>> todaysTasks = taskStorage.getTasksTodaysDeadline();
         assertThat(todaysTasks.get("work"), hasSize(2));
@@ -127,12 +161,63 @@ public class TaskStorageTest {
 
         taskStorage.addProject("work");
         taskStorage.addTask("work", "Task 1");
-        taskStorage.returnTaskByID(1).setDeadline(tomorrow);
+        taskStorage.setTaskDeadline(1, tomorrow);
 
         Map<String, List<Task>> todaysTasks = taskStorage.getTasksTodaysDeadline();
         assertThat(todaysTasks.isEmpty(), is(true));
     }
 
+    @Test
+    void testTodayViewIsCachedUntilTodaysTasksChange() {
+        MutableClock clock = new MutableClock(LocalDate.of(2026, 1, 15).atTime(12, 0));
+        taskStorage = new TaskStorage(clock);
+        taskStorage.addProject("work");
+        taskStorage.addTask("work", "Task 1");
+        taskStorage.addTask("work", "Task 2");
+        taskStorage.setTaskDeadline(1, LocalDate.of(2026, 1, 15));
+
+        TodaysTasks first = taskStorage.getTodaysTasks();
+        assertThat(first.date(), is(LocalDate.of(2026, 1, 15)));
+        assertThat(first.projects().get("work"), hasSize(1));
+        assertThrows(UnsupportedOperationException.class, () -> first.projects().get("work").clear());
+
+        //changes on other days leave the view alone
+        taskStorage.addTask("work", "Task 3");
+        taskStorage.setTaskDeadline(2, LocalDate.of(2026, 1, 16));
+        taskStorage.markTask(2, true);
+        assertThat(taskStorage.getTodaysTasks(), is(sameInstance(first)));
+
+        taskStorage.markTask(1, true);
+        TodaysTasks checked = taskStorage.getTodaysTasks();
+        assertThat(checked, is(not(sameInstance(first))));
+        assertThat(checked.projects().get("work").getFirst().isDone(), is(true));
+
+        taskStorage.setTaskDeadline(3, LocalDate.of(2026, 1, 15));
+        assertThat(taskStorage.getTodaysTasks().projects().get("work"), hasSize(2));
+        taskStorage.setTaskDeadline(3, null);
+        assertThat(taskStorage.getTodaysTasks().projects().get("work"), hasSize(1));
+
+        //midnight
+        clock.set(LocalDate.of(2026, 1, 16).atStartOfDay());
+        TodaysTasks tomorrow = taskStorage.getTodaysTasks();
+        assertThat(tomorrow.date(), is(LocalDate.of(2026, 1, 16)));
+        assertThat(tomorrow.projects().get("work").getFirst().getId(), is(2L));
+        assertThat(TaskFormatter.formatTodaysTasks(tomorrow), startsWith("16-01-2026"));
+    }
+
+    @Test
+    void testStatsRollOverAtMidnight() {
+        MutableClock clock = new MutableClock(LocalDate.of(2026, 1, 15).atTime(23, 59));
+        taskStorage = new TaskStorage(clock);
+        taskStorage.addProject("work");
+        taskStorage.addTask("work", "Task 1");
+        taskStorage.setTaskDeadline(1, LocalDate.of(2026, 1, 15));
+        assertThat(taskStorage.getProjectStats().get("work"), is(new ProjectStats(1, 0, 0, 1)));
+
+        clock.set(LocalDate.of(2026, 1, 16).atStartOfDay());
+        assertThat(taskStorage.getProjectStats().get("work"), is(new ProjectStats(1, 0, 1, 0)));
+    }
+
     @Test
     void testGetTasksSortedByDeadline() {
         LocalDate date1 = LocalDate.of(2021, 11, 11);
@@ -145,9 +230,9 @@ public class TaskStorageTest {
         taskStorage.addTask("Training", "Task 3");
         taskStorage.addTask("Training", "Task 4");
 
-        taskStorage.returnTaskByID(1).setDeadline(date1);
-        taskStorage.returnTaskByID(3).setDeadline(date2);
-        taskStorage.returnTaskByID(4).setDeadline(date1);
+        taskStorage.setTaskDeadline(1, date1);
+        taskStorage.setTaskDeadline(3, date2);
+        taskStorage.setTaskDeadline(4, date1);
 
         Map<LocalDate, Map<String, List<Task>>> sorted = taskStorage.getTasksSortedByDeadline();
 
@@ -166,8 +251,8 @@ public class TaskStorageTest {
         taskStorage.addTask("work", "Task 1");
         taskStorage.addTask("work", "Task 2");
 
-        taskStorage.returnTaskByID(1).setDeadline(laterDate);
-        taskStorage.returnTaskByID(2).setDeadline(earlierDate);
+        taskStorage.setTaskDeadline(1, laterDate);
+        taskStorage.setTaskDeadline(2, earlierDate);
 
         Map<LocalDate, Map<String, List<Task>>> sorted = taskStorage.getTasksSortedByDeadline();
 
@@ -187,7 +272,7 @@ public class TaskStorageTest {
         taskStorage.addTask("work", "Task 1");
         taskStorage.addTask("work", "Task 2");
 
-        taskStorage.returnTaskByID(1).setDeadline(someDate);
+        taskStorage.setTaskDeadline(1, someDate);
 
         Map<LocalDate, Map<String, List<Task>>> sorted =
                 taskStorage.getTasksSortedByDeadline();
@@ -196,6 +281,192 @@ public class TaskStorageTest {
         assertThat(keys.getLast(), is(nullValue()));
     }
 
+    @Test
+    void testChangingDeadlineMovesTaskInDeadlineView() {
+        LocalDate firstDate = LocalDate.of(2026, 1, 1);
+        LocalDate secondDate = LocalDate.of(2026, 2, 1);
+
+        taskStorage.addProject("work");
+        taskStorage.addTask("work", "Task 1");
+
+        taskStorage.setTaskDeadline(1, firstDate);
+        taskStorage.setTaskDeadline(1, secondDate);
+
+        Map<LocalDate, Map<String, List<Task>>> sorted = taskStorage.getTasksSortedByDeadline();
+        assertThat(sorted.containsKey(firstDate), is(false));
+        assertThat(sorted.containsKey(null), is(false));
+        assertThat(sorted.get(secondDate).get("work"), hasSize(1));
+    }
+
+    @Test
+    void testDeadlineViewKeepsProjectOrder() {
+        LocalDate date = LocalDate.of(2026, 1, 1);
+
+        taskStorage.addProject("first");
+        taskStorage.addProject("second");
+        taskStorage.addTask("second", "Task 1");
+        taskStorage.addTask("first", "Task 2");
+
+        //set the deadline of the task in the second project first
+        taskStorage.setTaskDeadline(1, date);
+        taskStorage.setTaskDeadline(2, date);
+
+        List<String> projects = new ArrayList<>(taskStorage.getTasksSortedByDeadline().get(date).keySet());
+        assertThat(projects, contains("first", "second"));
+    }
+
+    @Test
+    void testGetTasksWithDeadlineBetween() {
+        taskStorage.addProject("work");
+        taskStorage.addTask("work", "Task 1");
+        taskStorage.addTask("work", "Task 2");
+        taskStorage.addTask("work", "Task 3");
+        taskStorage.addTask("work", "Task 4");
+
+        taskStorage.setTaskDeadline(1, LocalDate.of(2026, 1, 1));
+        taskStorage.setTaskDeadline(2, LocalDate.of(2026, 1, 10));
+        taskStorage.setTaskDeadline(3, LocalDate.of(2026, 1, 20));
+
+        Map<LocalDate, Map<String, List<Task>>> between =
+                taskStorage.getTasksWithDeadlineBetween(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 10));
+
+        assertThat(new ArrayList<>(between.keySet()),
+                contains(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 10)));
+    }
+
+    @Test
+    void testGetTasksWithDeadlineBetweenRejectsReversedRange() {
+        assertThrows(IllegalArgumentException.class, () ->
+                taskStorage.getTasksWithDeadlineBetween(LocalDate.of(2026, 2, 1), LocalDate.of(2026, 1, 1)));
+    }
+
+    @Test
+    void testProjectsPagesSplitProjectsAndCoverAllTasksInOrder() {
+        taskStorage.addProject("secrets");
+        taskStorage.addProject("empty");
+        taskStorage.addProject("training");
+        taskStorage.addTask("secrets", "Task 1");
+        taskStorage.addTask("secrets", "Task 2");
+        taskStorage.addTask("secrets", "Task 3");
+        taskStorage.addTask("training", "Task 4");
+
+        Page<Map<String, List<Task>>> first = taskStorage.getProjectsPage(null, 2);
+        assertThat(new ArrayList<>(first.items().keySet()), contains("secrets"));
+        assertThat(first.nextCursor(), is(notNullValue()));
+
+        Page<Map<String, List<Task>>> second = taskStorage.getProjectsPage(first.nextCursor(), 2);
+        assertThat(new ArrayList<>(second.items().keySet()), contains("secrets", "empty", "training"));
+        assertThat(second.items().get("secrets").getFirst().getId(), is(3L));
+        assertThat(second.items().get("training").getFirst().getId(), is(4L));
+        assertThat(second.nextCursor(), is(nullValue()));
+    }
+
+    @Test
+    void testProjectsPageCursorStaysValidWhileTasksAreAdded() {
+        taskStorage.addProject("secrets");
+        taskStorage.addTask("secrets", "Task 1");
+        taskStorage.addTask("secrets", "Task 2");
+
+        Page<Map<String, List<Task>>> first = taskStorage.getProjectsPage(null, 1);
+        taskStorage.addTask("secrets", "Task 3");
+        Page<Map<String, List<Task>>> second = taskStorage.getProjectsPage(first.nextCursor(), 10);
+
+        assertThat(second.items().get("secrets").stream().map(Task::getId).toList(), contains(2L, 3L));
+    }
+
+    @Test
+    void testPageRejectsInvalidCursorAndLimit() {
+        taskStorage.addProject("secrets");
+        assertThrows(IllegalArgumentException.class, () -> taskStorage.getProjectsPage("not a cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> taskStorage.getProjectsPage(PageCursor.encode(5, 0), 10));
+        assertThrows(IllegalArgumentException.class, () -> taskStorage.getTasksByDeadlinePage("bm9wZQ", 10));
+        assertThrows(IllegalArgumentException.class, () -> taskStorage.getProjectsPage(null, 0));
+    }
+
+    @Test
+    void testDeadlinePagesFollowDeadlineThenProjectOrder() {
+        LocalDate firstDate = LocalDate.of(2026, 1, 1);
+        LocalDate secondDate = LocalDate.of(2026, 2, 1);
+
+        taskStorage.addProject("first");
+        taskStorage.addProject("second");
+        taskStorage.addTask("second", "Task 1");
+        taskStorage.addTask("first", "Task 2");
+        taskStorage.addTask("first", "Task 3");
+        taskStorage.addTask("second", "Task 4");
+        taskStorage.setTaskDeadline(1, firstDate);
+        taskStorage.setTaskDeadline(2, firstDate);
+        taskStorage.setTaskDeadline(3, secondDate);
+
+        List<Long> ids = new ArrayList<>();
+        List<LocalDate> deadlines = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<Map<LocalDate, Map<String, List<Task>>>> page = taskStorage.getTasksByDeadlinePage(cursor, 1);
+            for (Map.Entry<LocalDate, Map<String, List<Task>>> entry : page.items().entrySet()) {
+                deadlines.add(entry.getKey());
+                entry.getValue().values().forEach(tasks -> tasks.forEach(task -> ids.add(task.getId())));
+            }
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(ids, contains(2L, 1L, 3L, 4L));
+        assertThat(deadlines, contains(firstDate, firstDate, secondDate, null));
+    }
+
+    @Test
+    void testDeadlinePageOnLastTaskHasNoNextCursor() {
+        taskStorage.addProject("work");
+        taskStorage.addTask("work", "Task 1");
+        taskStorage.setTaskDeadline(1, LocalDate.of(2026, 1, 1));
+
+        Page<Map<LocalDate, Map<String, List<Task>>>> page = taskStorage.getTasksByDeadlinePage(null, 1);
+        assertThat(page.items().get(LocalDate.of(2026, 1, 1)).get("work"), hasSize(1));
+        assertThat(page.nextCursor(), is(nullValue()));
+    }
+
+    @Test
+    void testAddTasksReportsEveryItem() {
+        taskStorage.addProject("secrets");
+        taskStorage.addProject("training");
+
+        List<TaskBatch.ItemResult> results = taskStorage.addTasks(List.of(
+                new TaskBatch.NewTask("secrets", "Eat more donuts."),
+                new TaskBatch.NewTask("nonexistent", "Some task"),
+                new TaskBatch.NewTask("training", "SOLID")));
+
+        assertThat(results, contains(
+                TaskBatch.ItemResult.succeeded(1),
+                TaskBatch.ItemResult.failed(null, "Project not found: nonexistent"),
+                TaskBatch.ItemResult.succeeded(2)));
+        assertThat(taskStorage.returnTaskByID(2).getDescription(), is("SOLID"));
+        assertThat(taskStorage.getAllProjects().get("training"), hasSize(1));
+    }
+
+    @Test
+    void testUpdateTasksChecksAndSetsDeadlines() {
+        LocalDate date = LocalDate.of(2026, 1, 15);
+        taskStorage.addProject("secrets");
+        taskStorage.addTask("secrets", "Eat more donuts.");
+        taskStorage.addTask("secrets", "Destroy all humans.");
+
+        List<TaskBatch.ItemResult> results = taskStorage.updateTasks(List.of(
+                new TaskBatch.TaskUpdate(1, true, null),
+                new TaskBatch.TaskUpdate(2, null, date),
+                new TaskBatch.TaskUpdate(3, true, date)));
+
+        assertThat(results.stream().map(TaskBatch.ItemResult::success).toList(), contains(true, true, false));
+        assertThat(results.get(2).error(), is("Task not found: 3"));
+        assertThat(taskStorage.returnTaskByID(1).isDone(), is(true));
+        assertThat(taskStorage.returnTaskByID(1).getDeadline(), is(nullValue()));
+        assertThat(taskStorage.returnTaskByID(2).isDone(), is(false));
+        assertThat(taskStorage.getTasksSortedByDeadline().get(date).get("secrets"), hasSize(1));
+    }
+
+    @Test
+    void testSetDeadlineForNonExistentTaskThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> taskStorage.setTaskDeadline(999, LocalDate.now()));
+    }
 
     @Test
     void testMultipleProjectsMultipleTasks() {
@@ -215,4 +486,122 @@ public class TaskStorageTest {
         assertThat(projects.get("training"), hasSize(1));
         assertThat(projects.get("shopping"), hasSize(1));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSearchRanksTasksByMatchingWords() {
+        taskStorage.addProject("secrets");
+        taskStorage.addProject("training");
+        taskStorage.addTask("secrets", "Eat more donuts.");
+        taskStorage.addTask("training", "Write more tests");
+        taskStorage.addTask("secrets", "Write tests, then write MORE tests");
+
+        List<TaskSearch.Hit> hits = taskStorage.search("more TESTS", TaskSearch.Filter.NONE, 10);
+
+        assertThat(hits.stream().map(hit -> hit.task().getId()).toList(), contains(2L, 3L, 1L));
+        assertThat(hits.stream().map(TaskSearch.Hit::matches).toList(), contains(2, 2, 1));
+        assertThat(hits.get(1).project(), is("secrets"));
+        assertThat(taskStorage.search("nothing", TaskSearch.Filter.NONE, 10), is(empty()));
+        assertThat(taskStorage.search("!?", TaskSearch.Filter.NONE, 10), is(empty()));
+    }
+
+    @Test
+    void testSearchFiltersAndLimit() {
+        taskStorage.addProject("secrets");
+        taskStorage.addProject("training");
+        for (int i = 0; i < 10; i++) {
+            taskStorage.addTask(i % 2 == 0 ? "secrets" : "training", "Task " + i);
+        }
+        taskStorage.markTask(3, true);
+        taskStorage.markTask(4, true);
+        taskStorage.setTaskDeadline(3, LocalDate.of(2026, 1, 10));
+        taskStorage.setTaskDeadline(5, LocalDate.of(2026, 1, 20));
+
+        assertThat(ids(taskStorage.search("task", new TaskSearch.Filter("secrets", null, null), 10)),
+                contains(1L, 3L, 5L, 7L, 9L));
+        assertThat(ids(taskStorage.search("task", new TaskSearch.Filter(null, true, null), 10)), contains(3L, 4L));
+        assertThat(ids(taskStorage.search("task", new TaskSearch.Filter(null, null, LocalDate.of(2026, 1, 15)), 10)),
+                contains(3L));
+        assertThat(ids(taskStorage.search("task", new TaskSearch.Filter("secrets", false, null), 2)), contains(1L, 5L));
+        assertThat(ids(taskStorage.search("task 7", TaskSearch.Filter.NONE, 2)), contains(8L, 1L));
+        assertThrows(IllegalArgumentException.class, () -> taskStorage.search("task", TaskSearch.Filter.NONE, 0));
+    }
+
+    @Test
+    void testLooksUpSingleProjectsAndTasks() {
+        taskStorage.addProject("secrets");
+        taskStorage.addProject("training");
+        taskStorage.addTask("secrets", "Eat more donuts.");
+        taskStorage.addTask("training", "SOLID");
+
+        assertThat(taskStorage.getProjectTasks("secrets").stream().map(Task::getDescription).toList(),
+                contains("Eat more donuts."));
+        assertThat(taskStorage.getProjectTasks("nothing"), is(nullValue()));
+        assertThat(taskStorage.returnTaskByID("training", 2).getDescription(), is("SOLID"));
+        assertThat(taskStorage.returnTaskByID("secrets", 2), is(nullValue()));
+        assertThat(taskStorage.returnTaskByID("secrets", 3), is(nullValue()));
+        assertThat(taskStorage.failedProjectLookups(), is(1L));
+        assertThat(taskStorage.failedTaskLookups(), is(2L));
+    }
+
+    @Test
+    void testVersionsChangeWithTheData() {
+        assertThat(taskStorage.version(), is(0L));
+        assertThat(taskStorage.projectVersion("secrets"), is(-1L));
+
+        taskStorage.addProject("secrets");
+        taskStorage.addProject("training");
+        taskStorage.addTask("secrets", "Eat more donuts.");
+        long secrets = taskStorage.projectVersion("secrets");
+        long training = taskStorage.projectVersion("training");
+        long version = taskStorage.version();
+        assertThat(version, is(3L));
+
+        taskStorage.markTask(1, true);
+        assertThat(taskStorage.version(), is(greaterThan(version)));
+        assertThat(taskStorage.projectVersion("secrets"), is(greaterThan(secrets)));
+        assertThat(taskStorage.projectVersion("training"), is(training));
+
+        secrets = taskStorage.projectVersion("secrets");
+        version = taskStorage.version();
+        assertThrows(IllegalArgumentException.class, () -> taskStorage.setTaskDeadline(7, LocalDate.of(2026, 1, 15)));
+        taskStorage.updateTasks(List.of(new TaskBatch.TaskUpdate(7, true, null)));
+        assertThat(taskStorage.version(), is(version));
+        assertThat(taskStorage.projectVersion("secrets"), is(secrets));
+
+        taskStorage.addTasks(List.of(new TaskBatch.NewTask("training", "SOLID")));
+        assertThat(taskStorage.projectVersion("training"), is(greaterThan(training)));
+        assertThat(taskStorage.projectVersion("secrets"), is(secrets));
+    }
+
+    //a clock that only moves when told to, in the default time zone
+    private static final class MutableClock extends Clock {
+        private volatile Instant instant;
+
+        MutableClock(LocalDateTime time) {
+            set(time);
+        }
+
+        void set(LocalDateTime time) {
+            instant = time.atZone(ZoneId.systemDefault()).toInstant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+    private static List<Long> ids(List<TaskSearch.Hit> hits) {
+        return hits.stream().map(hit -> hit.task().getId()).toList();
+    }
+}
@@ -0,0 +1,224 @@
+package com.ortecfinance.tasklist;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+public class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @EnumSource(WriteAheadLog.Durability.class)
+    void testStorageIsRestoredAfterRestart(WriteAheadLog.Durability durability) throws IOException {
+        Path path = directory.resolve("tasklist.wal");
+        LocalDate deadline = LocalDate.of(2026, 1, 15);
+
+        try (TaskStorage taskStorage = new TaskStorage(WriteAheadLog.open(path, durability, 10))) {
+            taskStorage.addProject("secrets");
+            taskStorage.addProject("training");
+            taskStorage.addTask("secrets", "Eat more donuts.");
+            taskStorage.addTask("training", "SOLID");
+            taskStorage.markTask(1, true);
+            taskStorage.setTaskDeadline(2, deadline);
+        }
+
+        try (TaskStorage restored = new TaskStorage(WriteAheadLog.open(path, durability, 10))) {
+            Map<String, List<Task>> projects = restored.getAllProjects();
+            assertThat(projects.keySet(), contains("secrets", "training"));
+            assertThat(projects.get("secrets").getFirst().isDone(), is(true));
+            assertThat(projects.get("training").getFirst().getDeadline(), is(deadline));
+            assertThat(restored.getTasksSortedByDeadline().get(deadline).get("training"), hasSize(1));
+
+            //new tasks continue after the replayed ids
+            restored.addTask("secrets", "Destroy all humans.");
+            assertThat(restored.returnTaskByID(3).getDescription(), is("Destroy all humans."));
+        }
+    }
+
+    @Test
+    void testFailedMutationsAreNotLogged() throws IOException {
+        Path path = directory.resolve("tasklist.wal");
+
+        try (TaskStorage taskStorage = new TaskStorage(WriteAheadLog.open(path, WriteAheadLog.Durability.SYNC, 10))) {
+            taskStorage.addProject("secrets");
+            try {
+                taskStorage.addProject("secrets");
+            } catch (IllegalArgumentException e) {
+                //expected
+            }
+        }
+
+        try (WriteAheadLog log = WriteAheadLog.open(path, WriteAheadLog.Durability.SYNC, 10)) {
+            List<LogRecord> records = new ArrayList<>();
+            log.replay(records::add);
+            assertThat(records, contains(new LogRecord.AddProject("secrets")));
+        }
+    }
+
+    @Test
+    void testBatchesAreLoggedWithoutTheFailedItems() throws IOException {
+        Path path = directory.resolve("tasklist.wal");
+
+        try (TaskStorage taskStorage = new TaskStorage(WriteAheadLog.open(path, WriteAheadLog.Durability.SYNC, 10))) {
+            taskStorage.addProject("secrets");
+            taskStorage.addTasks(List.of(
+                    new TaskBatch.NewTask("secrets", "Eat more donuts."),
+                    new TaskBatch.NewTask("nonexistent", "Some task"),
+                    new TaskBatch.NewTask("secrets", "Destroy all humans.")));
+            taskStorage.updateTasks(List.of(
+                    new TaskBatch.TaskUpdate(2, true, LocalDate.of(2026, 1, 15)),
+                    new TaskBatch.TaskUpdate(99, true, null)));
+        }
+
+        try (WriteAheadLog log = WriteAheadLog.open(path, WriteAheadLog.Durability.SYNC, 10)) {
+            List<LogRecord> records = new ArrayList<>();
+            log.replay(records::add);
+            assertThat(records, contains(
+                    new LogRecord.AddProject("secrets"),
+                    new LogRecord.AddTask(1, "secrets", "Eat more donuts."),
+                    new LogRecord.AddTask(2, "secrets", "Destroy all humans."),
+                    new LogRecord.MarkTask(2, true),
+                    new LogRecord.SetDeadline(2, LocalDate.of(2026, 1, 15))));
+        }
+    }
+
+    @Test
+    void testTornRecordAtTheEndIsDropped() throws IOException {
+        Path path = directory.resolve("tasklist.wal");
+
+        try (TaskStorage taskStorage = new TaskStorage(WriteAheadLog.open(path, WriteAheadLog.Durability.SYNC, 10))) {
+            taskStorage.addProject("secrets");
+            taskStorage.addTask("secrets", "Eat more donuts.");
+        }
+        long sizeBeforeCrash = Files.size(path);
+        //simulate a crash in the middle of writing the next record
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 42, 1, 2, 3}));
+        }
+
+        try (TaskStorage restored = new TaskStorage(WriteAheadLog.open(path, WriteAheadLog.Durability.SYNC, 10))) {
+            assertThat(restored.getAllProjects().get("secrets"), hasSize(1));
+            assertThat(Files.size(path), is(sizeBeforeCrash));
+            restored.addTask("secrets", "Destroy all humans.");
+        }
+
+        try (TaskStorage restored = new TaskStorage(WriteAheadLog.open(path, WriteAheadLog.Durability.SYNC, 10))) {
+            assertThat(restored.getAllProjects().get("secrets"), hasSize(2));
+        }
+    }
+
+    @Test
+    void testZerosAtTheEndAreDropped() throws IOException {
+        Path path = directory.resolve("tasklist.wal");
+
+        try (TaskStorage taskStorage = new TaskStorage(WriteAheadLog.open(path, WriteAheadLog.Durability.SYNC, 10))) {
+            taskStorage.addProject("secrets");
+        }
+        long sizeBeforeCrash = Files.size(path);
+        //the file grew in the crash but the record never made it
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(4096));
+        }
+
+        try (TaskStorage restored = new TaskStorage(WriteAheadLog.open(path, WriteAheadLog.Durability.SYNC, 10))) {
+            assertThat(restored.getAllProjects().keySet(), contains("secrets"));
+            assertThat(Files.size(path), is(sizeBeforeCrash));
+        }
+    }
+
+    @Test
+    void testCorruptRecordBeforeGoodOnesFailsReplayAndKeepsTheFile() throws IOException {
+        Path path = directory.resolve("tasklist.wal");
+
+        try (TaskStorage taskStorage = new TaskStorage(WriteAheadLog.open(path, WriteAheadLog.Durability.SYNC, 10))) {
+            taskStorage.addProject("secrets");
+            taskStorage.addTask("secrets", "Eat more donuts.");
+            taskStorage.addTask("secrets", "Destroy all humans.");
+        }
+        byte[] original = Files.readAllBytes(path);
+
+        //a flipped bit in the body of the first record
+        byte[] badChecksum = original.clone();
+        badChecksum[12] ^= 1;
+        //a flipped bit in the length of the first record, replay must not try to read 2 GB
+        byte[] badLength = original.clone();
+        badLength[0] ^= 0x40;
+
+        for (byte[] corrupt : List.of(badChecksum, badLength)) {
+            Files.write(path, corrupt);
+            IOException e = assertThrows(IOException.class,
+                    () -> new TaskStorage(WriteAheadLog.open(path, WriteAheadLog.Durability.SYNC, 10)));
+            assertThat(e.getMessage(), containsString("at byte 0"));
+            assertThat(Files.readAllBytes(path), is(corrupt));
+        }
+    }
+
+    @Test
+    void testConcurrentWritersAreGroupCommitted() throws Exception {
+        Path path = directory.resolve("tasklist.wal");
+        int threads = 8;
+        int tasksPerThread = 500;
+
+        try (TaskStorage taskStorage = new TaskStorage(WriteAheadLog.open(path, WriteAheadLog.Durability.BATCHED, 10))) {
+            taskStorage.addProject("work");
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < tasksPerThread; i++) {
+                        taskStorage.addTask("work", "Task " + i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+        }
+
+        try (TaskStorage restored = new TaskStorage(WriteAheadLog.open(path, WriteAheadLog.Durability.BATCHED, 10))) {
+            assertThat(restored.getAllProjects().get("work"), hasSize(threads * tasksPerThread));
+        }
+    }
+
+    @Test
+    void testSyncDoesNotWaitForTheAsyncFlushInterval() throws IOException {
+        Path path = directory.resolve("tasklist.wal");
+        //an hour between flushes, only sync() gets the changes on disk in time
+        try (WriteAheadLog log = WriteAheadLog.open(path, WriteAheadLog.Durability.ASYNC, 3_600_000)) {
+            TaskStorage taskStorage = new TaskStorage(log);
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                for (int round = 0; round < 3; round++) {
+                    long size = Files.size(path);
+                    taskStorage.addProject("project " + round);
+                    taskStorage.sync();
+                    assertThat(Files.size(path), is(greaterThan(size)));
+                }
+            });
+        }
+    }
+}